@@ -21,8 +21,12 @@ public class VehiculoController {
         this.vehiculoFactory = vehiculoFactory;
     }
 
+    // ?estado=DISPONIBLE filtra en la consulta (lo usa la asignación automática de pedido-service)
     @GetMapping("/vehiculos")
-    public List<Vehiculo> listarVehiculos() {
+    public List<Vehiculo> listarVehiculos(@RequestParam(required = false) String estado) {
+        if (estado != null) {
+            return vehiculoRepository.findByEstado(estado);
+        }
         return vehiculoRepository.findAll();
     }
 
@@ -0,0 +1,49 @@
+package ec.edu.espe.graphql_service.config;
+
+import org.springframework.amqp.core.*;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RabbitMQConfig {
+    
+    @Value("${rabbitmq.queues.pedidos}")
+    private String pedidosQueue;
+    
+    @Value("${rabbitmq.exchanges.pedidos}")
+    private String pedidosExchange;
+    
+    @Value("${rabbitmq.routing-keys.creado}")
+    private String pedidoCreadoKey;
+    
+    @Value("${rabbitmq.routing-keys.actualizado}")
+    private String pedidoActualizadoKey;
+    
+    @Bean
+    public TopicExchange pedidosExchange() {
+        return new TopicExchange(pedidosExchange);
+    }
+    
+    @Bean
+    public Queue pedidosQueue() {
+        return new Queue(pedidosQueue, true);
+    }
+    
+    @Bean
+    public Binding pedidoCreadoBinding(Queue pedidosQueue, TopicExchange pedidosExchange) {
+        return BindingBuilder.bind(pedidosQueue).to(pedidosExchange).with(pedidoCreadoKey);
+    }
+    
+    @Bean
+    public Binding pedidoActualizadoBinding(Queue pedidosQueue, TopicExchange pedidosExchange) {
+        return BindingBuilder.bind(pedidosQueue).to(pedidosExchange).with(pedidoActualizadoKey);
+    }
+    
+    @Bean
+    public MessageConverter jsonMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+}
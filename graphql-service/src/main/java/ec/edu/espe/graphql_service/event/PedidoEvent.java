@@ -0,0 +1,20 @@
+package ec.edu.espe.graphql_service.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PedidoEvent {
+    private String eventId;
+    private Long pedidoId;
+    private Long clienteId;
+    private String estado;
+    private String direccionEntrega;
+    private Double tarifa;
+    private String timestamp;
+    private Long repartidorId;
+    private Long version;
+}
@@ -0,0 +1,28 @@
+package ec.edu.espe.graphql_service.listener;
+
+import ec.edu.espe.graphql_service.event.PedidoEvent;
+import ec.edu.espe.graphql_service.service.ProyeccionPedidoService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@Slf4j
+public class PedidoEventListener {
+
+    private final ProyeccionPedidoService proyeccionPedidoService;
+
+    public PedidoEventListener(ProyeccionPedidoService proyeccionPedidoService) {
+        this.proyeccionPedidoService = proyeccionPedidoService;
+    }
+
+    /**
+     * Creaciones y cambios de estado llegan por la misma cola para conservar su orden
+     */
+    @RabbitListener(queues = "${rabbitmq.queues.pedidos}")
+    public void handlePedidoEvent(PedidoEvent event) {
+        log.info("📥 Evento de pedido recibido: pedido={} estado={} versión={}",
+                 event.getPedidoId(), event.getEstado(), event.getVersion());
+        proyeccionPedidoService.aplicar(event);
+    }
+}
@@ -5,15 +5,24 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
+/**
+ * Modelo de lectura de pedidos (CQRS): proyección desnormalizada mantenida a partir
+ * de los eventos de pedido-service; el id es el mismo del pedido original.
+ */
 @Entity
-@Table(name = "pedidos")
+@Table(name = "pedidos", indexes = {
+    @Index(name = "idx_pedidos_estado_id", columnList = "estado, id"),
+    @Index(name = "idx_pedidos_cliente_id", columnList = "clienteId, id"),
+    @Index(name = "idx_pedidos_repartidor_id", columnList = "repartidorId, id"),
+    @Index(name = "idx_pedidos_fecha_creacion", columnList = "fechaCreacion")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Pedido {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     private Long clienteId;
     private String direccionEntrega;
@@ -22,4 +31,7 @@ public class Pedido {
     private BigDecimal tarifa;
     private Long repartidorId;
     private Boolean cancelado = false;
+    private Long version; // Versión del pedido en pedido-service del último evento aplicado
+    private LocalDateTime fechaCreacion;
+    private LocalDateTime fechaActualizacion;
 }
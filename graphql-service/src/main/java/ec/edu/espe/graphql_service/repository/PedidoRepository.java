@@ -2,12 +2,34 @@ package ec.edu.espe.graphql_service.repository;
 
 import ec.edu.espe.graphql_service.model.Pedido;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface PedidoRepository extends JpaRepository<Pedido, Long> {
+public interface PedidoRepository extends JpaRepository<Pedido, Long>, JpaSpecificationExecutor<Pedido> {
     List<Pedido> findByEstado(String estado);
     List<Pedido> findByClienteId(Long clienteId);
     List<Pedido> findByRepartidorId(Long repartidorId);
+
+    // KPIs de los pedidos creados en un rango, agregados en la base de datos
+    @Query("SELECT COUNT(p) AS total, " +
+           "SUM(CASE WHEN p.estado = 'ENTREGADO' THEN 1 ELSE 0 END) AS entregados, " +
+           "SUM(CASE WHEN p.estado IN ('PENDIENTE', 'RECIBIDO') THEN 1 ELSE 0 END) AS pendientes, " +
+           "SUM(CASE WHEN p.cancelado = true THEN 1 ELSE 0 END) AS cancelados, " +
+           "AVG(p.tarifa) AS tarifaPromedio " +
+           "FROM Pedido p WHERE p.fechaCreacion >= :desde AND p.fechaCreacion < :hasta")
+    ResumenPedidos resumirCreadosEntre(@Param("desde") LocalDateTime desde, @Param("hasta") LocalDateTime hasta);
+
+    interface ResumenPedidos {
+        Long getTotal();
+        Long getEntregados();
+        Long getPendientes();
+        Long getCancelados();
+        Double getTarifaPromedio();
+    }
 }
@@ -0,0 +1,31 @@
+package ec.edu.espe.graphql_service.repository;
+
+import ec.edu.espe.graphql_service.dto.PedidoFiltro;
+import ec.edu.espe.graphql_service.model.Pedido;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Filtros de la consulta de pedidos; solo se agregan los predicados de los filtros presentes
+ */
+public final class PedidoSpecifications {
+
+    private PedidoSpecifications() {
+    }
+
+    public static Specification<Pedido> conFiltro(PedidoFiltro filtro) {
+        Specification<Pedido> spec = Specification.where(null);
+        if (filtro == null) {
+            return spec;
+        }
+        if (filtro.getEstado() != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("estado"), filtro.getEstado()));
+        }
+        if (filtro.getClienteId() != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("clienteId"), filtro.getClienteId()));
+        }
+        if (filtro.getRepartidorId() != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("repartidorId"), filtro.getRepartidorId()));
+        }
+        return spec;
+    }
+}
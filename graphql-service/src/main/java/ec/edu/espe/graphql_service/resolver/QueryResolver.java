@@ -4,6 +4,7 @@ import ec.edu.espe.graphql_service.dto.*;
 import ec.edu.espe.graphql_service.model.*;
 import ec.edu.espe.graphql_service.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
 import org.springframework.stereotype.Controller;
@@ -11,7 +12,6 @@ import org.springframework.stereotype.Controller;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Controller
 @RequiredArgsConstructor
@@ -28,33 +28,10 @@ public class QueryResolver {
                 .orElseThrow(() -> new RuntimeException("Pedido no encontrado: " + id));
     }
     
+    // Filtros resueltos en la base de datos sobre el modelo de lectura indexado
     @QueryMapping
     public List<Pedido> pedidos(@Argument PedidoFiltro filtro) {
-        if (filtro == null) {
-            return pedidoRepository.findAll();
-        }
-        
-        List<Pedido> resultado = pedidoRepository.findAll();
-        
-        if (filtro.getEstado() != null) {
-            resultado = resultado.stream()
-                    .filter(p -> filtro.getEstado().equals(p.getEstado()))
-                    .collect(Collectors.toList());
-        }
-        
-        if (filtro.getClienteId() != null) {
-            resultado = resultado.stream()
-                    .filter(p -> filtro.getClienteId().equals(p.getClienteId()))
-                    .collect(Collectors.toList());
-        }
-        
-        if (filtro.getRepartidorId() != null) {
-            resultado = resultado.stream()
-                    .filter(p -> filtro.getRepartidorId().equals(p.getRepartidorId()))
-                    .collect(Collectors.toList());
-        }
-        
-        return resultado;
+        return pedidoRepository.findAll(PedidoSpecifications.conFiltro(filtro), Sort.by(Sort.Direction.DESC, "id"));
     }
     
     @QueryMapping
@@ -84,19 +61,17 @@ public class QueryResolver {
     
     @QueryMapping
     public KPIDiario kpiDiario(@Argument String fecha) {
-        String fechaStr = fecha != null ? fecha : LocalDate.now().toString();
-        List<Pedido> pedidos = pedidoRepository.findAll();
-        
-        int total = pedidos.size();
-        int entregados = (int) pedidos.stream().filter(p -> "ENTREGADO".equals(p.getEstado())).count();
-        int pendientes = (int) pedidos.stream().filter(p -> "PENDIENTE".equals(p.getEstado()) || "RECIBIDO".equals(p.getEstado())).count();
-        int cancelados = (int) pedidos.stream().filter(p -> Boolean.TRUE.equals(p.getCancelado())).count();
+        LocalDate dia = fecha != null ? LocalDate.parse(fecha) : LocalDate.now();
+        String fechaStr = dia.toString();
         
-        double tarifaPromedio = pedidos.stream()
-                .filter(p -> p.getTarifa() != null)
-                .mapToDouble(p -> p.getTarifa().doubleValue())
-                .average()
-                .orElse(0.0);
+        // Pedidos creados ese día, agregados en la base de datos
+        PedidoRepository.ResumenPedidos resumen = pedidoRepository.resumirCreadosEntre(
+                dia.atStartOfDay(), dia.plusDays(1).atStartOfDay());
+        int total = entero(resumen.getTotal());
+        int entregados = entero(resumen.getEntregados());
+        int pendientes = entero(resumen.getPendientes());
+        int cancelados = entero(resumen.getCancelados());
+        double tarifaPromedio = resumen.getTarifaPromedio() != null ? resumen.getTarifaPromedio() : 0.0;
         
         int vehiculosActivos = (int) vehiculoRepository.findAll().stream()
                 .filter(v -> !"MANTENIMIENTO".equals(v.getEstado()))
@@ -116,4 +91,8 @@ public class QueryResolver {
         
         return new FlotaResumen(total, disponibles, enRuta, mantenimiento);
     }
+    
+    private static int entero(Long valor) {
+        return valor != null ? valor.intValue() : 0;
+    }
 }
@@ -0,0 +1,78 @@
+package ec.edu.espe.graphql_service.service;
+
+import ec.edu.espe.graphql_service.event.PedidoEvent;
+import ec.edu.espe.graphql_service.model.Pedido;
+import ec.edu.espe.graphql_service.repository.PedidoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Mantiene el modelo de lectura de pedidos a partir de los eventos de pedido-service.
+ * Cada evento trae el estado completo del pedido, así que se aplica como un upsert;
+ * los eventos repetidos o más viejos que la versión ya aplicada se descartan.
+ */
+@Service
+@Slf4j
+public class ProyeccionPedidoService {
+
+    private final PedidoRepository pedidoRepository;
+
+    public ProyeccionPedidoService(PedidoRepository pedidoRepository) {
+        this.pedidoRepository = pedidoRepository;
+    }
+
+    @Transactional
+    public void aplicar(PedidoEvent event) {
+        if (event.getPedidoId() == null) {
+            log.warn("Evento de pedido sin pedidoId descartado: {}", event.getEventId());
+            return;
+        }
+
+        Pedido pedido = pedidoRepository.findById(event.getPedidoId()).orElse(null);
+        if (pedido != null && esAnterior(event, pedido)) {
+            log.debug("Evento {} del pedido {} ya aplicado o desactualizado (versión {} <= {})",
+                      event.getEventId(), event.getPedidoId(), event.getVersion(), pedido.getVersion());
+            return;
+        }
+
+        LocalDateTime fecha = fecha(event.getTimestamp());
+        if (pedido == null) {
+            pedido = new Pedido();
+            pedido.setId(event.getPedidoId());
+            pedido.setFechaCreacion(fecha);
+        }
+        pedido.setClienteId(event.getClienteId());
+        pedido.setDireccionEntrega(event.getDireccionEntrega());
+        pedido.setEstado(event.getEstado());
+        pedido.setTarifa(event.getTarifa() != null ? BigDecimal.valueOf(event.getTarifa()) : null);
+        pedido.setRepartidorId(event.getRepartidorId());
+        pedido.setCancelado("CANCELADO".equals(event.getEstado()));
+        pedido.setVersion(event.getVersion());
+        pedido.setFechaActualizacion(fecha);
+        pedidoRepository.save(pedido);
+    }
+
+    /**
+     * Sin versión (productores anteriores) el evento se aplica siempre: es un snapshot completo
+     */
+    private static boolean esAnterior(PedidoEvent event, Pedido pedido) {
+        return event.getVersion() != null && pedido.getVersion() != null
+                && event.getVersion() <= pedido.getVersion();
+    }
+
+    private static LocalDateTime fecha(String timestamp) {
+        if (timestamp == null) {
+            return LocalDateTime.now();
+        }
+        try {
+            return LocalDateTime.parse(timestamp);
+        } catch (DateTimeParseException e) {
+            return LocalDateTime.now();
+        }
+    }
+}
@@ -2,6 +2,7 @@ import { useState, useEffect } from 'react';
 import { MapContainer, TileLayer, Marker, Popup, Polyline } from 'react-leaflet';
 import L from 'leaflet';
 import 'leaflet/dist/leaflet.css';
+import { listarPedidos } from './config/pedidosApi';
 
 // Fix for default marker icons in React-Leaflet
 delete (L.Icon.Default.prototype as any)._getIconUrl;
@@ -86,13 +87,8 @@ const api = {
     return res.text();
   },
 
-  getPedidos: async (token: string): Promise<Pedido[]> => {
-    const url = isDev ? `${API_BASE}/api/pedidos` : '/api/pedidos';
-    const res = await fetch(url, {
-      headers: { 'Authorization': `Bearer ${token}` }
-    });
-    return res.json();
-  },
+  getPedidos: (token: string, clienteId: number): Promise<Pedido[]> =>
+    listarPedidos<Pedido>(API_BASE, token, { clienteId }),
 
   crearPedido: async (token: string, pedido: Partial<Pedido>): Promise<Pedido> => {
     const url = isDev ? `${API_BASE}/api/pedidos` : '/api/pedidos';
@@ -312,7 +308,7 @@ function ClienteDashboard({ token, user }: { token: string; user: Usuario }) {
 
   const cargarPedidos = async () => {
     try {
-      const data = await api.getPedidos(token);
+      const data = await api.getPedidos(token, parseInt(user.cedula));
       setPedidos(data);
     } catch (err) {
       // Datos de demostración
@@ -0,0 +1,47 @@
+// Listado paginado de pedidos: GET /api/pedidos responde páginas acotadas (más recientes primero)
+// y el cursor de la siguiente página llega en el header X-Next-Cursor.
+
+const HEADER_SIGUIENTE_CURSOR = 'X-Next-Cursor';
+const TAMANO_PAGINA = 100;
+
+// Vistas sin filtro (supervisor, gerente): solo los pedidos más recientes
+export const MAX_PAGINAS_VISTA_GENERAL = 5;
+
+export interface FiltrosPedidos {
+  clienteId?: number;
+  repartidorId?: number;
+  estado?: string;
+}
+
+export async function listarPedidos<T>(
+  baseUrl: string,
+  token: string | null,
+  filtros: FiltrosPedidos = {},
+  maxPaginas: number = Number.POSITIVE_INFINITY
+): Promise<T[]> {
+  const pedidos: T[] = [];
+  let cursor: string | null = null;
+  for (let pagina = 0; pagina < maxPaginas; pagina++) {
+    const params = new URLSearchParams({ limit: String(TAMANO_PAGINA) });
+    Object.entries(filtros).forEach(([clave, valor]) => {
+      if (valor !== undefined && valor !== null) {
+        params.set(clave, String(valor));
+      }
+    });
+    if (cursor) {
+      params.set('cursor', cursor);
+    }
+    const res = await fetch(`${baseUrl}/api/pedidos?${params.toString()}`, {
+      headers: { 'Authorization': `Bearer ${token}` }
+    });
+    if (!res.ok) {
+      throw new Error(`Error ${res.status} al listar pedidos`);
+    }
+    pedidos.push(...((await res.json()) as T[]));
+    cursor = res.headers.get(HEADER_SIGUIENTE_CURSOR);
+    if (!cursor) {
+      break;
+    }
+  }
+  return pedidos;
+}
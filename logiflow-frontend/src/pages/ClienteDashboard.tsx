@@ -3,6 +3,7 @@ import { MapContainer, TileLayer, Marker, Popup, Polyline, useMap } from 'react-
 import L from 'leaflet';
 import { useAuth } from '../context/AuthContext';
 import { useWebSocket } from '../hooks/useWebSocket';
+import { listarPedidos } from '../config/pedidosApi';
 import 'leaflet/dist/leaflet.css';
 
 // Coordenadas base para Quito (simulación)
@@ -124,15 +125,7 @@ export default function ClienteDashboard() {
 
   const cargarPedidos = async () => {
     try {
-      const url = isDev ? `${API_BASE}/api/pedidos` : '/api/pedidos';
-      const res = await fetch(url, {
-        headers: { 'Authorization': `Bearer ${token}` }
-      });
-      if (res.ok) {
-        setPedidos(await res.json());
-      } else {
-        throw new Error('API error');
-      }
+      setPedidos(await listarPedidos<Pedido>(API_BASE, token, { clienteId: parseInt(user?.cedula || '0') }));
     } catch {
       // Demo data
       setPedidos([
@@ -1,5 +1,6 @@
 import { useState, useEffect, useMemo } from 'react';
 import { useAuth } from '../context/AuthContext';
+import { listarPedidos, MAX_PAGINAS_VISTA_GENERAL } from '../config/pedidosApi';
 import { useQuery } from '@apollo/client';
 import { GET_PEDIDOS } from '../graphql/queries';
 import { 
@@ -60,13 +61,8 @@ export default function GerenteDashboard() {
   // Cargar pedidos desde la API REST
   const cargarPedidos = async () => {
     try {
-      const res = await fetch(`${PEDIDO_API}/api/pedidos`, {
-        headers: { 'Authorization': `Bearer ${token}` }
-      });
-      if (res.ok) {
-        const data = await res.json();
-        setPedidos(data);
-      }
+      const data = await listarPedidos<Pedido>(PEDIDO_API, token, {}, MAX_PAGINAS_VISTA_GENERAL);
+      setPedidos(data);
     } catch (err) {
       console.error('Error cargando pedidos:', err);
     }
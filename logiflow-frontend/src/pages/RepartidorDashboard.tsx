@@ -3,6 +3,7 @@ import { MapContainer, TileLayer, Marker, Popup } from 'react-leaflet';
 import L from 'leaflet';
 import { useAuth } from '../context/AuthContext';
 import { useWebSocket } from '../hooks/useWebSocket';
+import { listarPedidos } from '../config/pedidosApi';
 import 'leaflet/dist/leaflet.css';
 
 const isDev = import.meta.env?.DEV ?? false;
@@ -49,14 +50,8 @@ export default function RepartidorDashboard() {
   // Cargar pedidos desde la API
   const cargarPedidos = async () => {
     try {
-      const res = await fetch(`${PEDIDO_API}/api/pedidos`, {
-        headers: { 'Authorization': `Bearer ${token}` }
-      });
-      if (res.ok) {
-        const data = await res.json();
-        // Mostrar todos los pedidos (en una app real filtraríamos por repartidorId)
-        setAsignaciones(data);
-      }
+      const data = await listarPedidos<Pedido>(PEDIDO_API, token, { repartidorId: user?.id });
+      setAsignaciones(data);
     } catch (err) {
       console.error('Error cargando pedidos:', err);
     }
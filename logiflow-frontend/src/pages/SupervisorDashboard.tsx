@@ -3,6 +3,7 @@ import { MapContainer, TileLayer, Marker, Popup } from 'react-leaflet';
 import L from 'leaflet';
 import { useAuth } from '../context/AuthContext';
 import { useWebSocket } from '../hooks/useWebSocket';
+import { listarPedidos, MAX_PAGINAS_VISTA_GENERAL } from '../config/pedidosApi';
 import 'leaflet/dist/leaflet.css';
 
 const isDev = import.meta.env?.DEV ?? false;
@@ -81,13 +82,8 @@ export default function SupervisorDashboard() {
   // Cargar pedidos desde la API
   const cargarPedidos = async () => {
     try {
-      const res = await fetch(`${PEDIDO_API}/api/pedidos`, {
-        headers: { 'Authorization': `Bearer ${token}` }
-      });
-      if (res.ok) {
-        const data = await res.json();
-        setPedidos(data);
-      }
+      const data = await listarPedidos<Pedido>(PEDIDO_API, token, {}, MAX_PAGINAS_VISTA_GENERAL);
+      setPedidos(data);
     } catch (err) {
       console.error('Error cargando pedidos:', err);
     }
@@ -21,6 +21,9 @@ public class RabbitMQConfig {
     @Value("${rabbitmq.queues.ubicacion-actualizada}")
     private String ubicacionActualizadaQueue;
     
+    @Value("${rabbitmq.queues.geocerca-entrada}")
+    private String geocercaEntradaQueue;
+    
     @Value("${rabbitmq.exchanges.pedidos}")
     private String pedidosExchange;
     
@@ -36,6 +39,9 @@ public class RabbitMQConfig {
     @Value("${rabbitmq.routing-keys.ubicacion}")
     private String ubicacionKey;
     
+    @Value("${rabbitmq.routing-keys.geocerca-entrada}")
+    private String geocercaEntradaKey;
+    
     // Exchanges
     @Bean
     public TopicExchange pedidosExchange() {
@@ -63,6 +69,11 @@ public class RabbitMQConfig {
         return new Queue(ubicacionActualizadaQueue, true);
     }
     
+    @Bean
+    public Queue geocercaEntradaQueue() {
+        return new Queue(geocercaEntradaQueue, true);
+    }
+    
     // Bindings
     @Bean
     public Binding pedidoCreadoBinding(Queue pedidoCreadoQueue, TopicExchange pedidosExchange) {
@@ -79,10 +90,16 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(ubicacionActualizadaQueue).to(trackingExchange).with(ubicacionKey);
     }
     
+    @Bean
+    public Binding geocercaEntradaBinding(Queue geocercaEntradaQueue, TopicExchange trackingExchange) {
+        return BindingBuilder.bind(geocercaEntradaQueue).to(trackingExchange).with(geocercaEntradaKey);
+    }
+    
     // Conversor JSON
     @Bean
     public MessageConverter jsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
+        // Acepta eventos de ubicación en JSON o en el formato binario de tracking-service
+        return new UbicacionBinaryMessageConverter(new Jackson2JsonMessageConverter());
     }
     
     @Bean
@@ -0,0 +1,111 @@
+package ec.edu.espe.notification_service.config;
+
+import ec.edu.espe.notification_service.event.UbicacionEvent;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Lectura del formato binario compacto de eventos de ubicación publicado por tracking-service
+ * (content-type {@value #CONTENT_TYPE}). Cualquier otro mensaje se delega al conversor JSON,
+ * así que ambos formatos se aceptan en las mismas colas. La especificación del formato está
+ * en el conversor homónimo de tracking-service.
+ */
+public class UbicacionBinaryMessageConverter implements MessageConverter {
+
+    public static final String CONTENT_TYPE = "application/x-logiflow-ubicacion";
+
+    private static final byte VERSION = 1;
+    private static final int FLAG_PEDIDO = 1;
+    private static final int FLAG_VELOCIDAD = 2;
+    private static final int FLAG_DIRECCION = 4;
+    private static final int FLAG_EVENT_ID_TEXTO = 8;
+    private static final int ESTADO_TEXTO = 255;
+    private static final String[] ESTADOS = {null, "EN_RUTA", "DETENIDO", "ENTREGANDO"};
+
+    private final MessageConverter delegado;
+
+    public UbicacionBinaryMessageConverter(MessageConverter delegado) {
+        this.delegado = delegado;
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) {
+        return delegado.toMessage(object, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        if (!CONTENT_TYPE.equals(message.getMessageProperties().getContentType())) {
+            return delegado.fromMessage(message);
+        }
+        try {
+            return decodificar(ByteBuffer.wrap(message.getBody()));
+        } catch (BufferUnderflowException | IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new MessageConversionException("Mensaje de ubicación binario inválido", e);
+        }
+    }
+
+    private static UbicacionEvent decodificar(ByteBuffer buffer) {
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Versión de formato no soportada: " + version);
+        }
+        int flags = buffer.get();
+
+        UbicacionEvent event = new UbicacionEvent();
+        if ((flags & FLAG_EVENT_ID_TEXTO) == 0) {
+            event.setEventId(new UUID(buffer.getLong(), buffer.getLong()).toString());
+        } else {
+            String eventId = leerTexto(buffer);
+            event.setEventId(eventId.isEmpty() ? null : eventId);
+        }
+        event.setRepartidorId(leerVarint(buffer));
+        event.setLatitud(buffer.getInt() / 1e7);
+        event.setLongitud(buffer.getInt() / 1e7);
+        event.setTimestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(leerVarint(buffer)), ZoneOffset.UTC).toString());
+        int codigoEstado = buffer.get() & 0xFF;
+        event.setEstado(codigoEstado == ESTADO_TEXTO ? leerTexto(buffer) : ESTADOS[codigoEstado]);
+        if ((flags & FLAG_PEDIDO) != 0) {
+            event.setPedidoId(leerVarint(buffer));
+        }
+        if ((flags & FLAG_VELOCIDAD) != 0) {
+            event.setVelocidad(leerVarint(buffer) / 100.0);
+        }
+        if ((flags & FLAG_DIRECCION) != 0) {
+            leerTexto(buffer); // la dirección no forma parte del evento en este servicio
+        }
+        return event;
+    }
+
+    private static String leerTexto(ByteBuffer buffer) {
+        int longitud = (int) leerVarint(buffer);
+        if (longitud < 0 || longitud > buffer.remaining()) {
+            throw new IllegalArgumentException("Longitud de texto inválida: " + longitud);
+        }
+        String texto = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), longitud, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + longitud);
+        return texto;
+    }
+
+    private static long leerVarint(ByteBuffer buffer) {
+        long valor = 0;
+        for (int desplazamiento = 0; desplazamiento < 64; desplazamiento += 7) {
+            byte b = buffer.get();
+            valor |= (long) (b & 0x7F) << desplazamiento;
+            if ((b & 0x80) == 0) {
+                return valor;
+            }
+        }
+        throw new IllegalArgumentException("Varint demasiado largo");
+    }
+}
@@ -1,7 +1,9 @@
 package ec.edu.espe.notification_service.controller;
 
 import ec.edu.espe.notification_service.model.Notificacion;
+import ec.edu.espe.notification_service.service.CoalescenciaEstadosPedido;
 import ec.edu.espe.notification_service.service.NotificationService;
+import ec.edu.espe.notification_service.service.ReintentoNotificaciones;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -9,6 +11,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/notifications")
@@ -17,6 +20,8 @@ import java.util.List;
 public class NotificationController {
     
     private final NotificationService notificationService;
+    private final CoalescenciaEstadosPedido coalescenciaEstados;
+    private final ReintentoNotificaciones reintentoNotificaciones;
     
     @GetMapping("/destinatario/{destinatario}")
     @Operation(summary = "Obtener notificaciones por destinatario")
@@ -32,10 +37,39 @@ public class NotificationController {
         return ResponseEntity.ok(notificaciones);
     }
     
+    @GetMapping("/metricas/pipeline")
+    @Operation(summary = "Métricas del pipeline de notificaciones",
+               description = "Notificaciones encoladas, guardadas, duplicadas, enviadas y fallidas, y ocupación de las colas por canal")
+    public ResponseEntity<Map<String, Object>> obtenerMetricasPipeline() {
+        return ResponseEntity.ok(notificationService.obtenerMetricasPipeline());
+    }
+    
+    @GetMapping("/metricas/despacho")
+    @Operation(summary = "Métricas del despacho por canal",
+               description = "Límite de tasa, tokens disponibles y, por carril de prioridad, profundidad de cola y latencias de espera y envío")
+    public ResponseEntity<Map<String, Object>> obtenerMetricasDespacho() {
+        return ResponseEntity.ok(notificationService.obtenerMetricasDespacho());
+    }
+    
+    @GetMapping("/metricas/coalescencia")
+    @Operation(summary = "Métricas de la coalescencia de cambios de estado",
+               description = "Eventos recibidos, avisos enviados, reemplazados dentro de la ventana, obsoletos y retenidos")
+    public ResponseEntity<Map<String, Object>> obtenerMetricasCoalescencia() {
+        return ResponseEntity.ok(coalescenciaEstados.metricas());
+    }
+    
+    @GetMapping("/metricas/reintentos")
+    @Operation(summary = "Métricas de los reintentos programados",
+               description = "Notificaciones reclamadas para reintento y canales en pausa por fallos seguidos del proveedor")
+    public ResponseEntity<Map<String, Object>> obtenerMetricasReintentos() {
+        return ResponseEntity.ok(reintentoNotificaciones.metricas());
+    }
+    
     @PostMapping("/reintentar-fallidas")
-    @Operation(summary = "Reintentar envío de notificaciones fallidas")
+    @Operation(summary = "Reintentar envío de notificaciones fallidas",
+               description = "Las fallidas (no las descartadas) se reprograman de inmediato; el planificador las envía por lotes")
     public ResponseEntity<String> reintentarFallidas() {
-        notificationService.reintentarFallidas();
-        return ResponseEntity.ok("Reintento de notificaciones fallidas iniciado");
+        int reprogramadas = notificationService.reintentarFallidas();
+        return ResponseEntity.ok("Reintento de " + reprogramadas + " notificaciones fallidas iniciado");
     }
 }
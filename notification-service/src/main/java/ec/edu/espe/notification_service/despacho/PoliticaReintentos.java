@@ -0,0 +1,39 @@
+package ec.edu.espe.notification_service.despacho;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Backoff exponencial con jitter para los reintentos: tras el intento n la espera es un valor
+ * al azar entre la mitad y el total de base·2^(n-1), con tope en {@code esperaMaxima}.
+ * El jitter evita que las fallas de una caída del proveedor se reintenten todas a la vez.
+ */
+public class PoliticaReintentos {
+
+    private final int maximoIntentos;
+    private final long esperaBaseMs;
+    private final long esperaMaximaMs;
+
+    public PoliticaReintentos(int maximoIntentos, long esperaBaseMs, long esperaMaximaMs) {
+        if (maximoIntentos < 1 || esperaBaseMs <= 0 || esperaMaximaMs < esperaBaseMs) {
+            throw new IllegalArgumentException("Configuración de reintentos inválida");
+        }
+        this.maximoIntentos = maximoIntentos;
+        this.esperaBaseMs = esperaBaseMs;
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+
+    /**
+     * true si tras {@code intentos} envíos fallidos ya no se reintenta (dead letter)
+     */
+    public boolean agotado(int intentos) {
+        return intentos >= maximoIntentos;
+    }
+
+    public Duration espera(int intentos) {
+        int exponente = Math.min(Math.max(intentos - 1, 0), 30);
+        long tope = Math.min(esperaMaximaMs, esperaBaseMs << exponente);
+        long mitad = tope / 2;
+        return Duration.ofMillis(mitad + ThreadLocalRandom.current().nextLong(tope - mitad + 1));
+    }
+}
@@ -0,0 +1,27 @@
+package ec.edu.espe.notification_service.despacho;
+
+import ec.edu.espe.notification_service.model.Notificacion;
+
+/**
+ * Carriles de prioridad del despacho, en orden: cercanía de la entrega, cambios de estado
+ * y el resto (correos y avisos informativos)
+ */
+public enum PrioridadNotificacion {
+    CERCANIA,
+    ESTADO,
+    GENERAL;
+
+    public static PrioridadNotificacion de(Notificacion notificacion) {
+        String origen = notificacion.getEventoOrigen();
+        if ("EMAIL".equals(notificacion.getTipo()) || origen == null) {
+            return GENERAL;
+        }
+        if (origen.startsWith("ubicacion.actualizada.cerca") || origen.startsWith("tracking.geocerca")) {
+            return CERCANIA;
+        }
+        if (origen.startsWith("pedido.estado")) {
+            return ESTADO;
+        }
+        return GENERAL;
+    }
+}
@@ -0,0 +1,59 @@
+package ec.edu.espe.notification_service.despacho;
+
+/**
+ * Token bucket: se recarga a {@code tasaPorSegundo} tokens por segundo hasta {@code rafaga};
+ * cada envío consume un token
+ */
+public class TokenBucket {
+
+    private final double tasaPorNano;
+    private final double rafaga;
+    private double tokens;
+    private long ultimaRecarga;
+
+    public TokenBucket(double tasaPorSegundo, double rafaga) {
+        if (tasaPorSegundo <= 0 || rafaga < 1) {
+            throw new IllegalArgumentException("La tasa debe ser mayor a 0 y la ráfaga al menos 1");
+        }
+        this.tasaPorNano = tasaPorSegundo / 1e9;
+        this.rafaga = rafaga;
+        this.tokens = rafaga;
+        this.ultimaRecarga = System.nanoTime();
+    }
+
+    public synchronized boolean intentarConsumir() {
+        recargar();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Devuelve un token consumido que no llegó a usarse (sin superar la ráfaga)
+     */
+    public synchronized void devolver() {
+        recargar();
+        tokens = Math.min(rafaga, tokens + 1);
+    }
+
+    /**
+     * Nanosegundos hasta que haya un token disponible (0 si ya lo hay)
+     */
+    public synchronized long nanosHastaDisponible() {
+        recargar();
+        return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / tasaPorNano);
+    }
+
+    public synchronized double getTokens() {
+        recargar();
+        return tokens;
+    }
+
+    private void recargar() {
+        long ahora = System.nanoTime();
+        tokens = Math.min(rafaga, tokens + (ahora - ultimaRecarga) * tasaPorNano);
+        ultimaRecarga = ahora;
+    }
+}
@@ -0,0 +1,18 @@
+package ec.edu.espe.notification_service.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeocercaEvent {
+    private String eventId;
+    private String tipo; // ENTRADA, SALIDA
+    private Long pedidoId;
+    private Long repartidorId;
+    private Double latitud;
+    private Double longitud;
+    private String timestamp;
+}
@@ -15,4 +15,5 @@ public class PedidoEvent {
     private String direccionEntrega;
     private Double tarifa;
     private String timestamp;
+    private Long version; // Versión del pedido tras el cambio; permite descartar estados viejos
 }
@@ -0,0 +1,126 @@
+package ec.edu.espe.notification_service.idempotencia;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom para cadenas, dimensionado según la cantidad esperada de elementos y la tasa
+ * de falsos positivos. Un resultado negativo es definitivo; uno positivo significa "quizás".
+ * Usa doble hashing sobre un hash de 128 bits (dos mitades de 64) para derivar las k posiciones.
+ *
+ * Las consultas y altas son seguras entre hilos sin bloqueo (bits en un {@link AtomicLongArray}).
+ */
+public class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final long cantidadBits;
+    private final int cantidadHashes;
+    private final int capacidad;
+    private final AtomicInteger elementos = new AtomicInteger();
+
+    public FiltroBloom(int capacidad, double tasaFalsosPositivos) {
+        if (capacidad <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser mayor a 0");
+        }
+        if (tasaFalsosPositivos <= 0 || tasaFalsosPositivos >= 1) {
+            throw new IllegalArgumentException("La tasa de falsos positivos debe estar entre 0 y 1");
+        }
+        // m = -n·ln(p) / ln(2)², k = (m/n)·ln(2)
+        long m = (long) Math.ceil(-capacidad * Math.log(tasaFalsosPositivos) / (Math.log(2) * Math.log(2)));
+        this.cantidadBits = Math.max(64, (m + 63) / 64 * 64);
+        this.cantidadHashes = Math.max(1, (int) Math.round((double) cantidadBits / capacidad * Math.log(2)));
+        this.bits = new AtomicLongArray((int) (cantidadBits / 64));
+        this.capacidad = capacidad;
+    }
+
+    public void agregar(String valor) {
+        long[] hash = hash(valor);
+        for (int i = 0; i < cantidadHashes; i++) {
+            long posicion = posicion(hash, i);
+            int palabra = (int) (posicion >>> 6);
+            long mascara = 1L << posicion;
+            long actual = bits.get(palabra);
+            while ((actual & mascara) == 0 && !bits.compareAndSet(palabra, actual, actual | mascara)) {
+                actual = bits.get(palabra);
+            }
+        }
+        elementos.incrementAndGet();
+    }
+
+    public boolean podriaContener(String valor) {
+        long[] hash = hash(valor);
+        for (int i = 0; i < cantidadHashes; i++) {
+            long posicion = posicion(hash, i);
+            if ((bits.get((int) (posicion >>> 6)) & (1L << posicion)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Indica si ya se agregaron tantos elementos como la capacidad de diseño
+     * (a partir de ahí la tasa de falsos positivos crece)
+     */
+    public boolean lleno() {
+        return elementos.get() >= capacidad;
+    }
+
+    public int getElementos() {
+        return elementos.get();
+    }
+
+    private long posicion(long[] hash, int i) {
+        return Math.floorMod(hash[0] + i * hash[1], cantidadBits);
+    }
+
+    // Hash de 128 bits con las constantes y la mezcla final (fmix64) de Murmur3; no es Murmur3 exacto
+    private static long[] hash(String valor) {
+        byte[] datos = valor.getBytes(StandardCharsets.UTF_8);
+        long h1 = 0x9E3779B97F4A7C15L;
+        long h2 = 0xC2B2AE3D27D4EB4FL;
+        int i = 0;
+        for (; i + 16 <= datos.length; i += 16) {
+            h1 = mezclar(h1 ^ leerLong(datos, i), h2);
+            h2 = mezclar(h2 ^ leerLong(datos, i + 8), h1);
+        }
+        // Cola de hasta 15 bytes: los primeros 8 van a h1 y el resto a h2
+        long cola1 = 0;
+        long cola2 = 0;
+        for (int j = datos.length - 1; j >= i; j--) {
+            if (j - i < 8) {
+                cola1 = (cola1 << 8) | (datos[j] & 0xFF);
+            } else {
+                cola2 = (cola2 << 8) | (datos[j] & 0xFF);
+            }
+        }
+        h1 = fmix64(mezclar(h1 ^ cola1, h2) ^ datos.length);
+        h2 = fmix64(mezclar(h2 ^ cola2, h1));
+        return new long[] {h1, h2 | 1}; // h2 distinto de 0: las k posiciones no colapsan en una sola
+    }
+
+    private static long leerLong(byte[] datos, int desde) {
+        long valor = 0;
+        for (int j = 7; j >= 0; j--) {
+            valor = (valor << 8) | (datos[desde + j] & 0xFF);
+        }
+        return valor;
+    }
+
+    private static long mezclar(long h, long otro) {
+        h *= 0x87C37B91114253D5L;
+        h = Long.rotateLeft(h, 31);
+        h *= 0x4CF5AD432745937FL;
+        return Long.rotateLeft(h, 27) + otro;
+    }
+
+    private static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
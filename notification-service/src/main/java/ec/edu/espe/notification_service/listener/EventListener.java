@@ -1,25 +1,39 @@
 package ec.edu.espe.notification_service.listener;
 
+import ec.edu.espe.notification_service.event.GeocercaEvent;
 import ec.edu.espe.notification_service.event.PedidoEvent;
 import ec.edu.espe.notification_service.event.UbicacionEvent;
+import com.rabbitmq.client.Channel;
+import ec.edu.espe.notification_service.service.CoalescenciaEstadosPedido;
+import ec.edu.espe.notification_service.service.ConfirmacionMensaje;
 import ec.edu.espe.notification_service.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
+/**
+ * Listeners con ack manual: cada mensaje se confirma cuando todas las notificaciones que genera
+ * ya están guardadas (ver {@link ConfirmacionMensaje}); si el procesamiento falla se rechaza
+ * sin reencolar y el error queda en el log
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class EventListener {
     
     private final NotificationService notificationService;
+    private final CoalescenciaEstadosPedido coalescenciaEstados;
     
     /**
      * Escucha eventos de pedidos creados
      */
     @RabbitListener(queues = "${rabbitmq.queues.pedido-creado}")
-    public void handlePedidoCreado(PedidoEvent event) {
+    public void handlePedidoCreado(PedidoEvent event, Channel channel,
+                                   @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) {
+        ConfirmacionMensaje confirmacion = new ConfirmacionMensaje(channel, deliveryTag);
         log.info("📨 Evento recibido: pedido.creado - Pedido ID: {}", event.getPedidoId());
         
         try {
@@ -38,7 +52,8 @@ public class EventListener {
                 "Pedido Creado - LogiFlow",
                 mensaje,
                 "pedido.creado",
-                event.getEventId()
+                event.getEventId(),
+                confirmacion
             );
             
             // Crear notificación PUSH
@@ -48,11 +63,15 @@ public class EventListener {
                 "Pedido Creado",
                 mensaje,
                 "pedido.creado",
-                event.getEventId() + "_push"
+                event.getEventId() + "_push",
+                confirmacion
             );
             
         } catch (Exception e) {
             log.error("Error procesando evento pedido.creado", e);
+            confirmacion.rechazar(false);
+        } finally {
+            confirmacion.completar();
         }
     }
     
@@ -60,26 +79,15 @@ public class EventListener {
      * Escucha eventos de actualización de estado de pedidos
      */
     @RabbitListener(queues = "${rabbitmq.queues.pedido-actualizado}")
-    public void handlePedidoActualizado(PedidoEvent event) {
+    public void handlePedidoActualizado(PedidoEvent event, Channel channel,
+                                        @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) {
+        ConfirmacionMensaje confirmacion = new ConfirmacionMensaje(channel, deliveryTag);
         log.info("📨 Evento recibido: pedido.estado.actualizado - Pedido ID: {}, Nuevo Estado: {}", 
                  event.getPedidoId(), event.getEstado());
         
         try {
-            String mensaje = String.format(
-                "El estado de su pedido #%d ha cambiado a: %s",
-                event.getPedidoId(),
-                event.getEstado()
-            );
-            
-            // Crear notificación PUSH (más rápida para actualizaciones)
-            notificationService.crearNotificacion(
-                "PUSH",
-                "user_" + event.getClienteId(),
-                "Estado del Pedido Actualizado",
-                mensaje,
-                "pedido.estado.actualizado",
-                event.getEventId()
-            );
+            // PUSH coalescido por destinatario y pedido: las transiciones rápidas salen como un solo aviso
+            coalescenciaEstados.registrar(event, confirmacion);
             
             // Si el estado es "ENTREGADO", también enviar email
             if ("ENTREGADO".equals(event.getEstado())) {
@@ -89,12 +97,16 @@ public class EventListener {
                     "Pedido Entregado - LogiFlow",
                     "Su pedido #" + event.getPedidoId() + " ha sido entregado exitosamente.",
                     "pedido.entregado",
-                    event.getEventId() + "_email"
+                    event.getEventId() + "_email",
+                    confirmacion
                 );
             }
             
         } catch (Exception e) {
             log.error("Error procesando evento pedido.estado.actualizado", e);
+            confirmacion.rechazar(false);
+        } finally {
+            confirmacion.completar();
         }
     }
     
@@ -102,7 +114,9 @@ public class EventListener {
      * Escucha eventos de actualización de ubicación de repartidores
      */
     @RabbitListener(queues = "${rabbitmq.queues.ubicacion-actualizada}")
-    public void handleUbicacionActualizada(UbicacionEvent event) {
+    public void handleUbicacionActualizada(UbicacionEvent event, Channel channel,
+                                           @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) {
+        ConfirmacionMensaje confirmacion = new ConfirmacionMensaje(channel, deliveryTag);
         log.info("📨 Evento recibido: ubicacion.actualizada - Repartidor ID: {}, Pedido ID: {}", 
                  event.getRepartidorId(), event.getPedidoId());
         
@@ -124,13 +138,46 @@ public class EventListener {
                         "Su repartidor está llegando",
                         mensaje,
                         "ubicacion.actualizada.cerca",
-                        event.getEventId()
+                        event.getEventId(),
+                        confirmacion
                     );
                 }
             }
             
         } catch (Exception e) {
             log.error("Error procesando evento ubicacion.actualizada", e);
+            confirmacion.rechazar(false);
+        } finally {
+            confirmacion.completar();
+        }
+    }
+    
+    /**
+     * Escucha entradas de repartidores a la geocerca del punto de entrega
+     */
+    @RabbitListener(queues = "${rabbitmq.queues.geocerca-entrada}")
+    public void handleGeocercaEntrada(GeocercaEvent event, Channel channel,
+                                      @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) {
+        ConfirmacionMensaje confirmacion = new ConfirmacionMensaje(channel, deliveryTag);
+        log.info("📨 Evento recibido: tracking.geocerca.entrada - Repartidor ID: {}, Pedido ID: {}", 
+                 event.getRepartidorId(), event.getPedidoId());
+        
+        try {
+            notificationService.crearNotificacion(
+                "PUSH",
+                "pedido_" + event.getPedidoId(),
+                "Su repartidor está llegando",
+                "Su repartidor está llegando al punto de entrega del pedido #" + event.getPedidoId(),
+                "tracking.geocerca.entrada",
+                event.getEventId(),
+                confirmacion
+            );
+            
+        } catch (Exception e) {
+            log.error("Error procesando evento tracking.geocerca.entrada", e);
+            confirmacion.rechazar(false);
+        } finally {
+            confirmacion.completar();
         }
     }
 }
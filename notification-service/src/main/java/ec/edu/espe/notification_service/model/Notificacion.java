@@ -7,12 +7,22 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notificaciones")
+@Table(name = "notificaciones", uniqueConstraints = {
+    // Fuente de verdad de la idempotencia: los INSERT con un eventId existente se ignoran
+    @UniqueConstraint(name = "uk_notificaciones_event_id", columnNames = "eventId")
+}, indexes = {
+    // Barrido de pendientes por páginas de id
+    @Index(name = "idx_notificaciones_estado_id", columnList = "estado, id"),
+    // Reclamo de reintentos vencidos por canal
+    @Index(name = "idx_notificaciones_reintento", columnList = "estado, tipo, proximoIntentoEn")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Notificacion {
     
+    // IDENTITY, la estrategia única del pipeline: las altas por lotes son MERGE nativos
+    // (ver NotificacionRepositoryImpl) que no pasan por Hibernate, así que una secuencia no aporta batching
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -30,7 +40,7 @@ public class Notificacion {
     private String mensaje;
     
     @Column(nullable = false, length = 50)
-    private String estado; // PENDIENTE, ENVIADO, ERROR
+    private String estado; // PENDIENTE, ENVIADO, ERROR, DESCARTADO (agotó los reintentos)
     
     @Column(length = 100)
     private String eventoOrigen; // pedido.creado, ubicacion.actualizada, etc.
@@ -45,6 +55,10 @@ public class Notificacion {
     @Column(length = 500)
     private String errorDetalle;
     
+    private Integer intentos = 0; // Envíos fallidos
+    
+    private LocalDateTime proximoIntentoEn; // Solo en ERROR: cuándo se reintenta
+    
     @PrePersist
     protected void onCreate() {
         if (fechaCreacion == null) {
@@ -53,5 +67,8 @@ public class Notificacion {
         if (estado == null) {
             estado = "PENDIENTE";
         }
+        if (intentos == null) {
+            intentos = 0;
+        }
     }
 }
@@ -0,0 +1,15 @@
+package ec.edu.espe.notification_service.proveedor;
+
+import ec.edu.espe.notification_service.model.Notificacion;
+
+/**
+ * Proveedor externo que entrega las notificaciones (correo, SMS, push).
+ * Se elige con notificaciones.proveedor.tipo; por defecto se usa el stub local.
+ */
+public interface ProveedorNotificaciones {
+
+    /**
+     * Envía la notificación por su canal; lanza excepción si el proveedor la rechaza
+     */
+    void enviar(Notificacion notificacion) throws Exception;
+}
@@ -0,0 +1,55 @@
+package ec.edu.espe.notification_service.proveedor;
+
+import ec.edu.espe.notification_service.model.Notificacion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stub local del proveedor: registra el envío en el log y puede simular latencia y fallos
+ * para pruebas de carga sin servicios externos
+ */
+@Component
+@ConditionalOnProperty(name = "notificaciones.proveedor.tipo", havingValue = "local", matchIfMissing = true)
+@Slf4j
+public class ProveedorNotificacionesLocal implements ProveedorNotificaciones {
+
+    private final long latenciaMs;
+    private final double tasaFallos;
+
+    public ProveedorNotificacionesLocal(@Value("${notificaciones.proveedor.latencia-ms:0}") long latenciaMs,
+                                        @Value("${notificaciones.proveedor.tasa-fallos:0.0}") double tasaFallos) {
+        this.latenciaMs = latenciaMs;
+        this.tasaFallos = tasaFallos;
+    }
+
+    @Override
+    public void enviar(Notificacion notificacion) throws Exception {
+        if (latenciaMs > 0) {
+            Thread.sleep(latenciaMs);
+        }
+        if (tasaFallos > 0 && ThreadLocalRandom.current().nextDouble() < tasaFallos) {
+            throw new IllegalStateException("Fallo simulado del proveedor " + notificacion.getTipo());
+        }
+        switch (notificacion.getTipo()) {
+            case "EMAIL" -> {
+                log.info("📧 Enviando EMAIL a: {}", notificacion.getDestinatario());
+                log.info("   Asunto: {}", notificacion.getTitulo());
+                log.info("   Mensaje: {}", notificacion.getMensaje());
+            }
+            case "SMS" -> {
+                log.info("📱 Enviando SMS a: {}", notificacion.getDestinatario());
+                log.info("   Mensaje: {}", notificacion.getMensaje());
+            }
+            case "PUSH" -> {
+                log.info("🔔 Enviando PUSH a: {}", notificacion.getDestinatario());
+                log.info("   Título: {}", notificacion.getTitulo());
+                log.info("   Mensaje: {}", notificacion.getMensaje());
+            }
+            default -> throw new IllegalArgumentException("Canal no soportado: " + notificacion.getTipo());
+        }
+    }
+}
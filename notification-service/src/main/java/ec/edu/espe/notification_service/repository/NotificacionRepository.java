@@ -1,25 +1,59 @@
 package ec.edu.espe.notification_service.repository;
 
 import ec.edu.espe.notification_service.model.Notificacion;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface NotificacionRepository extends JpaRepository<Notificacion, Long> {
+public interface NotificacionRepository extends JpaRepository<Notificacion, Long>, NotificacionRepositoryCustom {
     
     // Buscar por eventId para evitar duplicados (idempotencia)
     Optional<Notificacion> findByEventId(String eventId);
     
+    // eventIds más recientes, para precargar el filtro de idempotencia en memoria
+    @Query("SELECT n.eventId FROM Notificacion n WHERE n.eventId IS NOT NULL ORDER BY n.id DESC")
+    List<String> findEventIdsRecientes(Limit limit);
+    
     // Buscar por destinatario
     List<Notificacion> findByDestinatarioOrderByFechaCreacionDesc(String destinatario);
     
     // Buscar por estado
     List<Notificacion> findByEstado(String estado);
     
+    // Página de notificaciones en un estado a partir de un id (barrido de pendientes del pipeline)
+    List<Notificacion> findByEstadoAndIdGreaterThanOrderByIdAsc(String estado, Long id, Limit limit);
+    
+    // Reintentos vencidos de un canal, los más atrasados primero (índice estado, tipo, proximoIntentoEn)
+    @Query("SELECT n.id FROM Notificacion n WHERE n.estado = 'ERROR' AND n.tipo = :tipo " +
+           "AND n.proximoIntentoEn <= :ahora ORDER BY n.proximoIntentoEn")
+    List<Long> findIdsReintentoVencidos(@Param("tipo") String tipo, @Param("ahora") LocalDateTime ahora, Limit limit);
+    
+    // Reclama un lote para reintentar: solo pasan a PENDIENTE las que siguen en ERROR
+    @Modifying
+    @Query("UPDATE Notificacion n SET n.estado = 'PENDIENTE', n.proximoIntentoEn = NULL " +
+           "WHERE n.id IN :ids AND n.estado = 'ERROR'")
+    int reclamarParaReintento(@Param("ids") Collection<Long> ids);
+    
+    // Reintento manual: las fallidas vuelven a vencer ya con el contador en cero; las DESCARTADO
+    // (agotaron los reintentos o el proveedor las rechazó) no se reenvían
+    @Modifying
+    @Query("UPDATE Notificacion n SET n.intentos = 0, n.proximoIntentoEn = :ahora WHERE n.estado = 'ERROR'")
+    int reprogramarFallidas(@Param("ahora") LocalDateTime ahora);
+    
+    // ERROR sin fecha de reintento (anteriores al contador de intentos): quedan vencidas
+    @Modifying
+    @Query("UPDATE Notificacion n SET n.proximoIntentoEn = :ahora WHERE n.estado = 'ERROR' AND n.proximoIntentoEn IS NULL")
+    int programarErroresSinFecha(@Param("ahora") LocalDateTime ahora);
+    
     // Buscar notificaciones pendientes creadas antes de una fecha
     List<Notificacion> findByEstadoAndFechaCreacionBefore(String estado, LocalDateTime fecha);
     
@@ -0,0 +1,14 @@
+package ec.edu.espe.notification_service.repository;
+
+import ec.edu.espe.notification_service.model.Notificacion;
+
+import java.util.List;
+
+public interface NotificacionRepositoryCustom {
+
+    /**
+     * Inserta las notificaciones en un lote JDBC ignorando las de eventId ya existente
+     * (sin leer antes la tabla); devuelve las insertadas, con su id asignado
+     */
+    List<Notificacion> insertarIgnorandoDuplicados(List<Notificacion> notificaciones);
+}
@@ -0,0 +1,99 @@
+package ec.edu.espe.notification_service.repository;
+
+import ec.edu.espe.notification_service.model.Notificacion;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Alta por lotes con semántica "insertar o ignorar" sobre la restricción única de event_id.
+ * MERGE ... WHEN NOT MATCHED THEN INSERT resuelve el duplicado dentro de la misma sentencia
+ * (la fila existente no se modifica); los ids de las filas insertadas se leen en una consulta por lote.
+ * Si el driver no informa el conteo de una fila ({@link Statement#SUCCESS_NO_INFO}), se considera
+ * insertada por este lote cuando su id supera el máximo leído antes del MERGE: con un solo hilo
+ * persistiendo por instancia, solo otra instancia insertando el mismo eventId a la vez puede confundirlo.
+ * Las notificaciones deben traer eventId.
+ */
+class NotificacionRepositoryImpl implements NotificacionRepositoryCustom {
+
+    private static final String MERGE_SQL =
+            "MERGE INTO notificaciones n " +
+            "USING (VALUES (CAST(? AS VARCHAR(255)))) AS s(event_id) ON n.event_id = s.event_id " +
+            "WHEN NOT MATCHED THEN INSERT " +
+            "(event_id, tipo, destinatario, titulo, mensaje, estado, evento_origen, fecha_creacion, intentos) " +
+            "VALUES (s.event_id, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final String ID_MAXIMO_SQL = "SELECT COALESCE(MAX(id), 0) FROM notificaciones";
+
+    private static final String IDS_SQL =
+            "SELECT id, event_id FROM notificaciones WHERE event_id IN (:eventIds)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    NotificacionRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Notificacion> insertarIgnorandoDuplicados(List<Notificacion> notificaciones) {
+        if (notificaciones.isEmpty()) {
+            return List.of();
+        }
+        Long idMaximoPrevio = jdbcTemplate.getJdbcTemplate().queryForObject(ID_MAXIMO_SQL, Long.class);
+        int[] filas = jdbcTemplate.getJdbcTemplate().batchUpdate(MERGE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Notificacion notificacion = notificaciones.get(i);
+                ps.setString(1, notificacion.getEventId());
+                ps.setString(2, notificacion.getTipo());
+                ps.setString(3, notificacion.getDestinatario());
+                ps.setString(4, notificacion.getTitulo());
+                ps.setString(5, notificacion.getMensaje());
+                ps.setString(6, notificacion.getEstado());
+                ps.setString(7, notificacion.getEventoOrigen());
+                ps.setTimestamp(8, Timestamp.valueOf(notificacion.getFechaCreacion()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return notificaciones.size();
+            }
+        });
+
+        Map<String, Notificacion> insertadas = new HashMap<>();
+        Map<String, Notificacion> sinConteo = new HashMap<>();
+        for (int i = 0; i < filas.length; i++) {
+            if (filas[i] > 0) {
+                insertadas.put(notificaciones.get(i).getEventId(), notificaciones.get(i));
+            } else if (filas[i] == Statement.SUCCESS_NO_INFO) {
+                sinConteo.put(notificaciones.get(i).getEventId(), notificaciones.get(i));
+            }
+        }
+        if (insertadas.isEmpty() && sinConteo.isEmpty()) {
+            return List.of();
+        }
+        List<String> eventIds = new ArrayList<>(insertadas.keySet());
+        eventIds.addAll(sinConteo.keySet());
+        List<Notificacion> resultado = new ArrayList<>(eventIds.size());
+        jdbcTemplate.query(IDS_SQL, Map.of("eventIds", eventIds), rs -> {
+            long id = rs.getLong("id");
+            Notificacion notificacion = insertadas.get(rs.getString("event_id"));
+            if (notificacion == null && id > idMaximoPrevio) {
+                notificacion = sinConteo.get(rs.getString("event_id"));
+            }
+            if (notificacion != null) {
+                notificacion.setId(id);
+                resultado.add(notificacion);
+            }
+        });
+        return resultado;
+    }
+}
@@ -0,0 +1,198 @@
+package ec.edu.espe.notification_service.service;
+
+import ec.edu.espe.notification_service.event.PedidoEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalescencia de los PUSH de cambio de estado por destinatario y pedido.
+ * El primer cambio abre una ventana; los que llegan dentro de ella reemplazan al retenido y al
+ * cerrarse solo se notifica el último estado. ENTREGADO y CANCELADO se notifican de inmediato
+ * (descartando lo retenido), y los eventos con una versión ya superada se ignoran.
+ * El mensaje retenido queda sin ack hasta que su notificación se guarda; los reemplazados
+ * y los obsoletos se confirman en cuanto se descartan.
+ */
+@Component
+@Slf4j
+public class CoalescenciaEstadosPedido {
+
+    private static final Set<String> ESTADOS_INMEDIATOS = Set.of("ENTREGADO", "CANCELADO");
+
+    private final NotificationService notificationService;
+    private final boolean habilitada;
+    private final long ventanaMs;
+
+    private final Map<Clave, Ventana> estados = new ConcurrentHashMap<>();
+    private final AtomicLong recibidos = new AtomicLong();
+    private final AtomicLong enviados = new AtomicLong();
+    private final AtomicLong reemplazados = new AtomicLong();
+    private final AtomicLong obsoletos = new AtomicLong();
+
+    public CoalescenciaEstadosPedido(NotificationService notificationService,
+                                     @Value("${notificaciones.coalescencia.habilitada:true}") boolean habilitada,
+                                     @Value("${notificaciones.coalescencia.ventana-ms:5000}") long ventanaMs) {
+        this.notificationService = notificationService;
+        this.habilitada = habilitada;
+        this.ventanaMs = ventanaMs;
+    }
+
+    /**
+     * Notifica el cambio de estado, o lo retiene hasta que cierre la ventana del pedido
+     */
+    public void registrar(PedidoEvent event, ConfirmacionMensaje confirmacion) {
+        recibidos.incrementAndGet();
+        if (!habilitada) {
+            enviar(event, confirmacion);
+            return;
+        }
+        long ahora = System.currentTimeMillis();
+        List<Retenido> inmediatos = new ArrayList<>(1);
+        List<Retenido> reemplazadosAhora = new ArrayList<>(1);
+        estados.compute(new Clave(destinatario(event), event.getPedidoId()), (clave, estado) -> {
+            if (estado == null) {
+                estado = new Ventana();
+            }
+            if (estado.esObsoleto(event)) {
+                obsoletos.incrementAndGet();
+                return estado;
+            }
+            if (estado.pendiente != null) {
+                reemplazados.incrementAndGet();
+                reemplazadosAhora.add(estado.pendiente);
+            } else {
+                estado.ventanaDesdeMs = ahora;
+            }
+            confirmacion.retener();
+            estado.pendiente = new Retenido(event, confirmacion);
+            if (ESTADOS_INMEDIATOS.contains(event.getEstado())) {
+                inmediatos.add(estado.pendiente);
+                estado.registrarEnvio(ahora);
+            }
+            return estado;
+        });
+        reemplazadosAhora.forEach(retenido -> retenido.confirmacion().completar());
+        inmediatos.forEach(this::enviar);
+    }
+
+    /**
+     * Envía los estados retenidos cuya ventana cerró y olvida los pedidos sin actividad reciente
+     */
+    @Scheduled(fixedDelayString = "${notificaciones.coalescencia.revision-ms:500}")
+    public void vaciarVencidos() {
+        vaciar(false);
+    }
+
+    /**
+     * Métricas de la etapa de coalescencia
+     */
+    public Map<String, Object> metricas() {
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("habilitada", habilitada);
+        metricas.put("ventanaMs", ventanaMs);
+        metricas.put("recibidos", recibidos.get());
+        metricas.put("enviados", enviados.get());
+        metricas.put("reemplazados", reemplazados.get());
+        metricas.put("obsoletos", obsoletos.get());
+        metricas.put("retenidos", estados.values().stream().filter(e -> e.pendiente != null).count());
+        return metricas;
+    }
+
+    /**
+     * Al apagar se envía lo retenido en vez de perderlo
+     */
+    @PreDestroy
+    void detener() {
+        vaciar(true);
+    }
+
+    private void vaciar(boolean todos) {
+        long ahora = System.currentTimeMillis();
+        List<Retenido> vencidos = new ArrayList<>();
+        for (Clave clave : estados.keySet()) {
+            estados.computeIfPresent(clave, (c, estado) -> {
+                if (estado.pendiente != null && (todos || ahora - estado.ventanaDesdeMs >= ventanaMs)) {
+                    vencidos.add(estado.pendiente);
+                    estado.registrarEnvio(ahora);
+                    return estado;
+                }
+                // La versión enviada se recuerda un tiempo para descartar redeliveries atrasadas
+                return estado.pendiente == null && ahora - estado.ultimoEnvioMs > 60 * ventanaMs ? null : estado;
+            });
+        }
+        vencidos.forEach(this::enviar);
+    }
+
+    private void enviar(Retenido retenido) {
+        enviar(retenido.event(), retenido.confirmacion());
+        retenido.confirmacion().completar();
+    }
+
+    private void enviar(PedidoEvent event, ConfirmacionMensaje confirmacion) {
+        String mensaje = String.format(
+            "El estado de su pedido #%d ha cambiado a: %s",
+            event.getPedidoId(),
+            event.getEstado()
+        );
+        try {
+            notificationService.crearNotificacion(
+                "PUSH",
+                destinatario(event),
+                "Estado del Pedido Actualizado",
+                mensaje,
+                "pedido.estado.actualizado",
+                event.getEventId(),
+                confirmacion
+            );
+            enviados.incrementAndGet();
+        } catch (Exception e) {
+            log.error("Error al notificar el estado {} del pedido {}", event.getEstado(), event.getPedidoId(), e);
+            confirmacion.rechazar(false);
+        }
+    }
+
+    private static String destinatario(PedidoEvent event) {
+        return "user_" + event.getClienteId();
+    }
+
+    private record Clave(String destinatario, Long pedidoId) {
+    }
+
+    private record Retenido(PedidoEvent event, ConfirmacionMensaje confirmacion) {
+    }
+
+    private static class Ventana {
+        private Retenido pendiente;
+        private long ventanaDesdeMs;
+        private long ultimoEnvioMs;
+        private Long ultimaVersion;
+
+        // Sin versión no se puede comparar: se toma el orden de llegada
+        private boolean esObsoleto(PedidoEvent event) {
+            if (event.getVersion() == null) {
+                return false;
+            }
+            Long vigente = pendiente != null && pendiente.event().getVersion() != null
+                    ? pendiente.event().getVersion() : ultimaVersion;
+            return vigente != null && event.getVersion() <= vigente;
+        }
+
+        private void registrarEnvio(long ahora) {
+            ultimoEnvioMs = ahora;
+            if (pendiente.event().getVersion() != null) {
+                ultimaVersion = pendiente.event().getVersion();
+            }
+            pendiente = null;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package ec.edu.espe.notification_service.service;
+
+import com.rabbitmq.client.Channel;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ack manual de un mensaje de RabbitMQ que puede generar varias notificaciones.
+ * Cada parte pendiente (el listener mientras procesa, cada notificación hasta que su lote se guarda,
+ * un estado retenido por la coalescencia) se suma con {@link #retener()} y se libera con
+ * {@link #completar()}; al liberarse la última se confirma el mensaje. {@link #rechazar} hace nack
+ * una sola vez. Si el canal ya se cerró (p. ej. al apagar), el broker reentrega el mensaje y la
+ * restricción única de eventId descarta lo que ya se había guardado.
+ */
+@Slf4j
+public final class ConfirmacionMensaje {
+
+    private final Channel canal;
+    private final long deliveryTag;
+    private final AtomicInteger partes = new AtomicInteger(1); // La del listener que lo recibe
+    private final AtomicBoolean resuelta = new AtomicBoolean();
+
+    public ConfirmacionMensaje(Channel canal, long deliveryTag) {
+        this.canal = canal;
+        this.deliveryTag = deliveryTag;
+    }
+
+    public void retener() {
+        partes.incrementAndGet();
+    }
+
+    public void completar() {
+        if (partes.decrementAndGet() == 0 && resuelta.compareAndSet(false, true)) {
+            try {
+                canal.basicAck(deliveryTag, false);
+            } catch (IOException | RuntimeException e) {
+                log.debug("No se pudo confirmar el mensaje {}: el broker lo reentregará", deliveryTag, e);
+            }
+        }
+    }
+
+    /**
+     * Nack del mensaje; sin reencolar se pierde (las colas no tienen dead-letter)
+     */
+    public void rechazar(boolean reencolar) {
+        if (resuelta.compareAndSet(false, true)) {
+            try {
+                canal.basicNack(deliveryTag, false, reencolar);
+            } catch (IOException | RuntimeException e) {
+                log.debug("No se pudo rechazar el mensaje {}: el broker lo reentregará", deliveryTag, e);
+            }
+        }
+    }
+}
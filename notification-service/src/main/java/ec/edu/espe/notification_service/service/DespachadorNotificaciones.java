@@ -0,0 +1,273 @@
+package ec.edu.espe.notification_service.service;
+
+import ec.edu.espe.notification_service.despacho.PrioridadNotificacion;
+import ec.edu.espe.notification_service.despacho.TokenBucket;
+import ec.edu.espe.notification_service.model.Notificacion;
+import ec.edu.espe.notification_service.proveedor.ProveedorNotificaciones;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Despacho de notificaciones hacia el proveedor, por canal (EMAIL/SMS/PUSH).
+ * Cada canal tiene su token bucket (tasa y ráfaga que admite el proveedor), una cola acotada
+ * ordenada por carril de prioridad ({@link PrioridadNotificacion}) y sus propios hilos:
+ * los avisos de cercanía salen antes que los cambios de estado, y estos antes que el resto.
+ * Con la cola del canal llena, {@link #encolar} devuelve false y el pipeline lo reintenta después.
+ */
+@Component
+@Slf4j
+public class DespachadorNotificaciones {
+
+    private static final long ESPERA_MAXIMA_TOKEN_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final ProveedorNotificaciones proveedor;
+    private final Map<String, Canal> canales = new LinkedHashMap<>();
+    private final Set<Long> enVuelo = ConcurrentHashMap.newKeySet();
+    private final AtomicLong secuencia = new AtomicLong();
+    private final int capacidadCola;
+    private volatile boolean activo = true;
+
+    public DespachadorNotificaciones(ProveedorNotificaciones proveedor,
+                                     @Value("${notificaciones.despacho.capacidad-cola:1000}") int capacidadCola,
+                                     @Value("${notificaciones.despacho.email.hilos:4}") int hilosEmail,
+                                     @Value("${notificaciones.despacho.email.tasa-por-segundo:20}") double tasaEmail,
+                                     @Value("${notificaciones.despacho.email.rafaga:40}") double rafagaEmail,
+                                     @Value("${notificaciones.despacho.sms.hilos:2}") int hilosSms,
+                                     @Value("${notificaciones.despacho.sms.tasa-por-segundo:10}") double tasaSms,
+                                     @Value("${notificaciones.despacho.sms.rafaga:20}") double rafagaSms,
+                                     @Value("${notificaciones.despacho.push.hilos:8}") int hilosPush,
+                                     @Value("${notificaciones.despacho.push.tasa-por-segundo:200}") double tasaPush,
+                                     @Value("${notificaciones.despacho.push.rafaga:400}") double rafagaPush) {
+        this.proveedor = proveedor;
+        this.capacidadCola = capacidadCola;
+        canales.put("EMAIL", new Canal("EMAIL", hilosEmail, tasaEmail, rafagaEmail));
+        canales.put("SMS", new Canal("SMS", hilosSms, tasaSms, rafagaSms));
+        canales.put("PUSH", new Canal("PUSH", hilosPush, tasaPush, rafagaPush));
+    }
+
+    @PostConstruct
+    void iniciar() {
+        for (Canal canal : canales.values()) {
+            canal.iniciar();
+        }
+    }
+
+    /**
+     * Pone la notificación en la cola de su canal; al terminar el envío se invoca {@code alTerminar}
+     * desde el hilo del canal. Devuelve false si la cola del canal está llena
+     */
+    boolean encolar(Notificacion notificacion, Consumer<ResultadoEnvio> alTerminar) {
+        Canal canal = canales.get(notificacion.getTipo());
+        if (canal == null) {
+            alTerminar.accept(ResultadoEnvio.error(notificacion.getId(), "Canal no soportado: " + notificacion.getTipo(), false));
+            return true;
+        }
+        if (canal.cola.size() >= capacidadCola) {
+            return false;
+        }
+        PrioridadNotificacion prioridad = PrioridadNotificacion.de(notificacion);
+        enVuelo.add(notificacion.getId());
+        canal.carriles.get(prioridad).enCola.increment();
+        canal.cola.add(new Tarea(notificacion, prioridad, secuencia.incrementAndGet(), System.nanoTime(), alTerminar));
+        return true;
+    }
+
+    /**
+     * true si la notificación está en una cola o enviándose (su resultado aún no se entregó)
+     */
+    boolean enVuelo(Long id) {
+        return enVuelo.contains(id);
+    }
+
+    /**
+     * Envíos fallidos seguidos del canal (0 tras cualquier éxito); indica si el proveedor está caído
+     */
+    int fallosConsecutivos(String canal) {
+        Canal encontrado = canales.get(canal);
+        return encontrado != null ? encontrado.fallosConsecutivos.get() : 0;
+    }
+
+    public Map<String, Object> estadisticas() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        for (Canal canal : canales.values()) {
+            estadisticas.put(canal.nombre, canal.estadisticas());
+        }
+        return estadisticas;
+    }
+
+    /**
+     * Detiene los hilos sin vaciar las colas: lo no enviado sigue PENDIENTE en la base
+     * y se reenvía al arrancar
+     */
+    @PreDestroy
+    void detener() throws InterruptedException {
+        activo = false;
+        for (Canal canal : canales.values()) {
+            for (Thread hilo : canal.hilos) {
+                hilo.join(TimeUnit.SECONDS.toMillis(10));
+            }
+        }
+    }
+
+    private ResultadoEnvio enviar(Notificacion notificacion) {
+        try {
+            proveedor.enviar(notificacion);
+            log.info("✅ Notificación enviada exitosamente: ID={}", notificacion.getId());
+            return ResultadoEnvio.exito(notificacion.getId());
+        } catch (IllegalArgumentException e) {
+            // El proveedor rechaza la notificación en sí (destinatario inválido, canal desconocido...): no se reintenta
+            log.error("❌ Notificación rechazada por el proveedor: ID={}", notificacion.getId(), e);
+            return ResultadoEnvio.error(notificacion.getId(), e.getMessage(), false);
+        } catch (Exception e) {
+            log.error("❌ Error al enviar notificación: ID={}", notificacion.getId(), e);
+            return ResultadoEnvio.error(notificacion.getId(), e.getMessage());
+        }
+    }
+
+    private final class Canal {
+
+        private final String nombre;
+        private final int cantidadHilos;
+        private final double tasaPorSegundo;
+        private final double rafaga;
+        private final TokenBucket tokens;
+        private final PriorityBlockingQueue<Tarea> cola = new PriorityBlockingQueue<>();
+        private final Map<PrioridadNotificacion, Carril> carriles = new LinkedHashMap<>();
+        private final List<Thread> hilos = new ArrayList<>();
+        private final AtomicInteger fallosConsecutivos = new AtomicInteger();
+
+        private Canal(String nombre, int cantidadHilos, double tasaPorSegundo, double rafaga) {
+            this.nombre = nombre;
+            this.cantidadHilos = cantidadHilos;
+            this.tasaPorSegundo = tasaPorSegundo;
+            this.rafaga = rafaga;
+            this.tokens = new TokenBucket(tasaPorSegundo, rafaga);
+            for (PrioridadNotificacion prioridad : PrioridadNotificacion.values()) {
+                carriles.put(prioridad, new Carril());
+            }
+        }
+
+        private void iniciar() {
+            for (int i = 1; i <= cantidadHilos; i++) {
+                Thread hilo = new Thread(this::trabajar, "notificaciones-" + nombre.toLowerCase() + "-" + i);
+                hilo.setDaemon(true);
+                hilos.add(hilo);
+                hilo.start();
+            }
+        }
+
+        private void trabajar() {
+            while (activo) {
+                // Primero el token y luego la tarea: así sale la de mayor prioridad al momento de enviar
+                if (!tokens.intentarConsumir()) {
+                    LockSupport.parkNanos(Math.min(Math.max(tokens.nanosHastaDisponible(), 1), ESPERA_MAXIMA_TOKEN_NANOS));
+                    continue;
+                }
+                Tarea tarea;
+                try {
+                    tarea = cola.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    tokens.devolver();
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (tarea == null) {
+                    tokens.devolver();
+                    continue;
+                }
+                Carril carril = carriles.get(tarea.prioridad());
+                carril.enCola.decrement();
+                long inicio = System.nanoTime();
+                ResultadoEnvio resultado = enviar(tarea.notificacion());
+                carril.registrar(inicio - tarea.encoladaEn(), System.nanoTime() - inicio, resultado.exito());
+                if (resultado.exito()) {
+                    fallosConsecutivos.set(0);
+                } else if (resultado.reintentable()) {
+                    fallosConsecutivos.incrementAndGet();
+                }
+                try {
+                    tarea.alTerminar().accept(resultado);
+                } finally {
+                    // Después de entregar el resultado: el pipeline no debe verla ni en vuelo ni sin resultado
+                    enVuelo.remove(tarea.notificacion().getId());
+                }
+            }
+        }
+
+        private Map<String, Object> estadisticas() {
+            Map<String, Object> estadisticas = new LinkedHashMap<>();
+            estadisticas.put("hilos", cantidadHilos);
+            estadisticas.put("tasaPorSegundo", tasaPorSegundo);
+            estadisticas.put("rafaga", rafaga);
+            estadisticas.put("tokensDisponibles", Math.floor(tokens.getTokens()));
+            estadisticas.put("enCola", cola.size());
+            estadisticas.put("fallosConsecutivos", fallosConsecutivos.get());
+            Map<String, Object> porCarril = new LinkedHashMap<>();
+            carriles.forEach((prioridad, carril) -> porCarril.put(prioridad.name(), carril.estadisticas()));
+            estadisticas.put("carriles", porCarril);
+            return estadisticas;
+        }
+    }
+
+    /**
+     * Profundidad y latencias de un carril de prioridad dentro de un canal
+     */
+    private static final class Carril {
+
+        private final LongAdder enCola = new LongAdder();
+        private final LongAdder despachadas = new LongAdder();
+        private final LongAdder fallidas = new LongAdder();
+        private final LongAdder esperaTotalNanos = new LongAdder();
+        private final AtomicLong esperaMaximaNanos = new AtomicLong();
+        private final LongAdder envioTotalNanos = new LongAdder();
+
+        private void registrar(long esperaNanos, long envioNanos, boolean exito) {
+            despachadas.increment();
+            if (!exito) {
+                fallidas.increment();
+            }
+            esperaTotalNanos.add(esperaNanos);
+            esperaMaximaNanos.accumulateAndGet(esperaNanos, Math::max);
+            envioTotalNanos.add(envioNanos);
+        }
+
+        private Map<String, Object> estadisticas() {
+            long total = despachadas.sum();
+            Map<String, Object> estadisticas = new LinkedHashMap<>();
+            estadisticas.put("enCola", enCola.sum());
+            estadisticas.put("despachadas", total);
+            estadisticas.put("fallidas", fallidas.sum());
+            estadisticas.put("esperaPromedioMs", total == 0 ? 0.0 : esperaTotalNanos.sum() / 1e6 / total);
+            estadisticas.put("esperaMaximaMs", esperaMaximaNanos.get() / 1e6);
+            estadisticas.put("envioPromedioMs", total == 0 ? 0.0 : envioTotalNanos.sum() / 1e6 / total);
+            return estadisticas;
+        }
+    }
+
+    private record Tarea(Notificacion notificacion, PrioridadNotificacion prioridad, long secuencia,
+                         long encoladaEn, Consumer<ResultadoEnvio> alTerminar) implements Comparable<Tarea> {
+
+        @Override
+        public int compareTo(Tarea otra) {
+            int porPrioridad = prioridad.compareTo(otra.prioridad);
+            return porPrioridad != 0 ? porPrioridad : Long.compare(secuencia, otra.secuencia);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package ec.edu.espe.notification_service.service;
+
+import ec.edu.espe.notification_service.idempotencia.FiltroBloom;
+import ec.edu.espe.notification_service.repository.NotificacionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Primer nivel de idempotencia por eventId, en memoria.
+ * Un filtro de Bloom responde sin bloqueo "seguro que es nuevo" para casi todos los eventos;
+ * solo los positivos consultan la caché LRU de eventIds recientes, que confirma el duplicado.
+ * Lo que no se resuelve aquí lo decide la restricción única de la tabla (INSERT o ignorar).
+ * El filtro rota en dos generaciones del tamaño de la caché para no saturarse.
+ */
+@Component
+@Slf4j
+public class FiltroIdempotencia {
+
+    private final NotificacionRepository notificacionRepository;
+    private final int capacidadRecientes;
+    private final double tasaFalsosPositivos;
+    private final Map<String, Boolean> recientes;
+    private volatile FiltroBloom actual;
+    private volatile FiltroBloom anterior;
+
+    public FiltroIdempotencia(NotificacionRepository notificacionRepository,
+                              @Value("${notificaciones.idempotencia.recientes:100000}") int capacidadRecientes,
+                              @Value("${notificaciones.idempotencia.tasa-falsos-positivos:0.01}") double tasaFalsosPositivos) {
+        this.notificacionRepository = notificacionRepository;
+        this.capacidadRecientes = capacidadRecientes;
+        this.tasaFalsosPositivos = tasaFalsosPositivos;
+        this.actual = new FiltroBloom(capacidadRecientes, tasaFalsosPositivos);
+        this.recientes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > FiltroIdempotencia.this.capacidadRecientes;
+            }
+        };
+    }
+
+    /**
+     * Precarga los eventIds más recientes para que las redeliveries tras un reinicio
+     * se descarten en memoria
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void precargar() {
+        List<String> eventIds = notificacionRepository.findEventIdsRecientes(Limit.of(capacidadRecientes));
+        // Del más antiguo al más reciente, para que el orden LRU quede correcto
+        for (int i = eventIds.size() - 1; i >= 0; i--) {
+            registrar(eventIds.get(i));
+        }
+        log.info("Filtro de idempotencia precargado con {} eventIds", eventIds.size());
+    }
+
+    /**
+     * true si el eventId ya fue procesado con certeza; false si es nuevo o si no se sabe
+     */
+    public boolean yaProcesado(String eventId) {
+        FiltroBloom previo = anterior;
+        if (!actual.podriaContener(eventId) && (previo == null || !previo.podriaContener(eventId))) {
+            return false;
+        }
+        synchronized (recientes) {
+            return recientes.get(eventId) != null;
+        }
+    }
+
+    /**
+     * Registra un eventId ya guardado (o ya existente en la tabla)
+     */
+    public void registrar(String eventId) {
+        FiltroBloom filtro = actual;
+        if (filtro.lleno()) {
+            filtro = rotar(filtro);
+        }
+        filtro.agregar(eventId);
+        synchronized (recientes) {
+            recientes.put(eventId, Boolean.TRUE);
+        }
+    }
+
+    public int getTamanoRecientes() {
+        synchronized (recientes) {
+            return recientes.size();
+        }
+    }
+
+    private synchronized FiltroBloom rotar(FiltroBloom lleno) {
+        if (actual == lleno) {
+            anterior = lleno;
+            actual = new FiltroBloom(capacidadRecientes, tasaFalsosPositivos);
+        }
+        return actual;
+    }
+}
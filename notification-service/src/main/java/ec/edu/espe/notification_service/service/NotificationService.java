@@ -9,6 +9,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -16,19 +17,17 @@ import java.util.List;
 public class NotificationService {
     
     private final NotificacionRepository notificacionRepository;
+    private final PipelineNotificaciones pipeline;
+    private final DespachadorNotificaciones despachador;
     
     /**
-     * Crea y envía una notificación (con idempotencia)
+     * Encola una notificación para guardarla y enviarla de forma asíncrona.
+     * La idempotencia por eventId se resuelve en el pipeline, por lotes; el mensaje de origen
+     * se confirma cuando la notificación ya está guardada
      */
-    @Transactional
-    public Notificacion crearNotificacion(String tipo, String destinatario, String titulo, 
-                                         String mensaje, String eventoOrigen, String eventId) {
-        // Verificar idempotencia
-        if (eventId != null && notificacionRepository.findByEventId(eventId).isPresent()) {
-            log.info("Evento ya procesado: {}", eventId);
-            return notificacionRepository.findByEventId(eventId).get();
-        }
-        
+    public void crearNotificacion(String tipo, String destinatario, String titulo, 
+                                  String mensaje, String eventoOrigen, String eventId,
+                                  ConfirmacionMensaje confirmacion) {
         Notificacion notificacion = new Notificacion();
         notificacion.setTipo(tipo);
         notificacion.setDestinatario(destinatario);
@@ -39,53 +38,7 @@ public class NotificationService {
         notificacion.setEstado("PENDIENTE");
         notificacion.setFechaCreacion(LocalDateTime.now());
         
-        Notificacion saved = notificacionRepository.save(notificacion);
-        log.info("Notificación creada: ID={}, Tipo={}, Destinatario={}", 
-                 saved.getId(), saved.getTipo(), saved.getDestinatario());
-        
-        // Simular envío (en producción aquí iría la lógica real)
-        enviarNotificacion(saved);
-        
-        return saved;
-    }
-    
-    /**
-     * Simula el envío de la notificación
-     */
-    private void enviarNotificacion(Notificacion notificacion) {
-        try {
-            // Simulación de envío según tipo
-            switch (notificacion.getTipo()) {
-                case "EMAIL":
-                    log.info("📧 Enviando EMAIL a: {}", notificacion.getDestinatario());
-                    log.info("   Asunto: {}", notificacion.getTitulo());
-                    log.info("   Mensaje: {}", notificacion.getMensaje());
-                    break;
-                    
-                case "SMS":
-                    log.info("📱 Enviando SMS a: {}", notificacion.getDestinatario());
-                    log.info("   Mensaje: {}", notificacion.getMensaje());
-                    break;
-                    
-                case "PUSH":
-                    log.info("🔔 Enviando PUSH a: {}", notificacion.getDestinatario());
-                    log.info("   Título: {}", notificacion.getTitulo());
-                    log.info("   Mensaje: {}", notificacion.getMensaje());
-                    break;
-            }
-            
-            // Marcar como enviado
-            notificacion.setEstado("ENVIADO");
-            notificacion.setFechaEnvio(LocalDateTime.now());
-            notificacionRepository.save(notificacion);
-            log.info("✅ Notificación enviada exitosamente: ID={}", notificacion.getId());
-            
-        } catch (Exception e) {
-            log.error("❌ Error al enviar notificación: ID={}", notificacion.getId(), e);
-            notificacion.setEstado("ERROR");
-            notificacion.setErrorDetalle(e.getMessage());
-            notificacionRepository.save(notificacion);
-        }
+        pipeline.encolar(notificacion, confirmacion);
     }
     
     /**
@@ -103,18 +56,27 @@ public class NotificationService {
     }
     
     /**
-     * Reintenta envío de notificaciones fallidas
+     * Contadores y ocupación de colas del pipeline
+     */
+    public Map<String, Object> obtenerMetricasPipeline() {
+        return pipeline.estadisticas();
+    }
+    
+    /**
+     * Límites de tasa, profundidad y latencias por canal y carril de prioridad
+     */
+    public Map<String, Object> obtenerMetricasDespacho() {
+        return despachador.estadisticas();
+    }
+    
+    /**
+     * Reintento manual de las notificaciones fallidas (no las descartadas): con un UPDATE quedan
+     * vencidas y sin intentos, y el planificador de reintentos las envía por lotes
      */
     @Transactional
-    public void reintentarFallidas() {
-        List<Notificacion> fallidas = notificacionRepository.findByEstado("ERROR");
-        log.info("Reintentando {} notificaciones fallidas", fallidas.size());
-        
-        for (Notificacion notif : fallidas) {
-            notif.setEstado("PENDIENTE");
-            notif.setErrorDetalle(null);
-            notificacionRepository.save(notif);
-            enviarNotificacion(notif);
-        }
+    public int reintentarFallidas() {
+        int reprogramadas = notificacionRepository.reprogramarFallidas(LocalDateTime.now());
+        log.info("Reintentando {} notificaciones fallidas", reprogramadas);
+        return reprogramadas;
     }
 }
@@ -0,0 +1,379 @@
+package ec.edu.espe.notification_service.service;
+
+import ec.edu.espe.notification_service.despacho.PoliticaReintentos;
+import ec.edu.espe.notification_service.model.Notificacion;
+import ec.edu.espe.notification_service.repository.NotificacionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pipeline asíncrono de notificaciones.
+ * Los listeners de RabbitMQ solo encolan en una cola acotada en memoria (los eventId ya procesados
+ * se descartan antes con {@link FiltroIdempotencia}); un hilo coordinador la vacía por lotes,
+ * la guarda con un MERGE agrupado que ignora los eventId existentes y entrega cada notificación
+ * al {@link DespachadorNotificaciones} (límite de tasa y prioridad por canal).
+ * Los resultados del envío vuelven al coordinador, que actualiza los estados también por lotes.
+ * Si la cola se llena, el listener espera: la contrapresión llega al broker vía prefetch.
+ * Cada notificación lleva la {@link ConfirmacionMensaje} de su mensaje: el ack se hace cuando el
+ * lote ya se guardó, así una caída con notificaciones en la cola solo provoca reentregas.
+ * Lo que no cabe en el despacho queda PENDIENTE en la base y el coordinador lo retoma con un
+ * barrido paginado por id; el mismo barrido reenvía al arrancar lo que quedó PENDIENTE.
+ */
+@Component
+@Slf4j
+public class PipelineNotificaciones {
+
+    private final NotificacionRepository notificacionRepository;
+    private final FiltroIdempotencia filtroIdempotencia;
+    private final DespachadorNotificaciones despachador;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Entrada> cola;
+    private final BlockingQueue<ResultadoEnvio> resultados = new LinkedBlockingQueue<>();
+    private final int tamanoLote;
+    private final long esperaLoteMs;
+    private final long intervaloBarridoNanos;
+    private final PoliticaReintentos politicaReintentos;
+    private final Thread coordinador;
+    private volatile boolean activo = true;
+
+    // Estado del barrido de pendientes; el cursor solo lo usa el coordinador
+    private volatile boolean hayDiferidas = true; // El primer barrido reenvía lo pendiente de antes del arranque
+    private volatile boolean reiniciarBarrido;
+    private volatile long proximoBarrido = System.nanoTime();
+    private long cursorBarrido;
+
+    private final AtomicLong encoladas = new AtomicLong();
+    private final AtomicLong persistidas = new AtomicLong();
+    private final AtomicLong duplicadasMemoria = new AtomicLong();
+    private final AtomicLong duplicadasBd = new AtomicLong();
+    private final AtomicLong enviadas = new AtomicLong();
+    private final AtomicLong fallidas = new AtomicLong();
+    private final AtomicLong diferidas = new AtomicLong();
+    private final AtomicLong descartadas = new AtomicLong();
+
+    public PipelineNotificaciones(NotificacionRepository notificacionRepository,
+                                  FiltroIdempotencia filtroIdempotencia,
+                                  DespachadorNotificaciones despachador,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${notificaciones.pipeline.capacidad-cola:10000}") int capacidadCola,
+                                  @Value("${notificaciones.pipeline.tamano-lote:200}") int tamanoLote,
+                                  @Value("${notificaciones.pipeline.espera-lote-ms:50}") long esperaLoteMs,
+                                  @Value("${notificaciones.pipeline.barrido-pendientes-ms:5000}") long barridoPendientesMs,
+                                  @Value("${notificaciones.reintentos.maximo-intentos:6}") int maximoIntentos,
+                                  @Value("${notificaciones.reintentos.espera-base-ms:30000}") long esperaBaseMs,
+                                  @Value("${notificaciones.reintentos.espera-maxima-ms:3600000}") long esperaMaximaMs) {
+        this.notificacionRepository = notificacionRepository;
+        this.filtroIdempotencia = filtroIdempotencia;
+        this.despachador = despachador;
+        this.transactionTemplate = transactionTemplate;
+        this.cola = new ArrayBlockingQueue<>(capacidadCola);
+        this.tamanoLote = tamanoLote;
+        this.esperaLoteMs = esperaLoteMs;
+        this.intervaloBarridoNanos = TimeUnit.MILLISECONDS.toNanos(barridoPendientesMs);
+        this.politicaReintentos = new PoliticaReintentos(maximoIntentos, esperaBaseMs, esperaMaximaMs);
+        this.coordinador = new Thread(this::coordinar, "notificaciones-coordinador");
+        this.coordinador.setDaemon(true);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        coordinador.start();
+    }
+
+    /**
+     * Encola una notificación nueva; bloquea al llamador mientras la cola esté llena.
+     * La confirmación del mensaje queda retenida hasta que la notificación se guarde
+     */
+    public void encolar(Notificacion notificacion, ConfirmacionMensaje confirmacion) {
+        if (notificacion.getEventId() != null && filtroIdempotencia.yaProcesado(notificacion.getEventId())) {
+            log.info("Evento ya procesado: {}", notificacion.getEventId());
+            duplicadasMemoria.incrementAndGet();
+            return;
+        }
+        confirmacion.retener();
+        try {
+            cola.put(new Entrada(notificacion, confirmacion));
+            encoladas.incrementAndGet();
+        } catch (InterruptedException e) {
+            confirmacion.completar();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido al encolar la notificación", e);
+        }
+    }
+
+    /**
+     * Pide al coordinador un barrido completo de las notificaciones PENDIENTE
+     * (p. ej. tras reclamar notificaciones en ERROR para reintentarlas)
+     */
+    public void solicitarBarrido() {
+        reiniciarBarrido = true;
+        hayDiferidas = true;
+        proximoBarrido = System.nanoTime();
+    }
+
+    public Map<String, Object> estadisticas() {
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("encoladas", encoladas.get());
+        estadisticas.put("persistidas", persistidas.get());
+        estadisticas.put("duplicadasEnMemoria", duplicadasMemoria.get());
+        estadisticas.put("duplicadasEnBd", duplicadasBd.get());
+        estadisticas.put("eventIdsRecientes", filtroIdempotencia.getTamanoRecientes());
+        estadisticas.put("enviadas", enviadas.get());
+        estadisticas.put("fallidas", fallidas.get());
+        estadisticas.put("diferidas", diferidas.get());
+        estadisticas.put("descartadas", descartadas.get());
+        estadisticas.put("enCola", cola.size());
+        estadisticas.put("resultadosPendientes", resultados.size());
+        return estadisticas;
+    }
+
+    /**
+     * Al apagar: se persiste lo que quede en la cola, se esperan los envíos en curso
+     * y se registran sus resultados; lo que siga en el despacho queda PENDIENTE
+     */
+    @PreDestroy
+    void detener() throws InterruptedException {
+        // Sin interrupt: el coordinador sale en la siguiente espera (interrumpir una escritura en H2 cierra el archivo)
+        activo = false;
+        coordinador.join(TimeUnit.SECONDS.toMillis(10));
+        despachador.detener();
+        aplicarResultados();
+    }
+
+    private void coordinar() {
+        List<Entrada> lote = new ArrayList<>(tamanoLote);
+        while (activo || !cola.isEmpty()) {
+            try {
+                Entrada primera = activo ? cola.poll(esperaLoteMs, TimeUnit.MILLISECONDS) : cola.poll();
+                if (primera != null) {
+                    lote.add(primera);
+                    cola.drainTo(lote, tamanoLote - 1);
+                    List<Notificacion> guardadas = persistir(lote);
+                    lote.clear();
+                    despachar(guardadas);
+                }
+                aplicarResultados();
+                if (activo && hayDiferidas && System.nanoTime() - proximoBarrido >= 0) {
+                    barrerPendientes();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Error en el pipeline de notificaciones", e);
+                // Sin confirmar: el broker reentrega y la restricción única descarta lo ya guardado
+                lote.forEach(entrada -> entrada.confirmacion().rechazar(true));
+                lote.clear();
+            }
+        }
+    }
+
+    private void despachar(List<Notificacion> notificaciones) {
+        for (Notificacion notificacion : notificaciones) {
+            if (!despachador.encolar(notificacion, this::registrarResultado)) {
+                // Queda PENDIENTE en la base; la retoma el barrido
+                diferidas.incrementAndGet();
+                hayDiferidas = true;
+            }
+        }
+    }
+
+    private void registrarResultado(ResultadoEnvio resultado) {
+        (resultado.exito() ? enviadas : fallidas).incrementAndGet();
+        resultados.add(resultado);
+    }
+
+    /**
+     * Recorre por páginas de id las notificaciones PENDIENTE que no están en el despacho y las encola.
+     * Si un canal se llena, el cursor se queda ahí y el barrido sigue en el siguiente intervalo
+     */
+    private void barrerPendientes() {
+        if (reiniciarBarrido) {
+            reiniciarBarrido = false;
+            cursorBarrido = 0;
+        }
+        if (cursorBarrido == 0) {
+            hayDiferidas = false; // Lo que se difiera durante esta pasada la vuelve a marcar
+        }
+        proximoBarrido = System.nanoTime() + intervaloBarridoNanos;
+        while (activo) {
+            List<Notificacion> pagina = notificacionRepository.findByEstadoAndIdGreaterThanOrderByIdAsc(
+                    "PENDIENTE", cursorBarrido, Limit.of(tamanoLote));
+            // Primero se descartan las que están en vuelo y luego se vuelcan los resultados: una que sale
+            // del despacho entre ambos pasos ya tiene su resultado en la cola y aparece entre las aplicadas
+            List<Notificacion> candidatas = new ArrayList<>(pagina.size());
+            for (Notificacion notificacion : pagina) {
+                if (!despachador.enVuelo(notificacion.getId())) {
+                    candidatas.add(notificacion);
+                }
+            }
+            Set<Long> aplicadas = new HashSet<>(aplicarResultados());
+            // Resultados que no se pudieron registrar: esas notificaciones ya salieron del despacho
+            resultados.forEach(resultado -> aplicadas.add(resultado.id()));
+            for (Notificacion notificacion : candidatas) {
+                if (!aplicadas.contains(notificacion.getId())
+                        && !despachador.encolar(notificacion, this::registrarResultado)) {
+                    hayDiferidas = true;
+                    cursorBarrido = notificacion.getId() - 1;
+                    return;
+                }
+            }
+            if (pagina.size() < tamanoLote) {
+                cursorBarrido = 0;
+                return;
+            }
+            cursorBarrido = pagina.get(pagina.size() - 1).getId();
+        }
+    }
+
+    /**
+     * Guarda el lote en una transacción con un MERGE por lotes que ignora los eventId existentes;
+     * si el lote falla se guarda uno a uno para aislar la notificación inválida.
+     * Después confirma los mensajes del lote: los guardados (o ya existentes) con ack; los que no
+     * se pudieron guardar con nack, reencolados salvo que el error no sea transitorio
+     */
+    private List<Notificacion> persistir(List<Entrada> lote) {
+        List<Notificacion> conEventId = new ArrayList<>(lote.size());
+        List<Notificacion> sinEventId = new ArrayList<>();
+        Map<Notificacion, Boolean> noGuardadas = new IdentityHashMap<>(); // -> reencolar
+        Set<String> vistos = new HashSet<>();
+        for (Entrada entrada : lote) {
+            Notificacion notificacion = entrada.notificacion();
+            if (notificacion.getEventId() == null) {
+                sinEventId.add(notificacion);
+            } else if (vistos.add(notificacion.getEventId())) {
+                conEventId.add(notificacion);
+            } else {
+                duplicadasMemoria.incrementAndGet(); // Repetido dentro del mismo lote
+            }
+        }
+
+        List<Notificacion> guardadas;
+        try {
+            guardadas = transactionTemplate.execute(status -> {
+                List<Notificacion> insertadas = new ArrayList<>(notificacionRepository.insertarIgnorandoDuplicados(conEventId));
+                insertadas.addAll(notificacionRepository.saveAll(sinEventId));
+                return insertadas;
+            });
+        } catch (Exception e) {
+            log.warn("Falló el guardado por lotes de {} notificaciones, se reintenta una a una", lote.size(), e);
+            guardadas = new ArrayList<>(lote.size());
+            for (Notificacion notificacion : conEventId) {
+                try {
+                    guardadas.addAll(notificacionRepository.insertarIgnorandoDuplicados(List.of(notificacion)));
+                } catch (Exception ex) {
+                    log.error("❌ No se pudo guardar la notificación del evento {}", notificacion.getEventId(), ex);
+                    noGuardadas.put(notificacion, !(ex instanceof NonTransientDataAccessException));
+                }
+            }
+            for (Notificacion notificacion : sinEventId) {
+                notificacion.setId(null);
+                try {
+                    guardadas.add(notificacionRepository.save(notificacion));
+                } catch (Exception ex) {
+                    log.error("❌ No se pudo guardar la notificación sin eventId", ex);
+                    noGuardadas.put(notificacion, !(ex instanceof NonTransientDataAccessException));
+                }
+            }
+        }
+
+        // Los ignorados por la restricción única ya existían: también quedan registrados en el filtro
+        for (Notificacion notificacion : conEventId) {
+            if (!noGuardadas.containsKey(notificacion)) {
+                filtroIdempotencia.registrar(notificacion.getEventId());
+            }
+        }
+        for (Entrada entrada : lote) {
+            Boolean reencolar = noGuardadas.get(entrada.notificacion());
+            if (reencolar == null) {
+                entrada.confirmacion().completar();
+            } else {
+                entrada.confirmacion().rechazar(reencolar);
+            }
+        }
+        int ignoradas = conEventId.size() - (int) guardadas.stream().filter(n -> n.getEventId() != null).count()
+                - (int) noGuardadas.keySet().stream().filter(n -> n.getEventId() != null).count();
+        if (ignoradas > 0) {
+            duplicadasBd.addAndGet(ignoradas);
+            log.info("{} notificaciones con eventId ya procesado ignoradas por la base de datos", ignoradas);
+        }
+        persistidas.addAndGet(guardadas.size());
+        return guardadas;
+    }
+
+    /**
+     * Vuelca los resultados de envío acumulados con UPDATE agrupados en una transacción;
+     * devuelve los ids aplicados (ninguno si la transacción falla: los resultados se conservan). Un error programa el siguiente intento con backoff o,
+     * si no es reintentable o ya se agotaron los intentos, descarta la notificación
+     */
+    private Set<Long> aplicarResultados() {
+        List<ResultadoEnvio> pendientes = new ArrayList<>();
+        resultados.drainTo(pendientes);
+        if (pendientes.isEmpty()) {
+            return Set.of();
+        }
+        Map<Long, ResultadoEnvio> porId = new HashMap<>();
+        for (ResultadoEnvio resultado : pendientes) {
+            porId.put(resultado.id(), resultado);
+        }
+        List<Long> descartadasLote = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                descartadasLote.clear();
+                for (Notificacion notificacion : notificacionRepository.findAllById(porId.keySet())) {
+                    ResultadoEnvio resultado = porId.get(notificacion.getId());
+                    if (resultado.exito()) {
+                        notificacion.setEstado("ENVIADO");
+                        notificacion.setFechaEnvio(resultado.fecha());
+                        notificacion.setErrorDetalle(null);
+                        notificacion.setProximoIntentoEn(null);
+                    } else {
+                        int intentos = (notificacion.getIntentos() != null ? notificacion.getIntentos() : 0) + 1;
+                        notificacion.setIntentos(intentos);
+                        notificacion.setErrorDetalle(resultado.error());
+                        if (!resultado.reintentable() || politicaReintentos.agotado(intentos)) {
+                            notificacion.setEstado("DESCARTADO");
+                            notificacion.setProximoIntentoEn(null);
+                            descartadasLote.add(notificacion.getId());
+                            log.warn("Notificación {} descartada tras {} intento(s): {}", notificacion.getId(), intentos, resultado.error());
+                        } else {
+                            notificacion.setEstado("ERROR");
+                            notificacion.setProximoIntentoEn(LocalDateTime.now().plus(politicaReintentos.espera(intentos)));
+                        }
+                    }
+                }
+            });
+        } catch (Exception e) {
+            // Vuelven a la cola para el siguiente ciclo; mientras tanto el barrido no las reenvía
+            log.error("No se pudieron registrar {} resultados de envío, se reintentará", porId.size(), e);
+            resultados.addAll(pendientes);
+            return Set.of();
+        }
+        descartadas.addAndGet(descartadasLote.size());
+        return porId.keySet();
+    }
+
+    private record Entrada(Notificacion notificacion, ConfirmacionMensaje confirmacion) {
+    }
+}
@@ -0,0 +1,149 @@
+package ec.edu.espe.notification_service.service;
+
+import ec.edu.espe.notification_service.repository.NotificacionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reintentos programados de las notificaciones en ERROR.
+ * Cada ronda reclama por canal un lote pequeño de filas cuyo próximo intento ya venció
+ * (UPDATE a PENDIENTE en una transacción corta) y pide al pipeline que las despache: el envío
+ * es concurrente en los hilos del canal y respeta su límite de tasa. El backoff con jitter y
+ * el paso a DESCARTADO los decide el pipeline al registrar cada resultado.
+ * Si el proveedor de un canal encadena fallos se pausa el canal y luego se reintenta una sola
+ * notificación como sonda, para no insistir sobre un proveedor caído.
+ */
+@Component
+@Slf4j
+public class ReintentoNotificaciones {
+
+    private static final List<String> CANALES = List.of("EMAIL", "SMS", "PUSH");
+
+    private final NotificacionRepository notificacionRepository;
+    private final PipelineNotificaciones pipeline;
+    private final DespachadorNotificaciones despachador;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitados;
+    private final int tamanoLote;
+    private final int umbralFallos;
+    private final long pausaMs;
+
+    private final Map<String, Long> pausadoHasta = new ConcurrentHashMap<>();
+    private final AtomicLong reclamadas = new AtomicLong();
+    private final AtomicLong pausas = new AtomicLong();
+
+    public ReintentoNotificaciones(NotificacionRepository notificacionRepository,
+                                   PipelineNotificaciones pipeline,
+                                   DespachadorNotificaciones despachador,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${notificaciones.reintentos.habilitados:true}") boolean habilitados,
+                                   @Value("${notificaciones.reintentos.tamano-lote:20}") int tamanoLote,
+                                   @Value("${notificaciones.reintentos.umbral-fallos:5}") int umbralFallos,
+                                   @Value("${notificaciones.reintentos.pausa-ms:60000}") long pausaMs) {
+        this.notificacionRepository = notificacionRepository;
+        this.pipeline = pipeline;
+        this.despachador = despachador;
+        this.transactionTemplate = transactionTemplate;
+        this.habilitados = habilitados;
+        this.tamanoLote = tamanoLote;
+        this.umbralFallos = umbralFallos;
+        this.pausaMs = pausaMs;
+    }
+
+    /**
+     * Las notificaciones en ERROR guardadas sin fecha de reintento quedan vencidas
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void programarErroresSinFecha() {
+        Integer programadas = transactionTemplate.execute(
+                status -> notificacionRepository.programarErroresSinFecha(LocalDateTime.now()));
+        if (programadas != null && programadas > 0) {
+            log.info("{} notificaciones en ERROR programadas para reintento", programadas);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notificaciones.reintentos.intervalo-ms:5000}",
+               initialDelayString = "${notificaciones.reintentos.retraso-inicial-ms:10000}")
+    public void reintentarVencidas() {
+        if (!habilitados) {
+            return;
+        }
+        int total = 0;
+        for (String canal : CANALES) {
+            int lote = tamanoLoteCanal(canal);
+            if (lote == 0) {
+                continue;
+            }
+            try {
+                total += reclamar(canal, lote);
+            } catch (Exception e) {
+                log.error("Error al reclamar reintentos del canal {}", canal, e);
+            }
+        }
+        if (total > 0) {
+            reclamadas.addAndGet(total);
+            log.info("Reintentando {} notificaciones", total);
+            pipeline.solicitarBarrido();
+        }
+    }
+
+    public Map<String, Object> metricas() {
+        long ahora = System.currentTimeMillis();
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("habilitados", habilitados);
+        metricas.put("reclamadas", reclamadas.get());
+        metricas.put("pausas", pausas.get());
+        Map<String, Boolean> pausados = new LinkedHashMap<>();
+        for (String canal : CANALES) {
+            pausados.put(canal, pausadoHasta.getOrDefault(canal, 0L) > ahora);
+        }
+        metricas.put("canalesPausados", pausados);
+        return metricas;
+    }
+
+    /**
+     * Lote a reclamar para el canal: completo si el proveedor responde, 0 durante la pausa
+     * (que empieza al alcanzar el umbral) y 1 (sonda) al terminar cada pausa mientras siga fallando
+     */
+    private int tamanoLoteCanal(String canal) {
+        if (despachador.fallosConsecutivos(canal) < umbralFallos) {
+            pausadoHasta.remove(canal);
+            return tamanoLote;
+        }
+        long ahora = System.currentTimeMillis();
+        Long hasta = pausadoHasta.get(canal);
+        if (hasta == null) {
+            pausas.incrementAndGet();
+            log.warn("Canal {} con {} fallos seguidos: reintentos en pausa", canal, despachador.fallosConsecutivos(canal));
+            pausadoHasta.put(canal, ahora + pausaMs);
+            return 0;
+        }
+        if (ahora < hasta) {
+            return 0;
+        }
+        // Fin de la pausa: una sonda, y si vuelve a fallar sigue otra pausa completa
+        pausadoHasta.put(canal, ahora + pausaMs);
+        return 1;
+    }
+
+    private int reclamar(String canal, int lote) {
+        Integer reclamadasCanal = transactionTemplate.execute(status -> {
+            List<Long> ids = notificacionRepository.findIdsReintentoVencidos(canal, LocalDateTime.now(), Limit.of(lote));
+            return ids.isEmpty() ? 0 : notificacionRepository.reclamarParaReintento(ids);
+        });
+        return reclamadasCanal != null ? reclamadasCanal : 0;
+    }
+}
@@ -0,0 +1,23 @@
+package ec.edu.espe.notification_service.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resultado del envío de una notificación, que el pipeline vuelca a la base de datos por lotes.
+ * Un error no reintentable (p. ej. canal desconocido) descarta la notificación sin reintentos
+ */
+record ResultadoEnvio(Long id, boolean exito, String error, boolean reintentable, LocalDateTime fecha) {
+
+    static ResultadoEnvio exito(Long id) {
+        return new ResultadoEnvio(id, true, null, false, LocalDateTime.now());
+    }
+
+    static ResultadoEnvio error(Long id, String error) {
+        return error(id, error, true);
+    }
+
+    static ResultadoEnvio error(Long id, String error, boolean reintentable) {
+        String detalle = error != null && error.length() > 500 ? error.substring(0, 500) : error;
+        return new ResultadoEnvio(id, false, detalle, reintentable, null);
+    }
+}
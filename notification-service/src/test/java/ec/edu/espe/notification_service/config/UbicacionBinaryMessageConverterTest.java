@@ -0,0 +1,73 @@
+package ec.edu.espe.notification_service.config;
+
+import ec.edu.espe.notification_service.event.UbicacionEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.SimpleMessageConverter;
+
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Decodificación del formato binario de ubicaciones contra los bytes fijos que genera el
+ * codificador de tracking-service (ver su UbicacionBinaryMessageConverterTest): si el formato
+ * cambia, las copias del decodificador y sus fixtures deben actualizarse juntas.
+ */
+class UbicacionBinaryMessageConverterTest {
+
+    // eventId UUID, todos los campos opcionales, estado conocido
+    private static final String FIXTURE_COMPLETO =
+            "01073f2504e04f8941d39a0c0305e82c33012affe46f3cd13ac21283d1d489bc3301d209f71b0c41762e20416d617a6f6e6173";
+    // eventId de texto, sin opcionales, estado nulo
+    private static final String FIXTURE_MINIMO =
+            "01080c6576742d6c65676163792d37070000000000000000c0f0d189bc3300";
+    // UUID no canónico (mayúsculas) como texto, estado de texto, varints de 3 bytes (repartidorId)
+    // y de 2 bytes (dirección de 179 bytes con caracteres multibyte)
+    private static final String FIXTURE_VARINTS = "010c2433463235303445302d344638392d343144332d394130432d303330354538324333333031"
+            + "e0a712feb1ec10d061e55ac5f0d189bc33ff08454e5f5041555341b301"
+            + "43616c6c6520c3912043616c6c6520c3912043616c6c6520c3912043616c6c6520c3912043616c6c6520c39120"
+            + "43616c6c6520c3912043616c6c6520c3912043616c6c6520c3912043616c6c6520c3912043616c6c6520c39120"
+            + "43616c6c6520c3912043616c6c6520c3912043616c6c6520c3912043616c6c6520c3912043616c6c6520c39120"
+            + "43616c6c6520c3912043616c6c6520c3912043616c6c6520c3912043616c6c6520c3912043616c6c6520c391";
+
+    private final UbicacionBinaryMessageConverter converter = new UbicacionBinaryMessageConverter(new SimpleMessageConverter());
+
+    @Test
+    void decodificaLosFixtures() {
+        assertEquals(new UbicacionEvent("3f2504e0-4f89-41d3-9a0c-0305e82c3301", 42L, -0.1806532, -78.4678382,
+                        "2026-01-15T10:30:45.123", "EN_RUTA", 1234L, 35.75),
+                decodificar(FIXTURE_COMPLETO));
+        assertEquals(new UbicacionEvent("evt-legacy-7", 7L, 0.0, 0.0, "2026-01-15T10:30", null, null, null),
+                decodificar(FIXTURE_MINIMO));
+        // La dirección se descarta, pero su longitud debe consumirse completa
+        assertEquals(new UbicacionEvent("3F2504E0-4F89-41D3-9A0C-0305E82C3301", 300_000L, -2.1894128, -79.8890662,
+                        "2026-01-15T10:30:00.005", "EN_PAUSA", null, null),
+                decodificar(FIXTURE_VARINTS));
+    }
+
+    @Test
+    void otrosContentTypesSeDelegan() {
+        Message message = converter.toMessage("texto", new MessageProperties());
+
+        assertEquals("texto", converter.fromMessage(message));
+    }
+
+    @Test
+    void versionDesconocidaOTruncadoEsError() {
+        String otraVersion = "02" + FIXTURE_MINIMO.substring(2);
+        String truncado = FIXTURE_COMPLETO.substring(0, FIXTURE_COMPLETO.length() - 6);
+
+        assertThrows(MessageConversionException.class, () -> decodificar(otraVersion));
+        assertThrows(MessageConversionException.class, () -> decodificar(truncado));
+    }
+
+    private UbicacionEvent decodificar(String hex) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(UbicacionBinaryMessageConverter.CONTENT_TYPE);
+        return (UbicacionEvent) converter.fromMessage(new Message(HexFormat.of().parseHex(hex), properties));
+    }
+}
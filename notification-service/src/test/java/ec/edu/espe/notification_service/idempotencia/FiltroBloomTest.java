@@ -0,0 +1,95 @@
+package ec.edu.espe.notification_service.idempotencia;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sin falsos negativos y tasa de falsos positivos cercana a la configurada
+ * (capacidad 100000, tasa 0.01, como en application.yaml)
+ */
+class FiltroBloomTest {
+
+    private static final int CAPACIDAD = 100_000;
+    private static final double TASA = 0.01;
+
+    @Test
+    void sinFalsosNegativosConUuids() {
+        Random random = new Random(7);
+        FiltroBloom filtro = new FiltroBloom(CAPACIDAD, TASA);
+        String[] agregados = new String[CAPACIDAD];
+        for (int i = 0; i < CAPACIDAD; i++) {
+            agregados[i] = uuid(random);
+            filtro.agregar(agregados[i]);
+        }
+
+        for (String valor : agregados) {
+            assertTrue(filtro.podriaContener(valor), valor);
+        }
+        assertTrue(filtro.lleno());
+    }
+
+    @Test
+    void sinFalsosNegativosConLongitudesVariables() {
+        // Cubre todas las longitudes de cola (0 a 15 bytes) y bloques completos de 16
+        FiltroBloom filtro = new FiltroBloom(CAPACIDAD, TASA);
+        for (int i = 0; i < CAPACIDAD; i++) {
+            filtro.agregar(valorDeLongitud(i));
+        }
+
+        for (int i = 0; i < CAPACIDAD; i++) {
+            assertTrue(filtro.podriaContener(valorDeLongitud(i)));
+        }
+    }
+
+    @Test
+    void tasaDeFalsosPositivosEnLaCapacidadConfigurada() {
+        Random random = new Random(11);
+        FiltroBloom filtro = new FiltroBloom(CAPACIDAD, TASA);
+        for (int i = 0; i < CAPACIDAD; i++) {
+            filtro.agregar(uuid(random));
+        }
+
+        int consultas = 200_000;
+        int falsosPositivos = 0;
+        for (int i = 0; i < consultas; i++) {
+            if (filtro.podriaContener(uuid(random))) {
+                falsosPositivos++;
+            }
+        }
+
+        // Con 200000 consultas la desviación estándar es ~0.0002: el margen cubre solo el redondeo de m y k
+        double tasa = (double) falsosPositivos / consultas;
+        assertTrue(tasa > 0.007 && tasa < 0.013, "Tasa de falsos positivos: " + tasa);
+    }
+
+    @Test
+    void vacioNoContieneNada() {
+        FiltroBloom filtro = new FiltroBloom(CAPACIDAD, TASA);
+
+        assertFalse(filtro.podriaContener(""));
+        assertFalse(filtro.podriaContener(uuid(new Random(1))));
+        assertFalse(filtro.lleno());
+    }
+
+    @Test
+    void parametrosInvalidos() {
+        assertThrows(IllegalArgumentException.class, () -> new FiltroBloom(0, TASA));
+        assertThrows(IllegalArgumentException.class, () -> new FiltroBloom(CAPACIDAD, 0));
+        assertThrows(IllegalArgumentException.class, () -> new FiltroBloom(CAPACIDAD, 1));
+    }
+
+    private static String uuid(Random random) {
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+
+    private static String valorDeLongitud(int i) {
+        String base = "evt-" + i + "-";
+        return base + "x".repeat(i % 40);
+    }
+}
@@ -0,0 +1,69 @@
+package ec.edu.espe.notification_service.service;
+
+import com.rabbitmq.client.AlreadyClosedException;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ShutdownSignalException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Ack manual por partes: se confirma una sola vez, al liberarse la última parte
+ */
+class ConfirmacionMensajeTest {
+
+    private final Channel canal = mock(Channel.class);
+
+    @Test
+    void confirmaAlLiberarLaUltimaParte() throws Exception {
+        ConfirmacionMensaje confirmacion = new ConfirmacionMensaje(canal, 7);
+        confirmacion.retener();
+        confirmacion.retener();
+
+        confirmacion.completar(); // Listener
+        confirmacion.completar();
+        verify(canal, never()).basicAck(anyLong(), anyBoolean());
+
+        confirmacion.completar();
+        verify(canal).basicAck(7, false);
+    }
+
+    @Test
+    void sinPartesRetenidasConfirmaAlTerminarElListener() throws Exception {
+        ConfirmacionMensaje confirmacion = new ConfirmacionMensaje(canal, 3);
+
+        confirmacion.completar();
+
+        verify(canal).basicAck(3, false);
+    }
+
+    @Test
+    void rechazarEsDefinitivo() throws Exception {
+        ConfirmacionMensaje confirmacion = new ConfirmacionMensaje(canal, 5);
+        confirmacion.retener();
+
+        confirmacion.rechazar(true);
+        confirmacion.rechazar(false);
+        confirmacion.completar();
+        confirmacion.completar();
+
+        verify(canal, times(1)).basicNack(5, false, true);
+        verify(canal, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    @Test
+    void canalCerradoNoPropagaElError() throws Exception {
+        doThrow(new AlreadyClosedException(new ShutdownSignalException(false, true, null, null)))
+                .when(canal).basicAck(anyLong(), anyBoolean());
+        ConfirmacionMensaje confirmacion = new ConfirmacionMensaje(canal, 1);
+
+        assertDoesNotThrow(confirmacion::completar);
+    }
+}
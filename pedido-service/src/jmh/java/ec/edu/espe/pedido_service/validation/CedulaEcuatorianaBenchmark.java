@@ -0,0 +1,67 @@
+package ec.edu.espe.pedido_service.validation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el validador de cédula original (String) con el aritmético.
+ * Ejecutar con: mvn -Pjmh test-compile exec:exec
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseParallelGC")
+public class CedulaEcuatorianaBenchmark {
+
+    private static final int TAMANO_LOTE = 1024;
+
+    private final CedulaEcuatorianaValidator validator = new CedulaEcuatorianaValidator();
+    private Long[] cedulas;
+
+    @Setup
+    public void generarCedulas() {
+        // Lote típico de una importación: mayoría de cédulas bien formadas, válidas e inválidas
+        Random random = new Random(42);
+        cedulas = new Long[TAMANO_LOTE];
+        for (int i = 0; i < TAMANO_LOTE; i++) {
+            long provincia = 10 + random.nextInt(15);
+            long cuerpo = provincia * 10_000_000L + random.nextInt(6) * 1_000_000L + random.nextInt(1_000_000);
+            cedulas[i] = cuerpo * 10 + random.nextInt(10);
+        }
+    }
+
+    @Benchmark
+    public int original() {
+        int validas = 0;
+        for (Long cedula : cedulas) {
+            if (CedulaEcuatorianaValidatorOriginal.esValida(cedula)) {
+                validas++;
+            }
+        }
+        return validas;
+    }
+
+    @Benchmark
+    public int aritmetico() {
+        int validas = 0;
+        for (Long cedula : cedulas) {
+            if (validator.isValid(cedula, null)) {
+                validas++;
+            }
+        }
+        return validas;
+    }
+}
@@ -0,0 +1,110 @@
+package ec.edu.espe.pedido_service.asignacion;
+
+import java.util.Arrays;
+
+/**
+ * Algoritmo húngaro (Kuhn-Munkres con potenciales) para asignación de costo mínimo
+ * en matrices rectangulares, en O(n²·m) con n = min(filas, columnas).
+ * Los pares imposibles se expresan con {@link #COSTO_PROHIBIDO}: al ser mayor que cualquier
+ * suma de costos reales, la solución maximiza primero la cantidad de pares válidos.
+ */
+public final class AlgoritmoHungaro {
+
+    public static final double COSTO_PROHIBIDO = 1e9;
+
+    private AlgoritmoHungaro() {
+    }
+
+    /**
+     * Columna asignada a cada fila (-1 si la fila queda sin asignar o solo admite pares prohibidos)
+     */
+    public static int[] resolver(double[][] costos) {
+        int filas = costos.length;
+        int columnas = filas == 0 ? 0 : costos[0].length;
+        int[] asignacion = new int[filas];
+        Arrays.fill(asignacion, -1);
+        if (filas == 0 || columnas == 0) {
+            return asignacion;
+        }
+
+        if (filas > columnas) {
+            // Se resuelve la traspuesta (el algoritmo requiere filas <= columnas) y se invierte
+            int[] traspuesta = resolver(trasponer(costos));
+            for (int columna = 0; columna < columnas; columna++) {
+                if (traspuesta[columna] >= 0) {
+                    asignacion[traspuesta[columna]] = columna;
+                }
+            }
+            return asignacion;
+        }
+
+        // Índices desde 1; la columna 0 es ficticia y sirve de raíz de cada camino aumentante
+        double[] u = new double[filas + 1];
+        double[] v = new double[columnas + 1];
+        int[] filaDeColumna = new int[columnas + 1];
+        int[] camino = new int[columnas + 1];
+        double[] minimo = new double[columnas + 1];
+        boolean[] usada = new boolean[columnas + 1];
+
+        for (int fila = 1; fila <= filas; fila++) {
+            filaDeColumna[0] = fila;
+            int columnaActual = 0;
+            Arrays.fill(minimo, Double.POSITIVE_INFINITY);
+            Arrays.fill(usada, false);
+            do {
+                usada[columnaActual] = true;
+                int filaActual = filaDeColumna[columnaActual];
+                double delta = Double.POSITIVE_INFINITY;
+                int siguiente = 0;
+                for (int columna = 1; columna <= columnas; columna++) {
+                    if (usada[columna]) {
+                        continue;
+                    }
+                    double reducido = costos[filaActual - 1][columna - 1] - u[filaActual] - v[columna];
+                    if (reducido < minimo[columna]) {
+                        minimo[columna] = reducido;
+                        camino[columna] = columnaActual;
+                    }
+                    if (minimo[columna] < delta) {
+                        delta = minimo[columna];
+                        siguiente = columna;
+                    }
+                }
+                for (int columna = 0; columna <= columnas; columna++) {
+                    if (usada[columna]) {
+                        u[filaDeColumna[columna]] += delta;
+                        v[columna] -= delta;
+                    } else {
+                        minimo[columna] -= delta;
+                    }
+                }
+                columnaActual = siguiente;
+            } while (filaDeColumna[columnaActual] != 0);
+
+            // Recorrer el camino aumentante hacia atrás intercambiando las asignaciones
+            do {
+                int anterior = camino[columnaActual];
+                filaDeColumna[columnaActual] = filaDeColumna[anterior];
+                columnaActual = anterior;
+            } while (columnaActual != 0);
+        }
+
+        for (int columna = 1; columna <= columnas; columna++) {
+            int fila = filaDeColumna[columna];
+            if (fila != 0 && costos[fila - 1][columna - 1] < COSTO_PROHIBIDO) {
+                asignacion[fila - 1] = columna - 1;
+            }
+        }
+        return asignacion;
+    }
+
+    private static double[][] trasponer(double[][] costos) {
+        double[][] traspuesta = new double[costos[0].length][costos.length];
+        for (int i = 0; i < costos.length; i++) {
+            for (int j = 0; j < costos[i].length; j++) {
+                traspuesta[j][i] = costos[i][j];
+            }
+        }
+        return traspuesta;
+    }
+}
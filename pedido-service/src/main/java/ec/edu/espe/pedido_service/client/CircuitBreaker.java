@@ -0,0 +1,65 @@
+package ec.edu.espe.pedido_service.client;
+
+/**
+ * Circuit breaker mínimo para llamadas remotas.
+ * Tras {@code umbralFallos} fallos consecutivos se abre y rechaza llamadas durante
+ * {@code duracionAbiertoMs}; luego deja pasar una sola llamada de prueba (semiabierto)
+ * que lo cierra si tiene éxito o lo vuelve a abrir si falla.
+ */
+public class CircuitBreaker {
+
+    public enum Estado { CERRADO, ABIERTO, SEMI_ABIERTO }
+
+    private final int umbralFallos;
+    private final long duracionAbiertoMs;
+
+    private Estado estado = Estado.CERRADO;
+    private int fallosConsecutivos;
+    private long abiertoDesde;
+    private boolean pruebaEnCurso;
+
+    public CircuitBreaker(int umbralFallos, long duracionAbiertoMs) {
+        this.umbralFallos = umbralFallos;
+        this.duracionAbiertoMs = duracionAbiertoMs;
+    }
+
+    /**
+     * Indica si se permite intentar la llamada; en semiabierto solo se concede a un llamador
+     */
+    public synchronized boolean permitirLlamada() {
+        if (estado == Estado.ABIERTO && System.currentTimeMillis() - abiertoDesde >= duracionAbiertoMs) {
+            estado = Estado.SEMI_ABIERTO;
+            pruebaEnCurso = false;
+        }
+        return switch (estado) {
+            case CERRADO -> true;
+            case ABIERTO -> false;
+            case SEMI_ABIERTO -> {
+                if (pruebaEnCurso) {
+                    yield false;
+                }
+                pruebaEnCurso = true;
+                yield true;
+            }
+        };
+    }
+
+    public synchronized void registrarExito() {
+        estado = Estado.CERRADO;
+        fallosConsecutivos = 0;
+        pruebaEnCurso = false;
+    }
+
+    public synchronized void registrarFallo() {
+        fallosConsecutivos++;
+        if (estado == Estado.SEMI_ABIERTO || fallosConsecutivos >= umbralFallos) {
+            estado = Estado.ABIERTO;
+            abiertoDesde = System.currentTimeMillis();
+            pruebaEnCurso = false;
+        }
+    }
+
+    public synchronized Estado getEstado() {
+        return estado;
+    }
+}
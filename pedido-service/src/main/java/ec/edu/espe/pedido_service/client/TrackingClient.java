@@ -0,0 +1,16 @@
+package ec.edu.espe.pedido_service.client;
+
+import ec.edu.espe.pedido_service.dto.UbicacionRepartidor;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import java.util.List;
+
+// Igual que FleetClient, sin Service Discovery: la url se configura con tracking.url
+@FeignClient(name = "tracking-service", url = "${tracking.url:http://localhost:8086}")
+public interface TrackingClient {
+
+    // Últimas ubicaciones de los repartidores activos (servidas desde memoria en tracking-service)
+    @GetMapping("/api/tracking/activos")
+    List<UbicacionRepartidor> obtenerActivos();
+}
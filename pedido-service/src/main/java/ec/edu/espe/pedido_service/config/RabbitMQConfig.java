@@ -18,9 +18,6 @@ public class RabbitMQConfig {
     @Value("${rabbitmq.routing-keys.creado}")
     private String pedidoCreadoKey;
     
-    @Value("${rabbitmq.routing-keys.actualizado}")
-    private String pedidoActualizadoKey;
-    
     // Exchange para eventos de pedidos
     @Bean
     public TopicExchange pedidosExchange() {
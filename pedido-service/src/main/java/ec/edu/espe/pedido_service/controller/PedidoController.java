@@ -1,8 +1,17 @@
 package ec.edu.espe.pedido_service.controller;
 
+import ec.edu.espe.pedido_service.dto.AsignacionResultado;
+import ec.edu.espe.pedido_service.dto.PedidoBulkResponse;
+import ec.edu.espe.pedido_service.dto.PedidoPagina;
 import ec.edu.espe.pedido_service.model.Pedido;
+import ec.edu.espe.pedido_service.service.AsignacionService;
+import ec.edu.espe.pedido_service.service.IdempotenciaService;
 import ec.edu.espe.pedido_service.service.PedidoService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -11,23 +20,63 @@ import java.util.Map;
 
 @RestController
 @RequestMapping("/api/pedidos")
-@CrossOrigin(origins = {"http://localhost:3001", "http://localhost:5173", "http://localhost:3000"}, allowCredentials = "true")
+@CrossOrigin(origins = {"http://localhost:3001", "http://localhost:5173", "http://localhost:3000"}, allowCredentials = "true",
+             exposedHeaders = PedidoController.HEADER_SIGUIENTE_CURSOR)
 public class PedidoController {
 
+    static final String HEADER_SIGUIENTE_CURSOR = "X-Next-Cursor";
+    static final String HEADER_IDEMPOTENCIA = "Idempotency-Key";
+
     private final PedidoService pedidoService;
+    private final AsignacionService asignacionService;
 
-    public PedidoController(PedidoService pedidoService) {
+    public PedidoController(PedidoService pedidoService, AsignacionService asignacionService) {
         this.pedidoService = pedidoService;
+        this.asignacionService = asignacionService;
     }
 
+    // Con Idempotency-Key, los reintentos del cliente devuelven el pedido original
     @PostMapping
-    public ResponseEntity<Pedido> crear(@Valid @RequestBody Pedido pedido) {
-        return ResponseEntity.ok(pedidoService.crearPedido(pedido));
+    public ResponseEntity<Pedido> crear(
+            @Valid @RequestBody Pedido pedido,
+            @RequestHeader(value = HEADER_IDEMPOTENCIA, required = false)
+            @Size(min = 1, max = IdempotenciaService.LONGITUD_MAXIMA_CLAVE,
+                  message = "La Idempotency-Key debe tener entre 1 y 100 caracteres")
+            String claveIdempotencia) {
+        return ResponseEntity.ok(pedidoService.crearPedido(pedido, claveIdempotencia));
+    }
+
+    @PostMapping("/bulk")
+    public ResponseEntity<PedidoBulkResponse> crearBulk(
+            @RequestBody
+            @NotEmpty(message = "El lote debe contener al menos un pedido")
+            @Size(max = 500, message = "El lote no puede superar los 500 pedidos")
+            List<Pedido> pedidos) {
+        // La validación de cada pedido se hace en el servicio para reportar errores por ítem
+        return ResponseEntity.ok(pedidoService.crearPedidos(pedidos));
+    }
+
+    // Ejecuta de inmediato una ronda de asignación automática (también corre de forma programada)
+    @PostMapping("/asignacion")
+    public ResponseEntity<AsignacionResultado> asignarPendientes() {
+        return ResponseEntity.ok(asignacionService.asignarPendientes());
     }
 
+    // Devuelve la página como arreglo; el cursor de la siguiente página va en X-Next-Cursor
     @GetMapping
-    public List<Pedido> listar() {
-        return pedidoService.listarPedidos();
+    public ResponseEntity<List<Pedido>> listar(
+            @RequestParam(required = false) String estado,
+            @RequestParam(required = false) Long clienteId,
+            @RequestParam(required = false) Long repartidorId,
+            @RequestParam(required = false) Boolean cancelado,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "100") @Min(1) @Max(500) int limit) {
+        PedidoPagina pagina = pedidoService.listarPedidos(estado, clienteId, repartidorId, cancelado, cursor, limit);
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (pagina.getSiguienteCursor() != null) {
+            respuesta.header(HEADER_SIGUIENTE_CURSOR, String.valueOf(pagina.getSiguienteCursor()));
+        }
+        return respuesta.body(pagina.getPedidos());
     }
     
     @GetMapping("/{id}")
@@ -0,0 +1,14 @@
+package ec.edu.espe.pedido_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AsignacionResultado {
+    private int pedidosEvaluados;
+    private int vehiculosDisponibles;
+    private int asignados;
+}
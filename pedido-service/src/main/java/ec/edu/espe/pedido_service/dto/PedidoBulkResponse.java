@@ -0,0 +1,17 @@
+package ec.edu.espe.pedido_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PedidoBulkResponse {
+    private int total;
+    private int creados;
+    private int fallidos;
+    private List<PedidoBulkResultado> resultados;
+}
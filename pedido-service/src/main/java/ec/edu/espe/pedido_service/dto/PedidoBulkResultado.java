@@ -0,0 +1,20 @@
+package ec.edu.espe.pedido_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado de un ítem de la creación masiva (en el mismo orden del request)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PedidoBulkResultado {
+    private int indice;
+    private boolean exito;
+    private Long pedidoId;
+    private List<String> errores;
+}
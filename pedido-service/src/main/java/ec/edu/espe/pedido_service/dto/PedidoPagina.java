@@ -0,0 +1,19 @@
+package ec.edu.espe.pedido_service.dto;
+
+import ec.edu.espe.pedido_service.model.Pedido;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página del listado de pedidos (más recientes primero)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PedidoPagina {
+    private List<Pedido> pedidos;
+    private Long siguienteCursor; // null si no hay más páginas
+}
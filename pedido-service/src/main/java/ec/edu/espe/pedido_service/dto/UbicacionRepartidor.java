@@ -0,0 +1,15 @@
+package ec.edu.espe.pedido_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Última ubicación conocida de un repartidor según tracking-service
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UbicacionRepartidor {
+    private Long repartidorId;
+    private Double latitud;
+    private Double longitud;
+}
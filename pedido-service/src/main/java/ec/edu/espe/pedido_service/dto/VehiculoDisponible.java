@@ -0,0 +1,15 @@
+package ec.edu.espe.pedido_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Vista de un vehículo de fleet-service; su id es el repartidorId del pedido
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VehiculoDisponible {
+    private Long id;
+    private String estado;
+    private Double capacidadCarga; // kg
+}
@@ -15,4 +15,6 @@ public class PedidoEvent {
     private String direccionEntrega;
     private Double tarifa;
     private String timestamp;
+    private Long repartidorId;
+    private Long version; // Versión del pedido tras el cambio; permite descartar eventos viejos o repetidos
 }
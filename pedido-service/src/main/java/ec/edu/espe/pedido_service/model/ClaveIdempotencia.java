@@ -0,0 +1,35 @@
+package ec.edu.espe.pedido_service.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency-Key ya procesada en la creación de pedidos.
+ * Se guarda en la misma transacción que el pedido, así un reintento con la misma
+ * clave devuelve el pedido original en lugar de crear un duplicado.
+ */
+@Data
+@Entity
+@Table(name = "claves_idempotencia", indexes = {
+    @Index(name = "idx_claves_idempotencia_fecha", columnList = "fechaCreacion")
+})
+public class ClaveIdempotencia {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "claves_idempotencia_seq")
+    @SequenceGenerator(name = "claves_idempotencia_seq", sequenceName = "claves_idempotencia_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 100)
+    private String clave;
+
+    @Column(nullable = false, length = 64)
+    private String huella; // SHA-256 de la solicitud original
+
+    @Column(nullable = false)
+    private Long pedidoId;
+
+    @Column(nullable = false)
+    private LocalDateTime fechaCreacion;
+}
@@ -0,0 +1,79 @@
+package ec.edu.espe.pedido_service.model;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Estados de un pedido y sus transiciones permitidas.
+ * El estado se sigue guardando como texto en {@link Pedido#getEstado()}.
+ */
+public enum EstadoPedido {
+    RECIBIDO(false),
+    PENDIENTE(false),
+    ASIGNADO(true),
+    EN_CAMINO(true),
+    EN_ENTREGA(true),
+    ENTREGADO(true),
+    CANCELADO(false);
+
+    private final boolean requiereRepartidor;
+    private Set<EstadoPedido> siguientes;
+
+    EstadoPedido(boolean requiereRepartidor) {
+        this.requiereRepartidor = requiereRepartidor;
+    }
+
+    static {
+        RECIBIDO.siguientes = EnumSet.of(PENDIENTE, ASIGNADO, CANCELADO);
+        PENDIENTE.siguientes = EnumSet.of(ASIGNADO, CANCELADO);
+        ASIGNADO.siguientes = EnumSet.of(PENDIENTE, EN_CAMINO, CANCELADO);
+        EN_CAMINO.siguientes = EnumSet.of(EN_ENTREGA, ENTREGADO, CANCELADO);
+        EN_ENTREGA.siguientes = EnumSet.of(ENTREGADO, CANCELADO);
+        ENTREGADO.siguientes = EnumSet.noneOf(EstadoPedido.class);
+        CANCELADO.siguientes = EnumSet.noneOf(EstadoPedido.class);
+    }
+
+    /**
+     * Guarda de las transiciones hacia este estado: el pedido debe tener repartidor
+     */
+    public boolean requiereRepartidor() {
+        return requiereRepartidor;
+    }
+
+    /**
+     * Estado final: no admite más transiciones
+     */
+    public boolean esFinal() {
+        return siguientes.isEmpty();
+    }
+
+    public boolean puedePasarA(EstadoPedido destino) {
+        return siguientes.contains(destino);
+    }
+
+    /**
+     * Nombres de los estados desde los que se puede llegar a {@code destino}
+     * (condición del UPDATE condicional)
+     */
+    public static List<String> origenesHacia(EstadoPedido destino) {
+        return EnumSet.allOf(EstadoPedido.class).stream()
+                .filter(origen -> origen.puedePasarA(destino))
+                .map(Enum::name)
+                .toList();
+    }
+
+    /**
+     * Estado a partir de su nombre; null si no es un estado conocido
+     */
+    public static EstadoPedido desde(String nombre) {
+        if (nombre == null) {
+            return null;
+        }
+        try {
+            return valueOf(nombre);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
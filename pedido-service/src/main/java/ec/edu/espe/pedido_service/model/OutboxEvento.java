@@ -0,0 +1,47 @@
+package ec.edu.espe.pedido_service.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Evento pendiente de publicar en RabbitMQ (patrón outbox transaccional).
+ * Se escribe en la misma transacción que el cambio del pedido y un relay
+ * lo publica después, así que no se pierden eventos ni se publican cambios revertidos.
+ * Un evento que falla al publicarse varias veces seguidas queda apartado (fallidoEn) para no
+ * bloquear a los que vienen detrás.
+ */
+@Data
+@Entity
+@Table(name = "outbox_eventos", indexes = {
+    @Index(name = "idx_outbox_pendientes", columnList = "enviadoEn, id")
+})
+public class OutboxEvento {
+
+    // SEQUENCE para que los eventos de un mismo lote puedan insertarse en lotes JDBC
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_eventos_seq")
+    @SequenceGenerator(name = "outbox_eventos_seq", sequenceName = "outbox_eventos_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 36)
+    private String eventId;
+
+    @Column(nullable = false, length = 100)
+    private String routingKey;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload; // PedidoEvent en JSON
+
+    @Column(nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    private LocalDateTime enviadoEn; // null mientras esté pendiente
+
+    private Integer intentos = 0; // Publicaciones fallidas de este evento
+
+    private LocalDateTime fallidoEn; // Apartado tras agotar los intentos; ya no lo toma el relay
+
+    @Column(length = 500)
+    private String errorDetalle;
+}
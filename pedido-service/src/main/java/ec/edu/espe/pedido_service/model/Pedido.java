@@ -8,11 +8,19 @@ import java.math.BigDecimal;
 
 @Data
 @Entity
-@Table(name = "pedidos")
+@Table(name = "pedidos", indexes = {
+    // Índices compuestos con id para el listado paginado por cursor (keyset) con filtros
+    @Index(name = "idx_pedidos_estado_id", columnList = "estado, id"),
+    @Index(name = "idx_pedidos_cliente_id", columnList = "clienteId, id"),
+    @Index(name = "idx_pedidos_repartidor_id", columnList = "repartidorId, id"),
+    @Index(name = "idx_pedidos_cancelado_id", columnList = "cancelado, id")
+})
 public class Pedido {
 
+    // SEQUENCE (en lugar de IDENTITY) para que Hibernate pueda agrupar los INSERT en lotes JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pedidos_seq")
+    @SequenceGenerator(name = "pedidos_seq", sequenceName = "pedidos_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "La cédula del cliente es obligatoria")
@@ -28,7 +36,7 @@ public class Pedido {
     private String direccionEntrega;
 
     @Column(nullable = false)
-    private String estado = "PENDIENTE"; // PENDIENTE, ASIGNADO, EN_CAMINO, EN_ENTREGA, ENTREGADO, CANCELADO
+    private String estado = "PENDIENTE"; // Ver EstadoPedido
 
     @NotNull(message = "La tarifa es obligatoria")
     @DecimalMin(value = "0.01", message = "La tarifa debe ser mayor a 0")
@@ -37,4 +45,21 @@ public class Pedido {
 
     @Column(nullable = false, columnDefinition = "BOOLEAN DEFAULT FALSE")
     private Boolean cancelado = false;
+
+    // Datos opcionales para la asignación automática (capacidad del vehículo y cercanía al destino)
+    @DecimalMin(value = "0.0", message = "El peso no puede ser negativo")
+    private Double peso; // kg
+
+    @DecimalMin(value = "-90.0", message = "La latitud debe estar entre -90 y 90")
+    @DecimalMax(value = "90.0", message = "La latitud debe estar entre -90 y 90")
+    private Double latitudDestino;
+
+    @DecimalMin(value = "-180.0", message = "La longitud debe estar entre -180 y 180")
+    @DecimalMax(value = "180.0", message = "La longitud debe estar entre -180 y 180")
+    private Double longitudDestino;
+
+    // Bloqueo optimista: las actualizaciones concurrentes sobre el mismo pedido no se pisan
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
 }
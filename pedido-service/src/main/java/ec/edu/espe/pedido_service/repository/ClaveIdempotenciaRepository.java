@@ -0,0 +1,22 @@
+package ec.edu.espe.pedido_service.repository;
+
+import ec.edu.espe.pedido_service.model.ClaveIdempotencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface ClaveIdempotenciaRepository extends JpaRepository<ClaveIdempotencia, Long> {
+
+    Optional<ClaveIdempotencia> findByClave(String clave);
+
+    // Limpieza de claves vencidas
+    @Modifying
+    @Query("DELETE FROM ClaveIdempotencia c WHERE c.fechaCreacion < :limite")
+    int deleteCreadasAntesDe(@Param("limite") LocalDateTime limite);
+}
@@ -0,0 +1,29 @@
+package ec.edu.espe.pedido_service.repository;
+
+import ec.edu.espe.pedido_service.model.OutboxEvento;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventoRepository extends JpaRepository<OutboxEvento, Long> {
+
+    // Siguiente lote de eventos pendientes (sin los apartados), en orden de escritura
+    List<OutboxEvento> findByEnviadoEnIsNullAndFallidoEnIsNullOrderByIdAsc(Limit limit);
+
+    // Marca un lote como publicado en una sola sentencia
+    @Modifying
+    @Query("UPDATE OutboxEvento o SET o.enviadoEn = :enviadoEn WHERE o.id IN :ids")
+    int marcarEnviados(@Param("ids") List<Long> ids, @Param("enviadoEn") LocalDateTime enviadoEn);
+
+    // Limpieza de eventos ya publicados
+    @Modifying
+    @Query("DELETE FROM OutboxEvento o WHERE o.enviadoEn < :limite")
+    int deleteEnviadosAntesDe(@Param("limite") LocalDateTime limite);
+}
@@ -2,8 +2,36 @@ package ec.edu.espe.pedido_service.repository;
 
 import ec.edu.espe.pedido_service.model.Pedido;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
-public interface PedidoRepository extends JpaRepository<Pedido, Long> {
+public interface PedidoRepository extends JpaRepository<Pedido, Long>, JpaSpecificationExecutor<Pedido> {
+
+    // Cambio de estado en una sola sentencia: solo aplica si el estado actual es un origen válido,
+    // se cumple la guarda de repartidor y (si se indica) la versión coincide; devuelve 0 si no
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Pedido p SET p.estado = :estado, p.cancelado = :cancelado, p.version = p.version + 1 " +
+           "WHERE p.id = :id AND p.cancelado = false AND p.estado IN :origenes " +
+           "AND (:requiereRepartidor = false OR p.repartidorId IS NOT NULL) " +
+           "AND (:version IS NULL OR p.version = :version)")
+    int actualizarEstado(@Param("id") Long id, @Param("estado") String estado, @Param("cancelado") boolean cancelado,
+                         @Param("origenes") Collection<String> origenes,
+                         @Param("requiereRepartidor") boolean requiereRepartidor, @Param("version") Long version);
+
+    // Cancelación en una sola sentencia desde cualquier estado que la permita
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Pedido p SET p.estado = 'CANCELADO', p.cancelado = true, p.version = p.version + 1 " +
+           "WHERE p.id = :id AND p.cancelado = false AND p.estado IN :origenes")
+    int cancelar(@Param("id") Long id, @Param("origenes") Collection<String> origenes);
+
+    // Repartidores ocupados: con algún pedido en los estados indicados
+    @Query("SELECT DISTINCT p.repartidorId FROM Pedido p WHERE p.repartidorId IS NOT NULL AND p.estado IN :estados")
+    List<Long> findRepartidoresConPedidosEn(@Param("estados") Collection<String> estados);
 }
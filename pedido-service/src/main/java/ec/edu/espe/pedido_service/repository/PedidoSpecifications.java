@@ -0,0 +1,50 @@
+package ec.edu.espe.pedido_service.repository;
+
+import ec.edu.espe.pedido_service.model.EstadoPedido;
+import ec.edu.espe.pedido_service.model.Pedido;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Filtros de consultas de pedidos; en el listado solo se agregan los predicados de los filtros presentes
+ */
+public final class PedidoSpecifications {
+
+    private PedidoSpecifications() {
+    }
+
+    public static Specification<Pedido> conFiltros(String estado, Long clienteId, Long repartidorId,
+                                                   Boolean cancelado, Long antesDeId) {
+        Specification<Pedido> spec = Specification.where(null);
+        if (estado != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("estado"), estado));
+        }
+        if (clienteId != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("clienteId"), clienteId));
+        }
+        if (repartidorId != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("repartidorId"), repartidorId));
+        }
+        if (cancelado != null) {
+            spec = spec.and((root, query, cb) -> cb.equal(root.get("cancelado"), cancelado));
+        }
+        if (antesDeId != null) {
+            // Cursor (keyset): continuar después del último id de la página anterior
+            spec = spec.and((root, query, cb) -> cb.lessThan(root.get("id"), antesDeId));
+        }
+        return spec;
+    }
+
+    /**
+     * Pedidos RECIBIDO sin repartidor, candidatos a la asignación automática, a partir de un id
+     */
+    public static Specification<Pedido> pendientesDeAsignacion(Long despuesDeId) {
+        Specification<Pedido> spec = (root, query, cb) -> cb.and(
+                cb.equal(root.get("estado"), EstadoPedido.RECIBIDO.name()),
+                cb.equal(root.get("cancelado"), false),
+                cb.isNull(root.get("repartidorId")));
+        if (despuesDeId != null) {
+            spec = spec.and((root, query, cb) -> cb.greaterThan(root.get("id"), despuesDeId));
+        }
+        return spec;
+    }
+}
@@ -0,0 +1,242 @@
+package ec.edu.espe.pedido_service.service;
+
+import ec.edu.espe.pedido_service.asignacion.AlgoritmoHungaro;
+import ec.edu.espe.pedido_service.client.FleetClient;
+import ec.edu.espe.pedido_service.client.TrackingClient;
+import ec.edu.espe.pedido_service.dto.AsignacionResultado;
+import ec.edu.espe.pedido_service.dto.UbicacionRepartidor;
+import ec.edu.espe.pedido_service.dto.VehiculoDisponible;
+import ec.edu.espe.pedido_service.event.PedidoEvent;
+import ec.edu.espe.pedido_service.model.EstadoPedido;
+import ec.edu.espe.pedido_service.model.Pedido;
+import ec.edu.espe.pedido_service.repository.PedidoRepository;
+import ec.edu.espe.pedido_service.repository.PedidoSpecifications;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Asignación automática de repartidores a pedidos RECIBIDO.
+ * Cada ronda toma un lote de pedidos, los vehículos DISPONIBLE de fleet-service sin pedidos
+ * en curso y sus últimas ubicaciones en tracking-service, y resuelve el emparejamiento de
+ * distancia total mínima (algoritmo húngaro) respetando la capacidad de carga y un radio máximo.
+ * Las asignaciones se confirman en una sola transacción con UPDATE por lotes y bloqueo optimista.
+ */
+@Service
+@Slf4j
+public class AsignacionService {
+
+    private static final double RADIO_TIERRA_KM = 6371.0;
+    private static final String VEHICULO_DISPONIBLE = "DISPONIBLE";
+
+    // Un repartidor con un pedido no finalizado no recibe otro
+    private static final List<String> ESTADOS_OCUPADO = Arrays.stream(EstadoPedido.values())
+            .filter(estado -> !estado.esFinal())
+            .map(Enum::name)
+            .toList();
+
+    private final PedidoRepository pedidoRepository;
+    private final FleetClient fleetClient;
+    private final TrackingClient trackingClient;
+    private final OutboxService outboxService;
+    private final MaquinaEstadosPedido maquinaEstados;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitada;
+    private final int tamanoLote;
+    private final double radioMaximoKm;
+    private final ReentrantLock enCurso = new ReentrantLock();
+
+    // Último id evaluado cuando el lote vino lleno: la siguiente ronda continúa desde ahí para que
+    // los pedidos que no encuentran vehículo no bloqueen a los más nuevos
+    private Long ultimoIdEvaluado;
+
+    public AsignacionService(PedidoRepository pedidoRepository, FleetClient fleetClient,
+                             TrackingClient trackingClient, OutboxService outboxService,
+                             MaquinaEstadosPedido maquinaEstados, TransactionTemplate transactionTemplate,
+                             @Value("${asignacion.habilitada:true}") boolean habilitada,
+                             @Value("${asignacion.tamano-lote:100}") int tamanoLote,
+                             @Value("${asignacion.radio-maximo-km:20}") double radioMaximoKm) {
+        this.pedidoRepository = pedidoRepository;
+        this.fleetClient = fleetClient;
+        this.trackingClient = trackingClient;
+        this.outboxService = outboxService;
+        this.maquinaEstados = maquinaEstados;
+        this.transactionTemplate = transactionTemplate;
+        this.habilitada = habilitada;
+        this.tamanoLote = tamanoLote;
+        this.radioMaximoKm = radioMaximoKm;
+    }
+
+    @Scheduled(fixedDelayString = "${asignacion.intervalo-ms:10000}",
+               initialDelayString = "${asignacion.retraso-inicial-ms:30000}")
+    public void asignarProgramado() {
+        if (habilitada) {
+            asignarPendientes();
+        }
+    }
+
+    /**
+     * Ejecuta una ronda de asignación; si ya hay una en curso no hace nada
+     */
+    public AsignacionResultado asignarPendientes() {
+        if (!enCurso.tryLock()) {
+            return new AsignacionResultado(0, 0, 0);
+        }
+        try {
+            return ejecutarRonda();
+        } finally {
+            enCurso.unlock();
+        }
+    }
+
+    private AsignacionResultado ejecutarRonda() {
+        List<Pedido> pedidos = pedidoRepository.findBy(
+                PedidoSpecifications.pendientesDeAsignacion(ultimoIdEvaluado),
+                query -> query.sortBy(Sort.by("id")).limit(tamanoLote).all());
+        ultimoIdEvaluado = pedidos.size() == tamanoLote ? pedidos.get(pedidos.size() - 1).getId() : null;
+        if (pedidos.isEmpty()) {
+            return new AsignacionResultado(0, 0, 0);
+        }
+
+        // Las llamadas remotas se hacen fuera de la transacción
+        List<VehiculoDisponible> vehiculos;
+        try {
+            vehiculos = fleetClient.listarVehiculos(VEHICULO_DISPONIBLE);
+        } catch (Exception e) {
+            log.warn("Asignación automática omitida: no se pudo consultar fleet-service ({})", e.getMessage());
+            return new AsignacionResultado(pedidos.size(), 0, 0);
+        }
+        Map<Long, UbicacionRepartidor> ubicaciones = obtenerUbicaciones();
+
+        Set<Long> ocupados = new HashSet<>(pedidoRepository.findRepartidoresConPedidosEn(ESTADOS_OCUPADO));
+        List<VehiculoDisponible> candidatos = new ArrayList<>(vehiculos.size());
+        for (VehiculoDisponible vehiculo : vehiculos) {
+            // Sin tracking disponible se asigna solo por capacidad; con tracking, solo repartidores activos
+            if (vehiculo.getId() != null && !ocupados.contains(vehiculo.getId())
+                    && (ubicaciones == null || ubicaciones.containsKey(vehiculo.getId()))) {
+                candidatos.add(vehiculo);
+            }
+        }
+        if (candidatos.isEmpty()) {
+            return new AsignacionResultado(pedidos.size(), 0, 0);
+        }
+
+        double[][] costos = new double[pedidos.size()][candidatos.size()];
+        for (int i = 0; i < pedidos.size(); i++) {
+            for (int j = 0; j < candidatos.size(); j++) {
+                VehiculoDisponible vehiculo = candidatos.get(j);
+                costos[i][j] = costo(pedidos.get(i), vehiculo, ubicaciones != null ? ubicaciones.get(vehiculo.getId()) : null);
+            }
+        }
+        int[] emparejamiento = AlgoritmoHungaro.resolver(costos);
+
+        Map<Long, Asignacion> asignaciones = new HashMap<>();
+        for (int i = 0; i < pedidos.size(); i++) {
+            if (emparejamiento[i] >= 0) {
+                Pedido pedido = pedidos.get(i);
+                asignaciones.put(pedido.getId(),
+                                 new Asignacion(candidatos.get(emparejamiento[i]).getId(), pedido.getVersion()));
+            }
+        }
+        int asignados = asignaciones.isEmpty() ? 0 : confirmar(asignaciones);
+        log.info("Asignación automática: {} pedidos evaluados, {} vehículos candidatos, {} asignados",
+                 pedidos.size(), candidatos.size(), asignados);
+        return new AsignacionResultado(pedidos.size(), candidatos.size(), asignados);
+    }
+
+    /**
+     * Aplica las asignaciones en una transacción: los pedidos que cambiaron desde la lectura
+     * (asignados a mano, cancelados...) se omiten y quedan para la próxima ronda
+     */
+    private int confirmar(Map<Long, Asignacion> asignaciones) {
+        try {
+            Integer asignados = transactionTemplate.execute(status -> {
+                List<Pedido> actualizados = new ArrayList<>(asignaciones.size());
+                for (Pedido pedido : pedidoRepository.findAllById(asignaciones.keySet())) {
+                    Asignacion asignacion = asignaciones.get(pedido.getId());
+                    EstadoPedido estado = EstadoPedido.desde(pedido.getEstado());
+                    if (!asignacion.version().equals(pedido.getVersion()) || pedido.getRepartidorId() != null
+                            || Boolean.TRUE.equals(pedido.getCancelado())
+                            || estado == null || !estado.puedePasarA(EstadoPedido.ASIGNADO)) {
+                        continue;
+                    }
+                    pedido.setRepartidorId(asignacion.repartidorId());
+                    pedido.setEstado(EstadoPedido.ASIGNADO.name());
+                    actualizados.add(pedido);
+                }
+                // UPDATE por lotes con comprobación de versión; tras el flush los eventos llevan la versión nueva
+                pedidoRepository.flush();
+                List<PedidoEvent> eventos = new ArrayList<>(actualizados.size());
+                for (Pedido pedido : actualizados) {
+                    eventos.add(PedidoService.crearEvento(pedido));
+                }
+                outboxService.registrarTodos(maquinaEstados.routingKey(EstadoPedido.ASIGNADO), eventos);
+                return actualizados.size();
+            });
+            return asignados != null ? asignados : 0;
+        } catch (ObjectOptimisticLockingFailureException e) {
+            log.info("Asignación automática: un pedido cambió durante la confirmación, se reintenta en la próxima ronda");
+            return 0;
+        }
+    }
+
+    /**
+     * Últimas ubicaciones por repartidor; null si tracking-service no responde
+     */
+    private Map<Long, UbicacionRepartidor> obtenerUbicaciones() {
+        try {
+            Map<Long, UbicacionRepartidor> ubicaciones = new HashMap<>();
+            for (UbicacionRepartidor ubicacion : trackingClient.obtenerActivos()) {
+                if (ubicacion.getRepartidorId() != null && ubicacion.getLatitud() != null && ubicacion.getLongitud() != null) {
+                    ubicaciones.put(ubicacion.getRepartidorId(), ubicacion);
+                }
+            }
+            return ubicaciones;
+        } catch (Exception e) {
+            log.warn("tracking-service no disponible, la asignación se hace solo por capacidad ({})", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Costo de asignar el vehículo al pedido: distancia en km hasta el destino; si falta la ubicación
+     * o el destino se usa el radio máximo (peor caso admitido). Exceder la capacidad o el radio lo prohíbe
+     */
+    private double costo(Pedido pedido, VehiculoDisponible vehiculo, UbicacionRepartidor ubicacion) {
+        if (pedido.getPeso() != null && vehiculo.getCapacidadCarga() != null
+                && pedido.getPeso() > vehiculo.getCapacidadCarga()) {
+            return AlgoritmoHungaro.COSTO_PROHIBIDO;
+        }
+        if (ubicacion == null || pedido.getLatitudDestino() == null || pedido.getLongitudDestino() == null) {
+            return radioMaximoKm;
+        }
+        double distanciaKm = distanciaKm(ubicacion.getLatitud(), ubicacion.getLongitud(),
+                                         pedido.getLatitudDestino(), pedido.getLongitudDestino());
+        return distanciaKm > radioMaximoKm ? AlgoritmoHungaro.COSTO_PROHIBIDO : distanciaKm;
+    }
+
+    // Haversine
+    private static double distanciaKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * RADIO_TIERRA_KM * Math.asin(Math.sqrt(a));
+    }
+
+    private record Asignacion(Long repartidorId, Long version) {
+    }
+}
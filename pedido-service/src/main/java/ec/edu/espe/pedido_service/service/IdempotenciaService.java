@@ -0,0 +1,163 @@
+package ec.edu.espe.pedido_service.service;
+
+import ec.edu.espe.pedido_service.model.ClaveIdempotencia;
+import ec.edu.espe.pedido_service.model.Pedido;
+import ec.edu.espe.pedido_service.repository.ClaveIdempotenciaRepository;
+import ec.edu.espe.pedido_service.repository.PedidoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Idempotency-Key de la creación de pedidos.
+ * Las respuestas recientes se guardan en una caché local acotada con TTL, de modo que
+ * un reintento se responde sin tocar la base de datos ni el broker; si la clave ya no está
+ * en caché (o lo procesó otra instancia) se consulta la tabla de claves.
+ */
+@Service
+@Slf4j
+public class IdempotenciaService {
+
+    public static final int LONGITUD_MAXIMA_CLAVE = 100;
+    private static final int FRACCION_DESALOJO = 10; // Al llenarse se libera 1/10 de la capacidad
+
+    private final ClaveIdempotenciaRepository claveIdempotenciaRepository;
+    private final PedidoRepository pedidoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long ttlCacheMs;
+    private final int maxEntradas;
+    private final int horasRetencion;
+    private final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+
+    public IdempotenciaService(ClaveIdempotenciaRepository claveIdempotenciaRepository,
+                               PedidoRepository pedidoRepository,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${idempotencia.cache.ttl-ms:600000}") long ttlCacheMs,
+                               @Value("${idempotencia.cache.max-entradas:10000}") int maxEntradas,
+                               @Value("${idempotencia.horas-retencion:24}") int horasRetencion) {
+        this.claveIdempotenciaRepository = claveIdempotenciaRepository;
+        this.pedidoRepository = pedidoRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.ttlCacheMs = ttlCacheMs;
+        this.maxEntradas = maxEntradas;
+        this.horasRetencion = horasRetencion;
+    }
+
+    /**
+     * Pedido ya creado con esta clave, si existe. Rechaza la clave si se reutiliza
+     * con una solicitud distinta.
+     */
+    public Optional<Pedido> buscar(String clave, String huella) {
+        Entrada entrada = entradas.get(clave);
+        if (entrada != null && entrada.expiraEn > System.currentTimeMillis()) {
+            validarHuella(clave, entrada.huella, huella);
+            return Optional.of(entrada.pedido);
+        }
+
+        Optional<ClaveIdempotencia> registro = claveIdempotenciaRepository.findByClave(clave);
+        if (registro.isEmpty()) {
+            return Optional.empty();
+        }
+        validarHuella(clave, registro.get().getHuella(), huella);
+        Optional<Pedido> pedido = pedidoRepository.findById(registro.get().getPedidoId());
+        pedido.ifPresent(encontrado -> recordar(clave, huella, encontrado));
+        return pedido;
+    }
+
+    /**
+     * Registra la clave en la transacción en curso (obligatoria), junto al pedido creado
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(String clave, String huella, Long pedidoId) {
+        ClaveIdempotencia registro = new ClaveIdempotencia();
+        registro.setClave(clave);
+        registro.setHuella(huella);
+        registro.setPedidoId(pedidoId);
+        registro.setFechaCreacion(LocalDateTime.now());
+        claveIdempotenciaRepository.save(registro);
+    }
+
+    /**
+     * Guarda en caché la respuesta de una clave ya confirmada en la base de datos
+     */
+    public void recordar(String clave, String huella, Pedido pedido) {
+        if (entradas.size() >= maxEntradas && !entradas.containsKey(clave)) {
+            liberarEspacio();
+        }
+        entradas.put(clave, new Entrada(huella, pedido, System.currentTimeMillis() + ttlCacheMs));
+    }
+
+    /**
+     * Descarta las entradas vencidas y, si no alcanza, las más antiguas,
+     * hasta dejar libre una fracción de la capacidad
+     */
+    private void liberarEspacio() {
+        long ahora = System.currentTimeMillis();
+        entradas.values().removeIf(entrada -> entrada.expiraEn <= ahora);
+        int sobrantes = entradas.size() - maxEntradas + Math.max(1, maxEntradas / FRACCION_DESALOJO);
+        if (sobrantes > 0) {
+            entradas.entrySet().stream()
+                    .sorted(Map.Entry.comparingByValue(Comparator.comparingLong(Entrada::expiraEn)))
+                    .limit(sobrantes)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(entradas::remove);
+        }
+    }
+
+    /**
+     * Huella de los campos de la solicitud que determinan el pedido creado
+     */
+    public static String huella(Pedido pedido) {
+        String datos = pedido.getClienteId() + "|" + pedido.getRepartidorId() + "|"
+                + pedido.getDireccionEntrega() + "|"
+                + (pedido.getTarifa() != null ? pedido.getTarifa().stripTrailingZeros().toPlainString() : null) + "|"
+                + pedido.getPeso() + "|" + pedido.getLatitudDestino() + "|" + pedido.getLongitudDestino();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(datos.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Elimina las claves más antiguas que la retención
+     */
+    @Scheduled(cron = "${idempotencia.cron-limpieza:0 45 * * * *}")
+    public void purgarVencidas() {
+        Integer eliminadas = transactionTemplate.execute(status ->
+                claveIdempotenciaRepository.deleteCreadasAntesDe(LocalDateTime.now().minusHours(horasRetencion)));
+        if (eliminadas != null && eliminadas > 0) {
+            log.info("Idempotencia: {} claves vencidas eliminadas", eliminadas);
+        }
+        long ahora = System.currentTimeMillis();
+        entradas.values().removeIf(entrada -> entrada.expiraEn <= ahora);
+    }
+
+    private static void validarHuella(String clave, String original, String actual) {
+        if (!original.equals(actual)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "La Idempotency-Key " + clave + " ya se usó con una solicitud distinta");
+        }
+    }
+
+    private record Entrada(String huella, Pedido pedido, long expiraEn) {
+    }
+}
@@ -0,0 +1,75 @@
+package ec.edu.espe.pedido_service.service;
+
+import ec.edu.espe.pedido_service.model.EstadoPedido;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Máquina de estados de los pedidos: tabla de transiciones de {@link EstadoPedido},
+ * guardas de cada transición y routing key del evento que emite cada una
+ * ({@code pedido.estado.<destino>}, p. ej. {@code pedido.estado.en_camino}).
+ */
+@Component
+public class MaquinaEstadosPedido {
+
+    private final Map<EstadoPedido, List<String>> origenes = new EnumMap<>(EstadoPedido.class);
+    private final Map<EstadoPedido, String> routingKeys = new EnumMap<>(EstadoPedido.class);
+
+    public MaquinaEstadosPedido(@Value("${rabbitmq.routing-keys.estado-prefijo}") String prefijoRoutingKey) {
+        for (EstadoPedido estado : EstadoPedido.values()) {
+            origenes.put(estado, EstadoPedido.origenesHacia(estado));
+            routingKeys.put(estado, prefijoRoutingKey + "." + estado.name().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Estado destino solicitado; se rechaza antes de tocar la base de datos si no existe (400)
+     * o si ninguna transición lleva a él (409)
+     */
+    public EstadoPedido destino(Object valor) {
+        EstadoPedido destino = EstadoPedido.desde(valor != null ? String.valueOf(valor) : null);
+        if (destino == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Estado de pedido desconocido: " + valor);
+        }
+        if (origenes.get(destino).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Ningún pedido puede pasar al estado " + destino);
+        }
+        return destino;
+    }
+
+    /**
+     * Valida la transición desde el estado actual y sus guardas
+     */
+    public void validarTransicion(String estadoActual, EstadoPedido destino, Long repartidorId) {
+        EstadoPedido origen = EstadoPedido.desde(estadoActual);
+        if (origen == null || !origen.puedePasarA(destino)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Transición de estado no permitida: " + estadoActual + " -> " + destino);
+        }
+        if (destino.requiereRepartidor() && repartidorId == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "El pedido necesita un repartidor asignado para pasar a " + destino);
+        }
+    }
+
+    /**
+     * Estados desde los que se puede llegar a {@code destino} (condición del UPDATE condicional)
+     */
+    public List<String> origenesHacia(EstadoPedido destino) {
+        return origenes.get(destino);
+    }
+
+    /**
+     * Routing key del evento que emite la transición hacia {@code destino}
+     */
+    public String routingKey(EstadoPedido destino) {
+        return routingKeys.get(destino);
+    }
+}
@@ -0,0 +1,215 @@
+package ec.edu.espe.pedido_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ec.edu.espe.pedido_service.event.PedidoEvent;
+import ec.edu.espe.pedido_service.model.OutboxEvento;
+import ec.edu.espe.pedido_service.repository.OutboxEventoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outbox transaccional de eventos de pedidos.
+ * Los servicios registran los eventos dentro de su transacción; un relay en segundo plano
+ * los publica por lotes con confirmación del broker y solo entonces los marca como enviados
+ * (entrega al menos una vez: los consumidores deduplican por eventId).
+ * Si un lote falla sin que el broker esté caído, se publica uno a uno: el evento que falla suma
+ * un intento y, al agotarlos, queda apartado para que no bloquee a los siguientes.
+ */
+@Service
+@Slf4j
+public class OutboxService {
+
+    private final OutboxEventoRepository outboxEventoRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final String pedidosExchange;
+    private final int tamanoLote;
+    private final long timeoutConfirmacionMs;
+    private final int horasRetencion;
+    private final int maximoIntentos;
+
+    public OutboxService(OutboxEventoRepository outboxEventoRepository,
+                         RabbitTemplate rabbitTemplate,
+                         ObjectMapper objectMapper,
+                         TransactionTemplate transactionTemplate,
+                         @Value("${rabbitmq.exchanges.pedidos}") String pedidosExchange,
+                         @Value("${outbox.tamano-lote:100}") int tamanoLote,
+                         @Value("${outbox.timeout-confirmacion-ms:5000}") long timeoutConfirmacionMs,
+                         @Value("${outbox.horas-retencion:24}") int horasRetencion,
+                         @Value("${outbox.maximo-intentos:5}") int maximoIntentos) {
+        this.outboxEventoRepository = outboxEventoRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.pedidosExchange = pedidosExchange;
+        this.tamanoLote = tamanoLote;
+        this.timeoutConfirmacionMs = timeoutConfirmacionMs;
+        this.horasRetencion = horasRetencion;
+        this.maximoIntentos = maximoIntentos;
+    }
+
+    /**
+     * Registra un evento en la transacción en curso (obligatoria)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(String routingKey, PedidoEvent event) {
+        outboxEventoRepository.save(crearRegistro(routingKey, event));
+    }
+
+    /**
+     * Registra varios eventos en la transacción en curso (obligatoria)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarTodos(String routingKey, List<PedidoEvent> eventos) {
+        List<OutboxEvento> registros = new ArrayList<>(eventos.size());
+        for (PedidoEvent event : eventos) {
+            registros.add(crearRegistro(routingKey, event));
+        }
+        outboxEventoRepository.saveAll(registros);
+    }
+
+    /**
+     * Publica los eventos pendientes lote a lote hasta vaciar el outbox.
+     * Si el broker no está disponible los eventos quedan pendientes para el siguiente ciclo.
+     */
+    @Scheduled(fixedDelayString = "${outbox.intervalo-ms:500}")
+    public void publicarPendientes() {
+        int publicados;
+        do {
+            publicados = publicarLote();
+        } while (publicados == tamanoLote);
+    }
+
+    /**
+     * Elimina los eventos ya publicados más antiguos que la retención
+     */
+    @Scheduled(cron = "${outbox.cron-limpieza:0 30 * * * *}")
+    public void purgarEnviados() {
+        Integer eliminados = transactionTemplate.execute(status ->
+                outboxEventoRepository.deleteEnviadosAntesDe(LocalDateTime.now().minusHours(horasRetencion)));
+        if (eliminados != null && eliminados > 0) {
+            log.info("Outbox: {} eventos publicados eliminados", eliminados);
+        }
+    }
+
+    private int publicarLote() {
+        List<OutboxEvento> pendientes = outboxEventoRepository
+                .findByEnviadoEnIsNullAndFallidoEnIsNullOrderByIdAsc(Limit.of(tamanoLote));
+        if (pendientes.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            publicar(pendientes);
+        } catch (AmqpConnectException | AmqpTimeoutException e) {
+            log.warn("Outbox: broker no disponible, {} eventos se reintentarán: {}", pendientes.size(), e.getMessage());
+            return 0;
+        } catch (Exception e) {
+            log.warn("Outbox: falló un lote de {} eventos, se publican uno a uno: {}", pendientes.size(), e.getMessage());
+            return publicarUnoAUno(pendientes);
+        }
+
+        marcarEnviados(pendientes);
+        log.info("✅ Outbox: {} eventos publicados y confirmados", pendientes.size());
+        return pendientes.size();
+    }
+
+    /**
+     * Aísla los eventos que hacen fallar el lote: publica el resto y a cada uno que falla le suma
+     * un intento. Devuelve 0 si alguno queda por reintentar, para no reintentarlo en el mismo ciclo
+     */
+    private int publicarUnoAUno(List<OutboxEvento> pendientes) {
+        List<OutboxEvento> enviados = new ArrayList<>(pendientes.size());
+        boolean quedanPorReintentar = false;
+        for (OutboxEvento pendiente : pendientes) {
+            try {
+                publicar(List.of(pendiente));
+                enviados.add(pendiente);
+            } catch (AmqpConnectException | AmqpTimeoutException e) {
+                // El broker dejó de responder: no es culpa del evento y no cuenta como intento
+                quedanPorReintentar = true;
+                break;
+            } catch (Exception e) {
+                quedanPorReintentar |= !registrarFallo(pendiente, e);
+            }
+        }
+        if (!enviados.isEmpty()) {
+            marcarEnviados(enviados);
+            log.info("✅ Outbox: {} eventos publicados y confirmados uno a uno", enviados.size());
+        }
+        return quedanPorReintentar ? 0 : pendientes.size();
+    }
+
+    // Un solo canal para todos los eventos y una sola espera de confirmaciones al final
+    private void publicar(List<OutboxEvento> eventos) {
+        rabbitTemplate.invoke(operations -> {
+            for (OutboxEvento evento : eventos) {
+                operations.convertAndSend(pedidosExchange, evento.getRoutingKey(), leerEvento(evento));
+            }
+            operations.waitForConfirmsOrDie(timeoutConfirmacionMs);
+            return null;
+        });
+    }
+
+    private void marcarEnviados(List<OutboxEvento> eventos) {
+        List<Long> ids = eventos.stream().map(OutboxEvento::getId).toList();
+        transactionTemplate.executeWithoutResult(status ->
+                outboxEventoRepository.marcarEnviados(ids, LocalDateTime.now()));
+    }
+
+    /**
+     * Suma un intento fallido al evento y lo aparta si ya los agotó; devuelve true si quedó apartado
+     */
+    private boolean registrarFallo(OutboxEvento evento, Exception e) {
+        int intentos = (evento.getIntentos() != null ? evento.getIntentos() : 0) + 1;
+        String error = e.getMessage() != null && e.getMessage().length() > 500 ? e.getMessage().substring(0, 500) : e.getMessage();
+        evento.setIntentos(intentos);
+        evento.setErrorDetalle(error);
+        boolean apartado = intentos >= maximoIntentos;
+        if (apartado) {
+            evento.setFallidoEn(LocalDateTime.now());
+            log.error("❌ Outbox: evento {} apartado tras {} intentos fallidos: {}", evento.getEventId(), intentos, error);
+        } else {
+            log.warn("Outbox: falló la publicación del evento {} (intento {} de {}): {}",
+                     evento.getEventId(), intentos, maximoIntentos, error);
+        }
+        transactionTemplate.executeWithoutResult(status -> outboxEventoRepository.save(evento));
+        return apartado;
+    }
+
+    private OutboxEvento crearRegistro(String routingKey, PedidoEvent event) {
+        OutboxEvento registro = new OutboxEvento();
+        registro.setEventId(event.getEventId());
+        registro.setRoutingKey(routingKey);
+        registro.setFechaCreacion(LocalDateTime.now());
+        try {
+            registro.setPayload(objectMapper.writeValueAsString(event));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("No se pudo serializar el evento " + event.getEventId(), e);
+        }
+        return registro;
+    }
+
+    private PedidoEvent leerEvento(OutboxEvento registro) {
+        try {
+            return objectMapper.readValue(registro.getPayload(), PedidoEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Evento de outbox ilegible: " + registro.getEventId(), e);
+        }
+    }
+}
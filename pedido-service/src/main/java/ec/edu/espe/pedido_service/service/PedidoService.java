@@ -1,18 +1,32 @@
 package ec.edu.espe.pedido_service.service;
 
-import ec.edu.espe.pedido_service.client.FleetClient;
+import ec.edu.espe.pedido_service.dto.PedidoBulkResponse;
+import ec.edu.espe.pedido_service.dto.PedidoBulkResultado;
+import ec.edu.espe.pedido_service.dto.PedidoPagina;
 import ec.edu.espe.pedido_service.event.PedidoEvent;
+import ec.edu.espe.pedido_service.model.EstadoPedido;
 import ec.edu.espe.pedido_service.model.Pedido;
 import ec.edu.espe.pedido_service.repository.PedidoRepository;
-import feign.FeignException;
+import ec.edu.espe.pedido_service.repository.PedidoSpecifications;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -20,57 +34,168 @@ import java.util.UUID;
 public class PedidoService {
 
     private final PedidoRepository pedidoRepository;
-    private final FleetClient fleetClient; // Cliente para hablar con Fleet
-    private final RabbitTemplate rabbitTemplate;
-    
-    @Value("${rabbitmq.exchanges.pedidos}")
-    private String pedidosExchange;
+    private final VehiculoCache vehiculoCache; // Validación de repartidores contra Fleet
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final IdempotenciaService idempotenciaService;
+    private final MaquinaEstadosPedido maquinaEstados;
     
     @Value("${rabbitmq.routing-keys.creado}")
     private String pedidoCreadoKey;
-    
-    @Value("${rabbitmq.routing-keys.actualizado}")
-    private String pedidoActualizadoKey;
 
-    public PedidoService(PedidoRepository pedidoRepository, FleetClient fleetClient, 
-                        RabbitTemplate rabbitTemplate) {
+    public PedidoService(PedidoRepository pedidoRepository, VehiculoCache vehiculoCache, 
+                        OutboxService outboxService, TransactionTemplate transactionTemplate,
+                        Validator validator, IdempotenciaService idempotenciaService,
+                        MaquinaEstadosPedido maquinaEstados) {
         this.pedidoRepository = pedidoRepository;
-        this.fleetClient = fleetClient;
-        this.rabbitTemplate = rabbitTemplate;
+        this.vehiculoCache = vehiculoCache;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.idempotenciaService = idempotenciaService;
+        this.maquinaEstados = maquinaEstados;
     }
 
     // ---------------------------------------------------------------
     // Transacción ACID Local: O se guarda todo bien, o no se guarda nada.
+    // La validación remota ocurre antes de abrir la transacción para no retener
+    // una conexión de BD mientras se espera a fleet-service.
+    // Con Idempotency-Key, un reintento devuelve el pedido original sin crear otro.
     // ---------------------------------------------------------------
-    @Transactional(rollbackFor = Exception.class) 
-    public Pedido crearPedido(Pedido pedido) {
+    public Pedido crearPedido(Pedido pedido, String claveIdempotencia) {
+        String huella = null;
+        if (claveIdempotencia != null) {
+            huella = IdempotenciaService.huella(pedido);
+            Optional<Pedido> previo = idempotenciaService.buscar(claveIdempotencia, huella);
+            if (previo.isPresent()) {
+                log.info("Reintento con Idempotency-Key {}: se devuelve el pedido {}", claveIdempotencia, previo.get().getId());
+                return previo.get();
+            }
+        }
         
         // 1. Validar reglas de negocio
-        pedido.setEstado("RECIBIDO");
+        pedido.setEstado(EstadoPedido.RECIBIDO.name());
+        pedido.setVersion(null);
         
         // 2. Si viene con repartidor pre-asignado, validamos que exista en el OTRO microservicio
+        //    (con caché local y circuit breaker)
         if (pedido.getRepartidorId() != null) {
-            try {
-                // Llamada síncrona HTTP a FleetService
-                fleetClient.obtenerVehiculo(pedido.getRepartidorId());
-            } catch (FeignException.NotFound e) {
-                throw new RuntimeException("El repartidor con ID " + pedido.getRepartidorId() + " no existe.");
-            } catch (Exception e) {
-                throw new RuntimeException("Error al conectar con el servicio de flota.");
-            }
+            vehiculoCache.validarRepartidor(pedido.getRepartidorId());
         }
 
-        // 3. Guardado Atómico
-        Pedido saved = pedidoRepository.save(pedido);
+        // 3. Guardado Atómico junto con el evento en el outbox (se publica en RabbitMQ tras el commit)
+        //    y la clave de idempotencia
+        String huellaSolicitud = huella;
+        Pedido creado;
+        try {
+            creado = transactionTemplate.execute(status -> {
+                Pedido saved = pedidoRepository.save(pedido);
+                publicarEventoPedidoCreado(saved);
+                if (claveIdempotencia != null) {
+                    idempotenciaService.registrar(claveIdempotencia, huellaSolicitud, saved.getId());
+                }
+                return saved;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Otra solicitud con la misma clave se confirmó primero: se devuelve su pedido
+            if (claveIdempotencia == null) {
+                throw e;
+            }
+            return idempotenciaService.buscar(claveIdempotencia, huellaSolicitud).orElseThrow(() -> e);
+        }
         
-        // 4. Publicar evento en RabbitMQ (Fase 2)
-        publicarEventoPedidoCreado(saved);
+        if (claveIdempotencia != null) {
+            idempotenciaService.recordar(claveIdempotencia, huellaSolicitud, creado);
+        }
+        return creado;
+    }
+    
+    /**
+     * Crea un lote de pedidos con resultado individual por ítem.
+     * Los ítems inválidos (validación de campos o repartidor inexistente) se reportan y
+     * se omiten; los válidos se guardan con INSERT por lotes en una sola transacción,
+     * junto con sus eventos en el outbox.
+     */
+    public PedidoBulkResponse crearPedidos(List<Pedido> pedidos) {
+        List<PedidoBulkResultado> resultados = new ArrayList<>(pedidos.size());
+        List<Pedido> validos = new ArrayList<>(pedidos.size());
+        List<PedidoBulkResultado> resultadosValidos = new ArrayList<>(pedidos.size());
+        Map<Long, String> erroresRepartidor = new HashMap<>();
         
-        return saved;
+        for (int i = 0; i < pedidos.size(); i++) {
+            Pedido pedido = pedidos.get(i);
+            PedidoBulkResultado resultado = new PedidoBulkResultado(i, false, null, new ArrayList<>());
+            resultados.add(resultado);
+            if (pedido == null) {
+                resultado.getErrores().add("El pedido no puede ser nulo");
+                continue;
+            }
+            
+            for (ConstraintViolation<Pedido> violacion : validator.validate(pedido)) {
+                resultado.getErrores().add(violacion.getPropertyPath() + ": " + violacion.getMessage());
+            }
+            
+            // Cada repartidor distinto se valida una sola vez (y antes de abrir la transacción)
+            Long repartidorId = pedido.getRepartidorId();
+            if (resultado.getErrores().isEmpty() && repartidorId != null) {
+                String error = erroresRepartidor.computeIfAbsent(repartidorId, id -> {
+                    try {
+                        vehiculoCache.validarRepartidor(id);
+                        return "";
+                    } catch (RuntimeException e) {
+                        return e.getMessage();
+                    }
+                });
+                if (!error.isEmpty()) {
+                    resultado.getErrores().add(error);
+                }
+            }
+            
+            if (resultado.getErrores().isEmpty()) {
+                pedido.setId(null);
+                pedido.setEstado(EstadoPedido.RECIBIDO.name());
+                pedido.setCancelado(false);
+                pedido.setVersion(null);
+                validos.add(pedido);
+                resultadosValidos.add(resultado);
+            }
+        }
+        
+        if (!validos.isEmpty()) {
+            List<Pedido> guardados = transactionTemplate.execute(status -> {
+                List<Pedido> saved = pedidoRepository.saveAll(validos);
+                List<PedidoEvent> eventos = new ArrayList<>(saved.size());
+                for (Pedido pedido : saved) {
+                    eventos.add(crearEvento(pedido));
+                }
+                outboxService.registrarTodos(pedidoCreadoKey, eventos);
+                return saved;
+            });
+            for (int i = 0; i < guardados.size(); i++) {
+                resultadosValidos.get(i).setExito(true);
+                resultadosValidos.get(i).setPedidoId(guardados.get(i).getId());
+            }
+            log.info("Creación masiva: {} pedidos creados, {} con errores", guardados.size(), pedidos.size() - guardados.size());
+        }
+        
+        return new PedidoBulkResponse(pedidos.size(), validos.size(), pedidos.size() - validos.size(), resultados);
     }
     
-    public List<Pedido> listarPedidos() {
-        return pedidoRepository.findAll();
+    /**
+     * Lista pedidos filtrados, del más reciente al más antiguo, paginando por cursor sobre el id
+     */
+    public PedidoPagina listarPedidos(String estado, Long clienteId, Long repartidorId, Boolean cancelado,
+                                      Long cursor, int limite) {
+        // Se pide un registro extra para saber si existe una página siguiente sin hacer un COUNT
+        List<Pedido> pedidos = pedidoRepository.findBy(
+                PedidoSpecifications.conFiltros(estado, clienteId, repartidorId, cancelado, cursor),
+                query -> query.sortBy(Sort.by(Sort.Direction.DESC, "id")).limit(limite + 1).all());
+        if (pedidos.size() <= limite) {
+            return new PedidoPagina(pedidos, null);
+        }
+        List<Pedido> pagina = pedidos.subList(0, limite);
+        return new PedidoPagina(pagina, pagina.get(limite - 1).getId());
     }
     
     public Pedido obtenerPorId(Long id) {
@@ -78,13 +203,32 @@ public class PedidoService {
                 .orElseThrow(() -> new RuntimeException("Pedido no encontrado con ID: " + id));
     }
     
+    /**
+     * Actualización parcial. Un cambio solo de estado se aplica con un UPDATE condicional
+     * (sin leer antes el pedido); el resto de campos pasa por el bloqueo optimista.
+     * El estado destino se valida contra la máquina de estados antes de tocar la base de datos;
+     * las transiciones inválidas y los cambios concurrentes responden 409.
+     */
     @Transactional
-    public Pedido actualizarParcial(Long id, java.util.Map<String, Object> updates) {
+    public Pedido actualizarParcial(Long id, Map<String, Object> updates) {
+        Long versionEsperada = updates.get("version") instanceof Number numero ? numero.longValue() : null;
+        EstadoPedido destino = updates.get("estado") instanceof String estado ? maquinaEstados.destino(estado) : null;
+        boolean soloEstado = destino != null
+                && updates.get("direccionEntrega") == null
+                && updates.get("repartidorId") == null
+                && updates.get("tarifa") == null;
+        if (soloEstado) {
+            return actualizarEstado(id, destino, versionEsperada);
+        }
+
         Pedido pedido = pedidoRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Pedido no encontrado"));
         
         if (pedido.getCancelado() != null && pedido.getCancelado()) {
-            throw new RuntimeException("No se puede actualizar un pedido cancelado");
+            throw conflicto("No se puede actualizar un pedido cancelado");
+        }
+        if (versionEsperada != null && !versionEsperada.equals(pedido.getVersion())) {
+            throw conflicto("El pedido " + id + " fue modificado por otra operación");
         }
         
         String estadoAnterior = pedido.getEstado();
@@ -98,11 +242,6 @@ public class PedidoService {
                         pedido.setDireccionEntrega((String) value);
                     }
                 }
-                case "estado" -> {
-                    if (value instanceof String) {
-                        pedido.setEstado((String) value);
-                    }
-                }
                 case "repartidorId" -> {
                     if (value instanceof Number) {
                         pedido.setRepartidorId(((Number) value).longValue());
@@ -114,12 +253,24 @@ public class PedidoService {
                     }
                 }
                 default -> {
-                    // Ignorar campos desconocidos
+                    // El estado se aplica al final; se ignoran campos desconocidos
                 }
             }
         });
         
-        Pedido saved = pedidoRepository.save(pedido);
+        // El estado va después del resto de campos para que las guardas vean el pedido ya modificado
+        if (destino != null && !destino.name().equals(estadoAnterior)) {
+            maquinaEstados.validarTransicion(estadoAnterior, destino, pedido.getRepartidorId());
+            pedido.setEstado(destino.name());
+            pedido.setCancelado(destino == EstadoPedido.CANCELADO);
+        }
+        
+        Pedido saved;
+        try {
+            saved = pedidoRepository.saveAndFlush(pedido);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw conflicto("El pedido " + id + " fue modificado por otra operación");
+        }
         
         // Publicar evento si cambió el estado
         if (!estadoAnterior.equals(saved.getEstado())) {
@@ -131,62 +282,81 @@ public class PedidoService {
     
     @Transactional
     public void cancelarPedido(Long id) {
+        int filas = pedidoRepository.cancelar(id, maquinaEstados.origenesHacia(EstadoPedido.CANCELADO));
         Pedido pedido = pedidoRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Pedido no encontrado"));
-        
-        pedido.setCancelado(true);
-        pedido.setEstado("CANCELADO");
-        Pedido saved = pedidoRepository.save(pedido);
+        if (filas == 0) {
+            throw conflicto("El pedido " + id + " no se puede cancelar en estado " + pedido.getEstado());
+        }
         
         // Publicar evento de cancelación
-        publicarEventoPedidoActualizado(saved);
+        publicarEventoPedidoActualizado(pedido);
     }
     
     /**
-     * Publica evento cuando se crea un pedido
+     * Cambio de estado con una sola sentencia condicional; el destino ya se validó en memoria
+     * y la base de datos garantiza que el estado actual sigue siendo un origen válido
      */
-    private void publicarEventoPedidoCreado(Pedido pedido) {
-        try {
-            PedidoEvent event = new PedidoEvent(
-                UUID.randomUUID().toString(),
-                pedido.getId(),
-                pedido.getClienteId(),
-                pedido.getEstado(),
-                pedido.getDireccionEntrega(),
-                pedido.getTarifa() != null ? pedido.getTarifa().doubleValue() : 0.0,
-                LocalDateTime.now().toString()
-            );
-            
-            rabbitTemplate.convertAndSend(pedidosExchange, pedidoCreadoKey, event);
-            log.info("✅ Evento publicado: pedido.creado - Pedido ID: {}", pedido.getId());
-            
-        } catch (Exception e) {
-            log.error("❌ Error al publicar evento pedido.creado", e);
-            // No lanzamos excepción para no afectar la transacción principal
+    private Pedido actualizarEstado(Long id, EstadoPedido destino, Long versionEsperada) {
+        int filas = pedidoRepository.actualizarEstado(id, destino.name(), destino == EstadoPedido.CANCELADO,
+                                                      maquinaEstados.origenesHacia(destino),
+                                                      destino.requiereRepartidor(), versionEsperada);
+        // Lectura por clave primaria para la respuesta y el evento (o para explicar el rechazo)
+        Pedido pedido = pedidoRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Pedido no encontrado"));
+        if (filas == 1) {
+            publicarEventoPedidoActualizado(pedido);
+            return pedido;
         }
+        
+        boolean mismaVersion = versionEsperada == null || versionEsperada.equals(pedido.getVersion());
+        if (destino.name().equals(pedido.getEstado()) && mismaVersion) {
+            return pedido; // Ya estaba en ese estado: no hay cambio ni evento
+        }
+        if (!mismaVersion) {
+            throw conflicto("El pedido " + id + " fue modificado por otra operación");
+        }
+        if (Boolean.TRUE.equals(pedido.getCancelado())) {
+            throw conflicto("No se puede actualizar un pedido cancelado");
+        }
+        maquinaEstados.validarTransicion(pedido.getEstado(), destino, pedido.getRepartidorId());
+        // La fila cambió entre el UPDATE y la lectura
+        throw conflicto("El pedido " + id + " fue modificado por otra operación");
+    }
+    
+    private static ResponseStatusException conflicto(String mensaje) {
+        return new ResponseStatusException(HttpStatus.CONFLICT, mensaje);
     }
     
     /**
-     * Publica evento cuando se actualiza el estado de un pedido
+     * Registra en el outbox el evento de pedido creado
+     */
+    private void publicarEventoPedidoCreado(Pedido pedido) {
+        outboxService.registrar(pedidoCreadoKey, crearEvento(pedido));
+        log.info("Evento pedido.creado registrado en outbox - Pedido ID: {}", pedido.getId());
+    }
+    
+    /**
+     * Registra en el outbox el evento de cambio de estado, con la routing key de la transición
      */
     private void publicarEventoPedidoActualizado(Pedido pedido) {
-        try {
-            PedidoEvent event = new PedidoEvent(
-                UUID.randomUUID().toString(),
-                pedido.getId(),
-                pedido.getClienteId(),
-                pedido.getEstado(),
-                pedido.getDireccionEntrega(),
-                pedido.getTarifa() != null ? pedido.getTarifa().doubleValue() : 0.0,
-                LocalDateTime.now().toString()
-            );
-            
-            rabbitTemplate.convertAndSend(pedidosExchange, pedidoActualizadoKey, event);
-            log.info("✅ Evento publicado: pedido.estado.actualizado - Pedido ID: {}, Nuevo Estado: {}", 
-                     pedido.getId(), pedido.getEstado());
-            
-        } catch (Exception e) {
-            log.error("❌ Error al publicar evento pedido.estado.actualizado", e);
-        }
+        String routingKey = maquinaEstados.routingKey(EstadoPedido.valueOf(pedido.getEstado()));
+        outboxService.registrar(routingKey, crearEvento(pedido));
+        log.info("Evento {} registrado en outbox - Pedido ID: {}, Nuevo Estado: {}", 
+                 routingKey, pedido.getId(), pedido.getEstado());
+    }
+    
+    static PedidoEvent crearEvento(Pedido pedido) {
+        return new PedidoEvent(
+            UUID.randomUUID().toString(),
+            pedido.getId(),
+            pedido.getClienteId(),
+            pedido.getEstado(),
+            pedido.getDireccionEntrega(),
+            pedido.getTarifa() != null ? pedido.getTarifa().doubleValue() : 0.0,
+            LocalDateTime.now().toString(),
+            pedido.getRepartidorId(),
+            pedido.getVersion()
+        );
     }
 }
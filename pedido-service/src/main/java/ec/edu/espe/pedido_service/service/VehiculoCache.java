@@ -0,0 +1,113 @@
+package ec.edu.espe.pedido_service.service;
+
+import ec.edu.espe.pedido_service.client.CircuitBreaker;
+import ec.edu.espe.pedido_service.client.FleetClient;
+import feign.FeignException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caché local de existencia de vehículos/repartidores en fleet-service.
+ * Las respuestas positivas y negativas ("no existe") se guardan con TTL corto, y las llamadas
+ * remotas pasan por un circuit breaker para fallar rápido si fleet-service está caído o lento.
+ * Con el circuito abierto se acepta una entrada positiva vencida antes que rechazar el pedido.
+ */
+@Component
+@Slf4j
+public class VehiculoCache {
+
+    private static final int FRACCION_DESALOJO = 10; // Al llenarse se libera 1/10 de la capacidad
+
+    private final FleetClient fleetClient;
+    private final CircuitBreaker circuitBreaker;
+    private final long ttlPositivoMs;
+    private final long ttlNegativoMs;
+    private final int maxEntradas;
+    private final Map<Long, Entrada> entradas = new ConcurrentHashMap<>();
+
+    public VehiculoCache(FleetClient fleetClient,
+                         @Value("${fleet.cache.ttl-positivo-ms:300000}") long ttlPositivoMs,
+                         @Value("${fleet.cache.ttl-negativo-ms:30000}") long ttlNegativoMs,
+                         @Value("${fleet.cache.max-entradas:10000}") int maxEntradas,
+                         @Value("${fleet.circuit-breaker.umbral-fallos:5}") int umbralFallos,
+                         @Value("${fleet.circuit-breaker.duracion-abierto-ms:30000}") long duracionAbiertoMs) {
+        this.fleetClient = fleetClient;
+        this.ttlPositivoMs = ttlPositivoMs;
+        this.ttlNegativoMs = ttlNegativoMs;
+        this.maxEntradas = maxEntradas;
+        this.circuitBreaker = new CircuitBreaker(umbralFallos, duracionAbiertoMs);
+    }
+
+    /**
+     * Verifica que el repartidor exista en fleet-service; lanza excepción si no existe
+     * o si no es posible comprobarlo
+     */
+    public void validarRepartidor(Long repartidorId) {
+        long ahora = System.currentTimeMillis();
+        Entrada entrada = entradas.get(repartidorId);
+        if (entrada != null && entrada.expiraEn > ahora) {
+            if (!entrada.existe) {
+                throw new RuntimeException("El repartidor con ID " + repartidorId + " no existe.");
+            }
+            return;
+        }
+
+        if (!circuitBreaker.permitirLlamada()) {
+            if (entrada != null && entrada.existe) {
+                log.warn("Servicio de flota no disponible, se usa validación en caché vencida para repartidor {}", repartidorId);
+                return;
+            }
+            throw new RuntimeException("Servicio de flota no disponible temporalmente.");
+        }
+
+        try {
+            fleetClient.obtenerVehiculo(repartidorId);
+            circuitBreaker.registrarExito();
+            guardar(repartidorId, true, ahora + ttlPositivoMs);
+        } catch (FeignException.NotFound e) {
+            circuitBreaker.registrarExito();
+            guardar(repartidorId, false, ahora + ttlNegativoMs);
+            throw new RuntimeException("El repartidor con ID " + repartidorId + " no existe.");
+        } catch (Exception e) {
+            circuitBreaker.registrarFallo();
+            if (entrada != null && entrada.existe) {
+                log.warn("Error consultando fleet-service, se usa validación en caché vencida para repartidor {}", repartidorId);
+                return;
+            }
+            throw new RuntimeException("Error al conectar con el servicio de flota.");
+        }
+    }
+
+    private void guardar(Long repartidorId, boolean existe, long expiraEn) {
+        if (entradas.size() >= maxEntradas && !entradas.containsKey(repartidorId)) {
+            liberarEspacio();
+        }
+        entradas.put(repartidorId, new Entrada(existe, expiraEn));
+    }
+
+    /**
+     * Descarta las entradas vencidas y, si no alcanza, las que vencen antes,
+     * hasta dejar libre una fracción de la capacidad (el resto de la caché sigue vigente)
+     */
+    private void liberarEspacio() {
+        long ahora = System.currentTimeMillis();
+        entradas.values().removeIf(entrada -> entrada.expiraEn <= ahora);
+        int sobrantes = entradas.size() - maxEntradas + Math.max(1, maxEntradas / FRACCION_DESALOJO);
+        if (sobrantes > 0) {
+            entradas.entrySet().stream()
+                    .sorted(Map.Entry.comparingByValue(Comparator.comparingLong(Entrada::expiraEn)))
+                    .limit(sobrantes)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(entradas::remove);
+        }
+    }
+
+    private record Entrada(boolean existe, long expiraEn) {
+    }
+}
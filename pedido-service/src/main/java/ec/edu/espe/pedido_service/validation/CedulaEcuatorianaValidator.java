@@ -3,59 +3,59 @@ package ec.edu.espe.pedido_service.validation;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 
+/**
+ * Valida la cédula directamente sobre el valor numérico (sin convertirla a texto),
+ * para que no genere basura en las validaciones masivas.
+ */
 public class CedulaEcuatorianaValidator implements ConstraintValidator<CedulaEcuatoriana, Long> {
 
+    private static final long MINIMO_DIEZ_DIGITOS = 1_000_000_000L;
+    private static final long MAXIMO_DIEZ_DIGITOS = 9_999_999_999L;
+
     @Override
     public boolean isValid(Long cedula, ConstraintValidatorContext context) {
-        if (cedula == null) {
+        return cedula != null && esValida(cedula);
+    }
+
+    public static boolean esValida(long cedula) {
+        // La cédula debe tener 10 dígitos
+        if (cedula < MINIMO_DIEZ_DIGITOS || cedula > MAXIMO_DIEZ_DIGITOS) {
             return false;
         }
         
-        String cedulaStr = String.valueOf(cedula);
+        // Los dos primeros dígitos deben corresponder a una provincia válida (01-24)
+        long provincia = cedula / 100_000_000L;
+        if (provincia > 24) {
+            return false;
+        }
         
-        // La cédula debe tener 10 dígitos
-        if (cedulaStr.length() != 10) {
+        // El tercer dígito debe ser menor a 6 (0-5)
+        if ((cedula / 10_000_000L) % 10 > 5) {
             return false;
         }
         
-        try {
-            // Los dos primeros dígitos deben corresponder a una provincia válida (01-24)
-            int provincia = Integer.parseInt(cedulaStr.substring(0, 2));
-            if (provincia < 1 || provincia > 24) {
-                return false;
-            }
+        // Algoritmo de validación de cédula ecuatoriana (módulo 10), recorriendo los
+        // nueve primeros dígitos de derecha a izquierda: coeficiente 2 en las posiciones impares
+        int digitoVerificador = (int) (cedula % 10);
+        long resto = cedula / 10;
+        int suma = 0;
+        for (int posicion = 9; posicion >= 1; posicion--) {
+            int digito = (int) (resto % 10);
+            resto /= 10;
+            int producto = (posicion & 1) == 1 ? digito * 2 : digito;
             
-            // El tercer dígito debe ser menor a 6 (0-5)
-            int tercerDigito = Integer.parseInt(cedulaStr.substring(2, 3));
-            if (tercerDigito > 5) {
-                return false;
+            // Si el producto es mayor a 9, se suma sus dígitos
+            if (producto >= 10) {
+                producto -= 9;
             }
             
-            // Algoritmo de validación de cédula ecuatoriana (módulo 10)
-            int[] coeficientes = {2, 1, 2, 1, 2, 1, 2, 1, 2};
-            int suma = 0;
-            int digitoVerificador = Integer.parseInt(cedulaStr.substring(9, 10));
-            
-            for (int i = 0; i < 9; i++) {
-                int digito = Integer.parseInt(cedulaStr.substring(i, i + 1));
-                int producto = digito * coeficientes[i];
-                
-                // Si el producto es mayor a 9, se suma sus dígitos
-                if (producto >= 10) {
-                    producto = producto - 9;
-                }
-                
-                suma += producto;
-            }
-            
-            // Calcular el dígito verificador esperado
-            int residuo = suma % 10;
-            int verificadorCalculado = (residuo == 0) ? 0 : 10 - residuo;
-            
-            return verificadorCalculado == digitoVerificador;
-            
-        } catch (NumberFormatException e) {
-            return false;
+            suma += producto;
         }
+        
+        // Calcular el dígito verificador esperado
+        int residuo = suma % 10;
+        int verificadorCalculado = (residuo == 0) ? 0 : 10 - residuo;
+        
+        return verificadorCalculado == digitoVerificador;
     }
 }
@@ -0,0 +1,173 @@
+package ec.edu.espe.pedido_service.asignacion;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Asignación de costo mínimo contra casos conocidos y contra fuerza bruta en matrices pequeñas
+ */
+class AlgoritmoHungaroTest {
+
+    private static final double TOLERANCIA = 1e-9;
+
+    @Test
+    void matrizCuadrada() {
+        double[][] costos = {
+            {4, 1, 3},
+            {2, 0, 5},
+            {3, 2, 2}
+        };
+
+        int[] asignacion = AlgoritmoHungaro.resolver(costos);
+
+        assertArrayEquals(new int[] {1, 0, 2}, asignacion);
+        assertEquals(5, costoTotal(costos, asignacion), TOLERANCIA);
+    }
+
+    @Test
+    void masColumnasQueFilas() {
+        double[][] costos = {
+            {9, 2, 7, 8},
+            {6, 4, 3, 7}
+        };
+
+        int[] asignacion = AlgoritmoHungaro.resolver(costos);
+
+        assertArrayEquals(new int[] {1, 2}, asignacion);
+        assertEquals(5, costoTotal(costos, asignacion), TOLERANCIA);
+    }
+
+    @Test
+    void masFilasQueColumnas() {
+        double[][] costos = {
+            {9, 6},
+            {2, 4},
+            {7, 3},
+            {8, 7}
+        };
+
+        int[] asignacion = AlgoritmoHungaro.resolver(costos);
+
+        // Solo dos filas reciben columna; las demás quedan en -1
+        assertArrayEquals(new int[] {-1, 0, 1, -1}, asignacion);
+        assertEquals(5, costoTotal(costos, asignacion), TOLERANCIA);
+    }
+
+    @Test
+    void empatesProducenUnaAsignacionValidaYOptima() {
+        double[][] todosIguales = {
+            {3, 3, 3},
+            {3, 3, 3},
+            {3, 3, 3}
+        };
+        double[][] dosOptimos = {
+            {1, 2},
+            {2, 1},
+            {1, 1}
+        };
+
+        int[] iguales = AlgoritmoHungaro.resolver(todosIguales);
+        int[] optimos = AlgoritmoHungaro.resolver(dosOptimos);
+
+        assertValida(todosIguales, iguales);
+        assertEquals(9, costoTotal(todosIguales, iguales), TOLERANCIA);
+        assertValida(dosOptimos, optimos);
+        assertEquals(2, costoTotal(dosOptimos, optimos), TOLERANCIA);
+    }
+
+    @Test
+    void paresProhibidosQuedanSinAsignar() {
+        double p = AlgoritmoHungaro.COSTO_PROHIBIDO;
+        double[][] costos = {
+            {p, p, p},
+            {5, 1, p},
+            {2, p, p}
+        };
+
+        // Se maximizan los pares válidos aunque cuesten más: fila 1 toma la columna 1 y fila 2 la 0
+        assertArrayEquals(new int[] {-1, 1, 0}, AlgoritmoHungaro.resolver(costos));
+    }
+
+    @Test
+    void matricesVacias() {
+        assertArrayEquals(new int[0], AlgoritmoHungaro.resolver(new double[0][0]));
+        assertArrayEquals(new int[] {-1, -1}, AlgoritmoHungaro.resolver(new double[2][0]));
+    }
+
+    @Test
+    void equivalenteAFuerzaBruta() {
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            int filas = 1 + random.nextInt(6);
+            int columnas = 1 + random.nextInt(6);
+            // Costos enteros pequeños en la mitad de los casos para forzar empates
+            int rango = random.nextBoolean() ? 3 : 1000;
+            double[][] costos = new double[filas][columnas];
+            for (double[] fila : costos) {
+                for (int j = 0; j < columnas; j++) {
+                    fila[j] = random.nextInt(rango);
+                }
+            }
+
+            int[] asignacion = AlgoritmoHungaro.resolver(costos);
+
+            assertValida(costos, asignacion);
+            assertEquals(optimoFuerzaBruta(costos, 0, new boolean[columnas], filas - Math.min(filas, columnas)),
+                    costoTotal(costos, asignacion), TOLERANCIA);
+        }
+    }
+
+    /**
+     * Columnas distintas y tantos pares como el lado menor de la matriz
+     */
+    private static void assertValida(double[][] costos, int[] asignacion) {
+        Set<Integer> columnas = new HashSet<>();
+        int pares = 0;
+        for (int columna : asignacion) {
+            if (columna >= 0) {
+                assertTrue(columnas.add(columna), "Columna asignada dos veces: " + columna);
+                pares++;
+            }
+        }
+        assertEquals(Math.min(costos.length, costos[0].length), pares);
+    }
+
+    private static double costoTotal(double[][] costos, int[] asignacion) {
+        double total = 0;
+        for (int fila = 0; fila < asignacion.length; fila++) {
+            if (asignacion[fila] >= 0) {
+                total += costos[fila][asignacion[fila]];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Costo mínimo probando toda asignación; cada fila toma una columna libre o, si aún se
+     * permiten filas sin asignar (más filas que columnas), ninguna
+     */
+    private static double optimoFuerzaBruta(double[][] costos, int fila, boolean[] usadas, int saltosRestantes) {
+        if (fila == costos.length) {
+            return 0;
+        }
+        double mejor = Double.POSITIVE_INFINITY;
+        if (saltosRestantes > 0) {
+            mejor = optimoFuerzaBruta(costos, fila + 1, usadas, saltosRestantes - 1);
+        }
+        for (int columna = 0; columna < usadas.length; columna++) {
+            if (!usadas[columna]) {
+                usadas[columna] = true;
+                mejor = Math.min(mejor, costos[fila][columna] + optimoFuerzaBruta(costos, fila + 1, usadas, saltosRestantes));
+                usadas[columna] = false;
+            }
+        }
+        return mejor;
+    }
+}
@@ -0,0 +1,135 @@
+package ec.edu.espe.pedido_service.service;
+
+import ec.edu.espe.pedido_service.model.EstadoPedido;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static ec.edu.espe.pedido_service.model.EstadoPedido.ASIGNADO;
+import static ec.edu.espe.pedido_service.model.EstadoPedido.CANCELADO;
+import static ec.edu.espe.pedido_service.model.EstadoPedido.EN_CAMINO;
+import static ec.edu.espe.pedido_service.model.EstadoPedido.EN_ENTREGA;
+import static ec.edu.espe.pedido_service.model.EstadoPedido.ENTREGADO;
+import static ec.edu.espe.pedido_service.model.EstadoPedido.PENDIENTE;
+import static ec.edu.espe.pedido_service.model.EstadoPedido.RECIBIDO;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tabla de transiciones de los pedidos, sus guardas, los errores 400/409 y las routing keys
+ */
+class MaquinaEstadosPedidoTest {
+
+    private static final Long REPARTIDOR = 7L;
+
+    // Transiciones esperadas; cualquier par ausente debe rechazarse
+    private static final Map<EstadoPedido, Set<EstadoPedido>> PERMITIDAS = new EnumMap<>(Map.of(
+            RECIBIDO, EnumSet.of(PENDIENTE, ASIGNADO, CANCELADO),
+            PENDIENTE, EnumSet.of(ASIGNADO, CANCELADO),
+            ASIGNADO, EnumSet.of(PENDIENTE, EN_CAMINO, CANCELADO),
+            EN_CAMINO, EnumSet.of(EN_ENTREGA, ENTREGADO, CANCELADO),
+            EN_ENTREGA, EnumSet.of(ENTREGADO, CANCELADO),
+            ENTREGADO, EnumSet.noneOf(EstadoPedido.class),
+            CANCELADO, EnumSet.noneOf(EstadoPedido.class)));
+
+    private final MaquinaEstadosPedido maquina = new MaquinaEstadosPedido("pedido.estado");
+
+    @Test
+    void transicionesPermitidasYRechazadas() {
+        for (EstadoPedido origen : EstadoPedido.values()) {
+            for (EstadoPedido destino : EstadoPedido.values()) {
+                boolean permitida = PERMITIDAS.get(origen).contains(destino);
+                String caso = origen + " -> " + destino;
+                assertEquals(permitida, origen.puedePasarA(destino), caso);
+                if (permitida) {
+                    assertDoesNotThrow(() -> maquina.validarTransicion(origen.name(), destino, REPARTIDOR), caso);
+                } else {
+                    assertStatus(HttpStatus.CONFLICT,
+                            () -> maquina.validarTransicion(origen.name(), destino, REPARTIDOR), caso);
+                }
+            }
+        }
+    }
+
+    @Test
+    void estadoActualDesconocidoSeRechaza() {
+        assertStatus(HttpStatus.CONFLICT, () -> maquina.validarTransicion("EXTRAVIADO", CANCELADO, REPARTIDOR), "EXTRAVIADO");
+        assertStatus(HttpStatus.CONFLICT, () -> maquina.validarTransicion(null, CANCELADO, REPARTIDOR), "null");
+    }
+
+    @Test
+    void estadosFinales() {
+        for (EstadoPedido estado : EstadoPedido.values()) {
+            assertEquals(PERMITIDAS.get(estado).isEmpty(), estado.esFinal(), estado.name());
+        }
+    }
+
+    @Test
+    void origenesHaciaCadaDestino() {
+        for (EstadoPedido destino : EstadoPedido.values()) {
+            List<String> esperados = Arrays.stream(EstadoPedido.values())
+                    .filter(origen -> PERMITIDAS.get(origen).contains(destino))
+                    .map(Enum::name)
+                    .toList();
+            assertEquals(esperados, EstadoPedido.origenesHacia(destino), destino.name());
+            assertEquals(esperados, maquina.origenesHacia(destino), destino.name());
+        }
+        assertEquals(List.of(), maquina.origenesHacia(RECIBIDO));
+        assertEquals(List.of("RECIBIDO", "PENDIENTE", "ASIGNADO", "EN_CAMINO", "EN_ENTREGA"),
+                maquina.origenesHacia(CANCELADO));
+    }
+
+    @Test
+    void guardaDeRepartidor() {
+        Set<EstadoPedido> conRepartidor = EnumSet.of(ASIGNADO, EN_CAMINO, EN_ENTREGA, ENTREGADO);
+        for (EstadoPedido destino : EstadoPedido.values()) {
+            assertEquals(conRepartidor.contains(destino), destino.requiereRepartidor(), destino.name());
+        }
+        for (EstadoPedido origen : EstadoPedido.values()) {
+            for (EstadoPedido destino : PERMITIDAS.get(origen)) {
+                String caso = origen + " -> " + destino + " sin repartidor";
+                if (destino.requiereRepartidor()) {
+                    assertStatus(HttpStatus.CONFLICT, () -> maquina.validarTransicion(origen.name(), destino, null), caso);
+                } else {
+                    assertDoesNotThrow(() -> maquina.validarTransicion(origen.name(), destino, null), caso);
+                }
+            }
+        }
+    }
+
+    @Test
+    void destinoSolicitado() {
+        for (EstadoPedido estado : EstadoPedido.values()) {
+            if (estado != RECIBIDO) {
+                assertEquals(estado, maquina.destino(estado.name()));
+            }
+        }
+        // Ninguna transición lleva a RECIBIDO
+        assertStatus(HttpStatus.CONFLICT, () -> maquina.destino("RECIBIDO"), "RECIBIDO");
+
+        Object[] desconocidos = {null, "", "en_camino", "EXTRAVIADO", 3};
+        for (Object valor : desconocidos) {
+            assertStatus(HttpStatus.BAD_REQUEST, () -> maquina.destino(valor), String.valueOf(valor));
+        }
+    }
+
+    @Test
+    void routingKeyPorDestino() {
+        assertEquals("pedido.estado.en_camino", maquina.routingKey(EN_CAMINO));
+        assertEquals("pedido.estado.en_entrega", maquina.routingKey(EN_ENTREGA));
+        assertEquals("pedido.estado.cancelado", maquina.routingKey(CANCELADO));
+    }
+
+    private static void assertStatus(HttpStatus esperado, Runnable accion, String caso) {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, accion::run, caso);
+        assertEquals(esperado, e.getStatusCode(), caso);
+    }
+}
@@ -0,0 +1,113 @@
+package ec.edu.espe.pedido_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ec.edu.espe.pedido_service.model.OutboxEvento;
+import ec.edu.espe.pedido_service.repository.OutboxEventoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.ConnectException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Relay del outbox: un evento que no se puede publicar no bloquea a los siguientes
+ * y queda apartado al agotar los intentos; una caída del broker no cuenta como intento
+ */
+class OutboxServiceTest {
+
+    private static final int MAXIMO_INTENTOS = 3;
+
+    private final OutboxEventoRepository repository = mock(OutboxEventoRepository.class);
+    private final RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+    private final RabbitOperations operations = mock(RabbitOperations.class);
+    private final List<Long> enviados = new ArrayList<>();
+    private final List<OutboxEvento> pendientes = new ArrayList<>();
+    private OutboxService outboxService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void configurar() {
+        outboxService = new OutboxService(repository, rabbitTemplate, new ObjectMapper(),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), "pedidos.exchange", 10, 1000, 24, MAXIMO_INTENTOS);
+        when(rabbitTemplate.invoke(any(RabbitOperations.OperationsCallback.class)))
+                .thenAnswer(invocacion -> ((RabbitOperations.OperationsCallback<Object>) invocacion.getArgument(0)).doInRabbit(operations));
+        when(repository.findByEnviadoEnIsNullAndFallidoEnIsNullOrderByIdAsc(any(Limit.class)))
+                .thenAnswer(invocacion -> pendientes.stream()
+                        .filter(evento -> evento.getEnviadoEn() == null && evento.getFallidoEn() == null)
+                        .toList());
+        when(repository.marcarEnviados(anyList(), any(LocalDateTime.class))).thenAnswer(invocacion -> {
+            List<Long> ids = invocacion.getArgument(0);
+            enviados.addAll(ids);
+            pendientes.stream().filter(evento -> ids.contains(evento.getId()))
+                    .forEach(evento -> evento.setEnviadoEn(LocalDateTime.now()));
+            return ids.size();
+        });
+    }
+
+    @Test
+    void eventoIlegibleNoBloqueaYQuedaApartado() {
+        pendientes.add(evento(1L, "{\"eventId\":\"a\"}"));
+        OutboxEvento ilegible = evento(2L, "{no es json");
+        pendientes.add(ilegible);
+        pendientes.add(evento(3L, "{\"eventId\":\"c\"}"));
+
+        outboxService.publicarPendientes();
+
+        assertEquals(List.of(1L, 3L), enviados);
+        assertEquals(1, ilegible.getIntentos());
+        assertNull(ilegible.getFallidoEn());
+        assertNotNull(ilegible.getErrorDetalle());
+
+        for (int i = 1; i < MAXIMO_INTENTOS; i++) {
+            outboxService.publicarPendientes();
+        }
+
+        assertEquals(MAXIMO_INTENTOS, ilegible.getIntentos());
+        assertNotNull(ilegible.getFallidoEn());
+        assertEquals(List.of(1L, 3L), enviados);
+    }
+
+    @Test
+    void brokerCaidoNoSumaIntentos() {
+        OutboxEvento pendiente = evento(1L, "{\"eventId\":\"a\"}");
+        pendientes.add(pendiente);
+        when(rabbitTemplate.invoke(any(RabbitOperations.OperationsCallback.class)))
+                .thenThrow(new AmqpConnectException(new ConnectException("Connection refused")));
+
+        for (int i = 0; i < MAXIMO_INTENTOS + 1; i++) {
+            outboxService.publicarPendientes();
+        }
+
+        assertEquals(0, pendiente.getIntentos());
+        assertNull(pendiente.getFallidoEn());
+        verify(repository, never()).save(any());
+    }
+
+    private static OutboxEvento evento(Long id, String payload) {
+        OutboxEvento evento = new OutboxEvento();
+        evento.setId(id);
+        evento.setEventId("evt-" + id);
+        evento.setRoutingKey("pedido.creado");
+        evento.setPayload(payload);
+        evento.setFechaCreacion(LocalDateTime.now());
+        return evento;
+    }
+}
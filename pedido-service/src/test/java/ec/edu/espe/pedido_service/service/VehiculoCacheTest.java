@@ -0,0 +1,40 @@
+package ec.edu.espe.pedido_service.service;
+
+import ec.edu.espe.pedido_service.client.FleetClient;
+import org.junit.jupiter.api.Test;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Desalojo acotado de la caché de vehículos al llenarse
+ */
+class VehiculoCacheTest {
+
+    private final FleetClient fleetClient = mock(FleetClient.class);
+
+    @Test
+    void alLlenarseSoloSeDescartanLasQueVencenAntes() throws InterruptedException {
+        VehiculoCache cache = new VehiculoCache(fleetClient, 60_000, 60_000, 10, 5, 30_000);
+        for (long id = 1; id <= 10; id++) {
+            cache.validarRepartidor(id);
+            Thread.sleep(2); // Vencimientos distintos: el repartidor 1 vence primero
+        }
+
+        cache.validarRepartidor(11L);
+        clearInvocations(fleetClient);
+
+        // Solo se libera una décima parte: el resto sigue respondiéndose desde caché
+        for (long id = 2; id <= 11; id++) {
+            cache.validarRepartidor(id);
+        }
+        verify(fleetClient, never()).obtenerVehiculo(anyLong());
+
+        cache.validarRepartidor(1L);
+        verify(fleetClient, times(1)).obtenerVehiculo(1L);
+    }
+}
@@ -0,0 +1,71 @@
+package ec.edu.espe.pedido_service.validation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Equivalencia entre el validador aritmético y la implementación original basada en String
+ */
+class CedulaEcuatorianaValidatorTest {
+
+    private final CedulaEcuatorianaValidator validator = new CedulaEcuatorianaValidator();
+
+    @Test
+    void cedulasConocidas() {
+        assertTrue(validator.isValid(1710034065L, null));
+        assertFalse(validator.isValid(1710034066L, null));
+        assertFalse(validator.isValid(null, null));
+    }
+
+    @Test
+    void equivalenteEnCasosLimite() {
+        long[] casos = {
+            Long.MIN_VALUE, -9_999_999_999L, -1_710_034_065L, -123_456_789L, -1L, 0L, 1L,
+            999_999_999L, 1_000_000_000L, 2_499_999_999L, 2_500_000_000L, 9_999_999_999L,
+            10_000_000_000L, 17_100_340_650L, Long.MAX_VALUE
+        };
+        for (long cedula : casos) {
+            assertEquivalente(cedula);
+        }
+    }
+
+    @Test
+    void equivalenteEnTodosLosPrefijosYVerificadores() {
+        // Todas las combinaciones de provincia (00-99) y tercer dígito, con cuerpos aleatorios
+        // y los diez dígitos verificadores posibles (exactamente uno es válido en cada cuerpo)
+        Random random = new Random(42);
+        for (int prefijo = 0; prefijo < 1000; prefijo++) {
+            for (int muestra = 0; muestra < 20; muestra++) {
+                long cuerpo = prefijo * 1_000_000L + random.nextInt(1_000_000);
+                for (int verificador = 0; verificador < 10; verificador++) {
+                    assertEquivalente(cuerpo * 10 + verificador);
+                }
+            }
+        }
+    }
+
+    @Test
+    void equivalenteEnUnRangoContiguo() {
+        for (long cedula = 1_709_500_000L; cedula < 1_710_500_000L; cedula++) {
+            assertEquivalente(cedula);
+        }
+    }
+
+    @Test
+    void equivalenteEnValoresAleatorios() {
+        Random random = new Random(7);
+        for (int i = 0; i < 1_000_000; i++) {
+            assertEquivalente(random.nextLong(-20_000_000_000L, 20_000_000_000L));
+        }
+    }
+
+    private void assertEquivalente(long cedula) {
+        assertEquals(CedulaEcuatorianaValidatorOriginal.esValida(cedula), validator.isValid(cedula, null),
+                     "Resultado distinto para " + cedula);
+    }
+}
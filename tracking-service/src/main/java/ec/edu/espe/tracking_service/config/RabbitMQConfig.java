@@ -21,6 +21,21 @@ public class RabbitMQConfig {
     @Value("${rabbitmq.routing-keys.ubicacion}")
     private String ubicacionRoutingKey;
     
+    @Value("${rabbitmq.exchanges.pedidos}")
+    private String pedidosExchange;
+    
+    @Value("${rabbitmq.queues.pedido-actualizado}")
+    private String pedidoActualizadoQueue;
+    
+    @Value("${rabbitmq.routing-keys.pedido-entregado}")
+    private String pedidoEntregadoKey;
+    
+    @Value("${rabbitmq.routing-keys.pedido-cancelado}")
+    private String pedidoCanceladoKey;
+    
+    @Value("${rabbitmq.formato-ubicacion:json}")
+    private String formatoUbicacion;
+    
     // Exchange para eventos de tracking
     @Bean
     public TopicExchange trackingExchange() {
@@ -45,10 +60,40 @@ public class RabbitMQConfig {
                 .with(ubicacionRoutingKey);
     }
     
-    // Conversor JSON para mensajes
+    // Exchange de pedidos (para precalcular trayectorias de pedidos cerrados)
+    @Bean
+    public TopicExchange pedidosExchange() {
+        return new TopicExchange(pedidosExchange);
+    }
+    
+    @Bean
+    public Queue pedidoActualizadoQueue() {
+        return new Queue(pedidoActualizadoQueue, true);
+    }
+    
+    // Solo llegan a la cola los pedidos que se cierran
+    @Bean
+    public Binding pedidoEntregadoBinding() {
+        return BindingBuilder
+                .bind(pedidoActualizadoQueue())
+                .to(pedidosExchange())
+                .with(pedidoEntregadoKey);
+    }
+    
+    @Bean
+    public Binding pedidoCanceladoBinding() {
+        return BindingBuilder
+                .bind(pedidoActualizadoQueue())
+                .to(pedidosExchange())
+                .with(pedidoCanceladoKey);
+    }
+    
+    // Conversor de mensajes: JSON, o binario compacto para UbicacionEvent si así se configura.
+    // En ambos casos se aceptan mensajes entrantes JSON.
     @Bean
     public MessageConverter jsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
+        Jackson2JsonMessageConverter json = new Jackson2JsonMessageConverter();
+        return "binario".equalsIgnoreCase(formatoUbicacion) ? new UbicacionBinaryMessageConverter(json) : json;
     }
     
     // RabbitTemplate configurado
@@ -0,0 +1,42 @@
+package ec.edu.espe.tracking_service.controller;
+
+import ec.edu.espe.tracking_service.dto.GeocercaRequest;
+import ec.edu.espe.tracking_service.model.Geocerca;
+import ec.edu.espe.tracking_service.service.GeocercaService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/tracking/geocercas")
+@RequiredArgsConstructor
+@Tag(name = "Geocercas", description = "Geocercas de entrega por pedido (eventos de entrada/salida del repartidor)")
+public class GeocercaController {
+    
+    private final GeocercaService geocercaService;
+    
+    @PostMapping
+    @Operation(summary = "Registrar geocerca", 
+               description = "Registra o reemplaza la geocerca (círculo o polígono) del punto de entrega de un pedido")
+    public ResponseEntity<Geocerca> registrarGeocerca(@Valid @RequestBody GeocercaRequest request) {
+        Geocerca geocerca = geocercaService.registrar(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(geocerca);
+    }
+    
+    @GetMapping("/{pedidoId}")
+    @Operation(summary = "Obtener geocerca", description = "Devuelve la geocerca registrada para un pedido")
+    public ResponseEntity<Geocerca> obtenerGeocerca(@PathVariable Long pedidoId) {
+        return ResponseEntity.ok(geocercaService.obtener(pedidoId));
+    }
+    
+    @DeleteMapping("/{pedidoId}")
+    @Operation(summary = "Eliminar geocerca", description = "Elimina la geocerca de un pedido")
+    public ResponseEntity<Void> eliminarGeocerca(@PathVariable Long pedidoId) {
+        geocercaService.eliminar(pedidoId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,19 +1,38 @@
 package ec.edu.espe.tracking_service.controller;
 
+import ec.edu.espe.tracking_service.dto.EtaResponse;
+import ec.edu.espe.tracking_service.dto.RepartidorCercano;
+import ec.edu.espe.tracking_service.dto.TrayectoriaResponse;
 import ec.edu.espe.tracking_service.dto.UbicacionRequest;
 import ec.edu.espe.tracking_service.model.Ubicacion;
+import ec.edu.espe.tracking_service.model.UbicacionMinuto;
+import ec.edu.espe.tracking_service.service.ExportacionUbicacionesService;
 import ec.edu.espe.tracking_service.service.TrackingService;
+import ec.edu.espe.tracking_service.service.TrayectoriaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/tracking")
@@ -22,6 +41,8 @@ import java.util.List;
 public class TrackingController {
     
     private final TrackingService trackingService;
+    private final TrayectoriaService trayectoriaService;
+    private final ExportacionUbicacionesService exportacionUbicacionesService;
     
     @PostMapping
     @Operation(summary = "Registrar ubicación GPS", 
@@ -31,6 +52,18 @@ public class TrackingController {
         return ResponseEntity.status(HttpStatus.CREATED).body(ubicacion);
     }
     
+    @PostMapping("/batch")
+    @Operation(summary = "Registrar lote de ubicaciones GPS", 
+               description = "Registra varias ubicaciones en una sola transacción (inserts por lotes) y publica sus eventos en RabbitMQ")
+    public ResponseEntity<List<Ubicacion>> registrarUbicaciones(
+            @RequestBody
+            @NotEmpty(message = "El lote debe contener al menos una ubicación")
+            @Size(max = 500, message = "El lote no puede superar las 500 ubicaciones")
+            List<@Valid UbicacionRequest> requests) {
+        List<Ubicacion> ubicaciones = trackingService.registrarUbicaciones(requests);
+        return ResponseEntity.status(HttpStatus.CREATED).body(ubicaciones);
+    }
+    
     @GetMapping("/repartidor/{repartidorId}/ultima")
     @Operation(summary = "Obtener última ubicación", 
                description = "Devuelve la última ubicación registrada de un repartidor")
@@ -47,6 +80,48 @@ public class TrackingController {
         return ResponseEntity.ok(ubicaciones);
     }
     
+    @GetMapping("/repartidor/{repartidorId}/historico/export")
+    @Operation(summary = "Exportar histórico de ubicaciones", 
+               description = "Transmite el histórico completo de un repartidor como NDJSON (application/x-ndjson) o CSV, " +
+                             "sin cargarlo completo en memoria")
+    public ResponseEntity<StreamingResponseBody> exportarHistorico(
+            @PathVariable Long repartidorId,
+            @RequestParam(defaultValue = "ndjson") @Pattern(regexp = "ndjson|csv") String formato) {
+        return respuestaExportacion(exportacionUbicacionesService.exportarHistorico(repartidorId, formato),
+                                    formato, "repartidor-" + repartidorId);
+    }
+    
+    @GetMapping("/repartidor/{repartidorId}/trayectoria")
+    @Operation(summary = "Obtener trayectoria simplificada", 
+               description = "Devuelve la ruta del repartidor simplificada (Douglas-Peucker, tolerancia en metros) " +
+                             "como polilínea codificada. Por defecto cubre las últimas 24 horas")
+    public ResponseEntity<TrayectoriaResponse> obtenerTrayectoria(
+            @PathVariable Long repartidorId,
+            @RequestParam(required = false) @DecimalMin("0.0") Double tolerancia,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin) {
+        LocalDateTime hasta = fin != null ? fin : LocalDateTime.now();
+        LocalDateTime desde = inicio != null ? inicio : hasta.minusHours(24);
+        return ResponseEntity.ok(trayectoriaService.trayectoriaRepartidor(repartidorId, desde, hasta, tolerancia));
+    }
+    
+    @GetMapping("/pedido/{pedidoId}/trayectoria")
+    @Operation(summary = "Obtener trayectoria simplificada de un pedido", 
+               description = "Devuelve la ruta del pedido como polilínea codificada; los pedidos cerrados se sirven precalculados")
+    public ResponseEntity<TrayectoriaResponse> obtenerTrayectoriaPedido(
+            @PathVariable Long pedidoId,
+            @RequestParam(required = false) @DecimalMin("0.0") Double tolerancia) {
+        return ResponseEntity.ok(trayectoriaService.trayectoriaPedido(pedidoId, tolerancia));
+    }
+    
+    @GetMapping("/pedido/{pedidoId}/eta")
+    @Operation(summary = "Obtener tiempo estimado de llegada", 
+               description = "Devuelve el ETA del pedido hacia el punto de entrega de su geocerca, " +
+                             "según la última ubicación y la velocidad promedio reciente del repartidor")
+    public ResponseEntity<EtaResponse> obtenerEta(@PathVariable Long pedidoId) {
+        return ResponseEntity.ok(trackingService.obtenerEta(pedidoId));
+    }
+    
     @GetMapping("/pedido/{pedidoId}")
     @Operation(summary = "Obtener ubicaciones por pedido", 
                description = "Devuelve las ubicaciones del repartidor asociadas a un pedido específico")
@@ -55,6 +130,16 @@ public class TrackingController {
         return ResponseEntity.ok(ubicaciones);
     }
     
+    @GetMapping("/pedido/{pedidoId}/export")
+    @Operation(summary = "Exportar ubicaciones por pedido", 
+               description = "Transmite las ubicaciones de un pedido como NDJSON (application/x-ndjson) o CSV")
+    public ResponseEntity<StreamingResponseBody> exportarPorPedido(
+            @PathVariable Long pedidoId,
+            @RequestParam(defaultValue = "ndjson") @Pattern(regexp = "ndjson|csv") String formato) {
+        return respuestaExportacion(exportacionUbicacionesService.exportarPorPedido(pedidoId, formato),
+                                    formato, "pedido-" + pedidoId);
+    }
+    
     @GetMapping("/activos")
     @Operation(summary = "Obtener repartidores activos", 
                description = "Devuelve las últimas ubicaciones de todos los repartidores activos (últimos 30 min)")
@@ -63,6 +148,18 @@ public class TrackingController {
         return ResponseEntity.ok(ubicaciones);
     }
     
+    @GetMapping("/cercanos")
+    @Operation(summary = "Obtener repartidores cercanos", 
+               description = "Devuelve los repartidores activos más cercanos a un punto, ordenados por distancia")
+    public ResponseEntity<List<RepartidorCercano>> obtenerCercanos(
+            @RequestParam @DecimalMin("-90.0") @DecimalMax("90.0") Double lat,
+            @RequestParam @DecimalMin("-180.0") @DecimalMax("180.0") Double lng,
+            @RequestParam(defaultValue = "5") @DecimalMin(value = "0.0", inclusive = false) @DecimalMax("500.0") Double radioKm,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) Integer limit) {
+        List<RepartidorCercano> cercanos = trackingService.obtenerRepartidoresCercanos(lat, lng, radioKm, limit);
+        return ResponseEntity.ok(cercanos);
+    }
+    
     @GetMapping("/repartidor/{repartidorId}/rango")
     @Operation(summary = "Obtener ubicaciones por rango de tiempo", 
                description = "Devuelve ubicaciones de un repartidor en un período específico")
@@ -73,4 +170,34 @@ public class TrackingController {
         List<Ubicacion> ubicaciones = trackingService.obtenerPorRangoTiempo(repartidorId, inicio, fin);
         return ResponseEntity.ok(ubicaciones);
     }
+    
+    @GetMapping("/repartidor/{repartidorId}/resumen-minutos")
+    @Operation(summary = "Obtener resumen por minuto", 
+               description = "Devuelve las posiciones promedio por minuto de un repartidor (histórico más allá de la retención de datos crudos)")
+    public ResponseEntity<List<UbicacionMinuto>> obtenerResumenPorMinuto(
+            @PathVariable Long repartidorId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin) {
+        List<UbicacionMinuto> resumen = trackingService.obtenerResumenPorMinuto(repartidorId, inicio, fin);
+        return ResponseEntity.ok(resumen);
+    }
+    
+    @GetMapping("/metricas/coalescencia")
+    @Operation(summary = "Métricas de coalescencia", 
+               description = "Eventos de ubicación recibidos, publicados y descartados por la coalescencia por repartidor")
+    public ResponseEntity<Map<String, Object>> obtenerMetricasCoalescencia() {
+        return ResponseEntity.ok(trackingService.obtenerMetricasCoalescencia());
+    }
+    
+    private static ResponseEntity<StreamingResponseBody> respuestaExportacion(StreamingResponseBody cuerpo,
+                                                                             String formato, String nombre) {
+        if (ExportacionUbicacionesService.FORMATO_CSV.equals(formato)) {
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            ContentDisposition.attachment().filename("ubicaciones-" + nombre + ".csv").build().toString())
+                    .body(cuerpo);
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(cuerpo);
+    }
 }
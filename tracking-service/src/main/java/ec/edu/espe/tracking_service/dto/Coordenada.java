@@ -0,0 +1,24 @@
+package ec.edu.espe.tracking_service.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Coordenada {
+    
+    @NotNull(message = "La latitud es obligatoria")
+    @DecimalMin(value = "-90.0", message = "Latitud debe estar entre -90 y 90")
+    @DecimalMax(value = "90.0", message = "Latitud debe estar entre -90 y 90")
+    private Double latitud;
+    
+    @NotNull(message = "La longitud es obligatoria")
+    @DecimalMin(value = "-180.0", message = "Longitud debe estar entre -180 y 180")
+    @DecimalMax(value = "180.0", message = "Longitud debe estar entre -180 y 180")
+    private Double longitud;
+}
@@ -0,0 +1,20 @@
+package ec.edu.espe.tracking_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EtaResponse {
+    private Long pedidoId;
+    private Long repartidorId;
+    private Double distanciaKm; // Distancia estimada por calles
+    private Double velocidadKmh; // Velocidad promedio reciente del repartidor
+    private Long etaSegundos;
+    private LocalDateTime llegadaEstimada;
+    private LocalDateTime calculadaEn;
+}
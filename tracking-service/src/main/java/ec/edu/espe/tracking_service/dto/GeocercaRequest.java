@@ -0,0 +1,47 @@
+package ec.edu.espe.tracking_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Geocerca de un pedido: círculo (latitud, longitud, radioMetros) o polígono (vertices)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeocercaRequest {
+    
+    @NotNull(message = "El ID del pedido es obligatorio")
+    private Long pedidoId;
+    
+    private Long repartidorId;
+    
+    @DecimalMin(value = "-90.0", message = "Latitud debe estar entre -90 y 90")
+    @DecimalMax(value = "90.0", message = "Latitud debe estar entre -90 y 90")
+    private Double latitud;
+    
+    @DecimalMin(value = "-180.0", message = "Longitud debe estar entre -180 y 180")
+    @DecimalMax(value = "180.0", message = "Longitud debe estar entre -180 y 180")
+    private Double longitud;
+    
+    @DecimalMin(value = "10.0", message = "El radio mínimo es 10 metros")
+    @DecimalMax(value = "5000.0", message = "El radio máximo es 5000 metros")
+    private Double radioMetros;
+    
+    @Size(min = 3, max = 100, message = "El polígono debe tener entre 3 y 100 vértices")
+    private List<@Valid @NotNull Coordenada> vertices;
+    
+    @JsonIgnore
+    @AssertTrue(message = "Debe indicarse un círculo (latitud, longitud y radioMetros) o un polígono (vertices), no ambos")
+    public boolean isDefinicionValida() {
+        boolean circulo = latitud != null && longitud != null && radioMetros != null;
+        boolean poligono = vertices != null;
+        return circulo != poligono;
+    }
+}
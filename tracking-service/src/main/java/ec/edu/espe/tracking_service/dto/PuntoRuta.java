@@ -0,0 +1,19 @@
+package ec.edu.espe.tracking_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Proyección mínima de una ubicación para reconstruir trayectorias sin cargar entidades completas
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PuntoRuta {
+    private Double latitud;
+    private Double longitud;
+    private LocalDateTime timestamp;
+}
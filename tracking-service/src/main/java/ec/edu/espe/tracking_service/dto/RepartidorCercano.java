@@ -0,0 +1,20 @@
+package ec.edu.espe.tracking_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RepartidorCercano {
+    private Long repartidorId;
+    private Double latitud;
+    private Double longitud;
+    private Double distanciaKm;
+    private String estado;
+    private Long pedidoId;
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,21 @@
+package ec.edu.espe.tracking_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrayectoriaResponse {
+    private Long repartidorId;
+    private Long pedidoId;
+    private Double toleranciaMetros;
+    private Integer puntosOriginales;
+    private Integer puntosSimplificados;
+    private String polyline; // Encoded Polyline Algorithm (precisión 1e-5)
+    private LocalDateTime inicio;
+    private LocalDateTime fin;
+}
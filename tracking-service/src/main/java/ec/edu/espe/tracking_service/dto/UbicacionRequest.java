@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -31,4 +33,8 @@ public class UbicacionRequest {
     
     @DecimalMin(value = "0.0", message = "La velocidad no puede ser negativa")
     private Double velocidad;
+    
+    // Momento de captura en el dispositivo (p. ej. fixes acumulados sin cobertura); sin él se usa la hora del servidor
+    @PastOrPresent(message = "El timestamp de la ubicación no puede estar en el futuro")
+    private LocalDateTime timestamp;
 }
@@ -0,0 +1,19 @@
+package ec.edu.espe.tracking_service.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EtaEvent {
+    private String eventId; // UUID para idempotencia
+    private Long pedidoId;
+    private Long repartidorId;
+    private Double distanciaKm;
+    private Long etaSegundos;
+    private LocalDateTime llegadaEstimada;
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,19 @@
+package ec.edu.espe.tracking_service.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeocercaEvent {
+    private String eventId; // UUID para idempotencia
+    private String tipo; // ENTRADA, SALIDA
+    private Long pedidoId;
+    private Long repartidorId;
+    private Double latitud;
+    private Double longitud;
+    private LocalDateTime timestamp;
+}
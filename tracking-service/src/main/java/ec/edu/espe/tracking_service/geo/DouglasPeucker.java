@@ -0,0 +1,88 @@
+package ec.edu.espe.tracking_service.geo;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Simplificación de trayectorias con el algoritmo de Douglas-Peucker.
+ * Las distancias se calculan en metros sobre una proyección equirectangular local,
+ * suficiente para los tramos cortos entre puntos GPS consecutivos.
+ * Implementación iterativa para no desbordar la pila con trayectorias de decenas de miles de puntos.
+ */
+public final class DouglasPeucker {
+
+    private DouglasPeucker() {
+    }
+
+    /**
+     * Devuelve los índices (en orden) de los puntos que se conservan
+     */
+    public static List<Integer> simplificar(double[] latitudes, double[] longitudes, double toleranciaMetros) {
+        int n = latitudes.length;
+        if (n <= 2 || toleranciaMetros <= 0) {
+            List<Integer> todos = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                todos.add(i);
+            }
+            return todos;
+        }
+
+        // Proyección a metros respecto al primer punto
+        double cosLat = Math.cos(Math.toRadians(latitudes[0]));
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = (longitudes[i] - longitudes[0]) * GeoUtils.KM_POR_GRADO_LONGITUD * 1000 * cosLat;
+            y[i] = (latitudes[i] - latitudes[0]) * GeoUtils.KM_POR_GRADO_LATITUD * 1000;
+        }
+
+        boolean[] conservar = new boolean[n];
+        conservar[0] = true;
+        conservar[n - 1] = true;
+        double toleranciaCuadrada = toleranciaMetros * toleranciaMetros;
+
+        Deque<int[]> pendientes = new ArrayDeque<>();
+        pendientes.push(new int[]{0, n - 1});
+        while (!pendientes.isEmpty()) {
+            int[] tramo = pendientes.pop();
+            int inicio = tramo[0];
+            int fin = tramo[1];
+            double maxDistancia = -1;
+            int indiceMax = -1;
+            for (int i = inicio + 1; i < fin; i++) {
+                double d = distanciaCuadradaASegmento(x[i], y[i], x[inicio], y[inicio], x[fin], y[fin]);
+                if (d > maxDistancia) {
+                    maxDistancia = d;
+                    indiceMax = i;
+                }
+            }
+            if (indiceMax != -1 && maxDistancia > toleranciaCuadrada) {
+                conservar[indiceMax] = true;
+                pendientes.push(new int[]{inicio, indiceMax});
+                pendientes.push(new int[]{indiceMax, fin});
+            }
+        }
+
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (conservar[i]) {
+                indices.add(i);
+            }
+        }
+        return indices;
+    }
+
+    private static double distanciaCuadradaASegmento(double px, double py,
+                                                     double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double longitudCuadrada = dx * dx + dy * dy;
+        double t = longitudCuadrada == 0 ? 0 : ((px - ax) * dx + (py - ay) * dy) / longitudCuadrada;
+        t = Math.max(0, Math.min(1, t));
+        double cx = ax + t * dx - px;
+        double cy = ay + t * dy - py;
+        return cx * cx + cy * cy;
+    }
+}
@@ -0,0 +1,30 @@
+package ec.edu.espe.tracking_service.geo;
+
+/**
+ * Utilidades geográficas sobre coordenadas WGS84 en grados decimales.
+ */
+public final class GeoUtils {
+
+    public static final double RADIO_TIERRA_KM = 6371.0088;
+
+    /** Kilómetros por grado de latitud (valor mínimo, en el ecuador) */
+    public static final double KM_POR_GRADO_LATITUD = 110.574;
+
+    /** Kilómetros por grado de longitud en el ecuador */
+    public static final double KM_POR_GRADO_LONGITUD = 111.320;
+
+    private GeoUtils() {
+    }
+
+    /**
+     * Distancia de círculo máximo (haversine) en kilómetros
+     */
+    public static double distanciaKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * RADIO_TIERRA_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,201 @@
+package ec.edu.espe.tracking_service.geo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice espacial de geocercas (círculos o polígonos) sobre una grilla uniforme.
+ * Cada geocerca se registra en todas las celdas que toca su caja envolvente, de modo que
+ * evaluar un punto solo revisa las geocercas de la celda donde cae, no todas las abiertas.
+ *
+ * Las consultas no bloquean; los registros y eliminaciones (poco frecuentes) se serializan.
+ */
+public class IndiceGeocercas {
+
+    /** Máximo de celdas que puede ocupar una geocerca */
+    private static final int MAX_CELDAS_POR_GEOCERCA = 10_000;
+
+    private final double tamanoCeldaGrados;
+    private final Map<Long, Set<Long>> celdas = new ConcurrentHashMap<>();
+    private final Map<Long, Cerca> cercas = new ConcurrentHashMap<>();
+
+    public IndiceGeocercas(double tamanoCeldaGrados) {
+        if (tamanoCeldaGrados <= 0) {
+            throw new IllegalArgumentException("El tamaño de celda debe ser mayor a 0");
+        }
+        this.tamanoCeldaGrados = tamanoCeldaGrados;
+    }
+
+    /**
+     * Registra o reemplaza una geocerca
+     */
+    public synchronized void registrar(long id, Cerca cerca) {
+        validar(cerca);
+        Caja caja = cerca.caja();
+        int filaMin = fila(caja.latitudMin());
+        int filaMax = fila(caja.latitudMax());
+        int columnaMin = columna(caja.longitudMin());
+        int columnaMax = columna(caja.longitudMax());
+
+        eliminar(id);
+        cercas.put(id, cerca);
+        for (int f = filaMin; f <= filaMax; f++) {
+            for (int c = columnaMin; c <= columnaMax; c++) {
+                celdas.computeIfAbsent(clave(f, c), k -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+        }
+    }
+
+    /**
+     * Falla con IllegalArgumentException si la geocerca no se puede registrar (área demasiado grande)
+     */
+    public void validar(Cerca cerca) {
+        Caja caja = cerca.caja();
+        long filas = fila(caja.latitudMax()) - fila(caja.latitudMin()) + 1L;
+        long columnas = columna(caja.longitudMax()) - columna(caja.longitudMin()) + 1L;
+        if (filas * columnas > MAX_CELDAS_POR_GEOCERCA) {
+            throw new IllegalArgumentException("La geocerca abarca un área demasiado grande");
+        }
+    }
+
+    /**
+     * Elimina una geocerca del índice
+     */
+    public synchronized void eliminar(long id) {
+        Cerca anterior = cercas.remove(id);
+        if (anterior == null) {
+            return;
+        }
+        Caja caja = anterior.caja();
+        for (int f = fila(caja.latitudMin()); f <= fila(caja.latitudMax()); f++) {
+            for (int c = columna(caja.longitudMin()); c <= columna(caja.longitudMax()); c++) {
+                celdas.computeIfPresent(clave(f, c), (k, ids) -> {
+                    ids.remove(id);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+    }
+
+    public int tamano() {
+        return cercas.size();
+    }
+
+    /**
+     * Ids de las geocercas que contienen al punto
+     */
+    public List<Long> contenedoras(double latitud, double longitud) {
+        Set<Long> candidatas = celdas.get(clave(fila(latitud), columna(longitud)));
+        if (candidatas == null) {
+            return List.of();
+        }
+        List<Long> resultado = new ArrayList<>(2);
+        for (Long id : candidatas) {
+            Cerca cerca = cercas.get(id);
+            if (cerca != null && cerca.caja().contiene(latitud, longitud) && cerca.contiene(latitud, longitud)) {
+                resultado.add(id);
+            }
+        }
+        return resultado;
+    }
+
+    private int fila(double latitud) {
+        return (int) Math.floor((latitud + 90.0) / tamanoCeldaGrados);
+    }
+
+    private int columna(double longitud) {
+        return (int) Math.floor((longitud + 180.0) / tamanoCeldaGrados);
+    }
+
+    private static long clave(int fila, int columna) {
+        return ((long) fila << 32) | (columna & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Forma de una geocerca
+     */
+    public sealed interface Cerca permits Circulo, Poligono {
+        Caja caja();
+
+        boolean contiene(double latitud, double longitud);
+    }
+
+    /**
+     * Círculo de radio en metros alrededor de un centro
+     */
+    public record Circulo(double latitud, double longitud, double radioMetros, Caja caja) implements Cerca {
+
+        public Circulo(double latitud, double longitud, double radioMetros) {
+            this(latitud, longitud, radioMetros, cajaDe(latitud, longitud, radioMetros));
+        }
+
+        @Override
+        public boolean contiene(double lat, double lng) {
+            return GeoUtils.distanciaKm(latitud, longitud, lat, lng) * 1000 <= radioMetros;
+        }
+
+        private static Caja cajaDe(double latitud, double longitud, double radioMetros) {
+            double radioKm = radioMetros / 1000;
+            double dLat = radioKm / GeoUtils.KM_POR_GRADO_LATITUD;
+            // La longitud se encoge con el coseno: se usa la latitud más alejada del ecuador
+            double latitudExtrema = Math.min(89.0, Math.abs(latitud) + dLat);
+            double dLng = radioKm / (GeoUtils.KM_POR_GRADO_LONGITUD * Math.cos(Math.toRadians(latitudExtrema)));
+            return new Caja(latitud - dLat, latitud + dLat, longitud - dLng, longitud + dLng);
+        }
+    }
+
+    /**
+     * Polígono simple; los vértices se recorren en orden y se cierra solo
+     */
+    public record Poligono(double[] latitudes, double[] longitudes, Caja caja) implements Cerca {
+
+        public Poligono(double[] latitudes, double[] longitudes) {
+            this(latitudes, longitudes, cajaDe(latitudes, longitudes));
+        }
+
+        /**
+         * Prueba de paridad (ray casting) en grados; suficiente para polígonos urbanos
+         */
+        @Override
+        public boolean contiene(double lat, double lng) {
+            boolean dentro = false;
+            int n = latitudes.length;
+            for (int i = 0, j = n - 1; i < n; j = i++) {
+                if ((latitudes[i] > lat) != (latitudes[j] > lat)
+                        && lng < (longitudes[j] - longitudes[i]) * (lat - latitudes[i]) / (latitudes[j] - latitudes[i]) + longitudes[i]) {
+                    dentro = !dentro;
+                }
+            }
+            return dentro;
+        }
+
+        private static Caja cajaDe(double[] latitudes, double[] longitudes) {
+            if (latitudes.length < 3 || latitudes.length != longitudes.length) {
+                throw new IllegalArgumentException("Un polígono requiere al menos 3 vértices");
+            }
+            double latMin = Double.MAX_VALUE, latMax = -Double.MAX_VALUE;
+            double lngMin = Double.MAX_VALUE, lngMax = -Double.MAX_VALUE;
+            for (int i = 0; i < latitudes.length; i++) {
+                latMin = Math.min(latMin, latitudes[i]);
+                latMax = Math.max(latMax, latitudes[i]);
+                lngMin = Math.min(lngMin, longitudes[i]);
+                lngMax = Math.max(lngMax, longitudes[i]);
+            }
+            return new Caja(latMin, latMax, lngMin, lngMax);
+        }
+    }
+
+    /**
+     * Caja envolvente en grados
+     */
+    public record Caja(double latitudMin, double latitudMax, double longitudMin, double longitudMax) {
+
+        public boolean contiene(double latitud, double longitud) {
+            return latitud >= latitudMin && latitud <= latitudMax
+                    && longitud >= longitudMin && longitud <= longitudMax;
+        }
+    }
+}
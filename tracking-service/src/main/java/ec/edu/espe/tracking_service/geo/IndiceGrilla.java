@@ -0,0 +1,203 @@
+package ec.edu.espe.tracking_service.geo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Índice espacial de puntos sobre una grilla uniforme de celdas de latitud/longitud.
+ * Cada punto (identificado por un id) vive en exactamente una celda; las búsquedas
+ * de vecinos más cercanos recorren anillos de celdas alrededor del punto consultado
+ * y se detienen en cuanto ningún anillo restante puede mejorar el resultado.
+ *
+ * Las actualizaciones de un mismo id deben serializarse desde el llamador.
+ */
+public class IndiceGrilla {
+
+    private final double tamanoCeldaGrados;
+    private final Map<Long, Set<Long>> celdas = new ConcurrentHashMap<>();
+    private final Map<Long, Punto> puntos = new ConcurrentHashMap<>();
+
+    public IndiceGrilla(double tamanoCeldaGrados) {
+        if (tamanoCeldaGrados <= 0) {
+            throw new IllegalArgumentException("El tamaño de celda debe ser mayor a 0");
+        }
+        this.tamanoCeldaGrados = tamanoCeldaGrados;
+    }
+
+    /**
+     * Inserta o mueve un punto
+     */
+    public void actualizar(long id, double latitud, double longitud) {
+        int fila = fila(latitud);
+        int columna = columna(longitud);
+        long celda = clave(fila, columna);
+        Punto anterior = puntos.put(id, new Punto(id, latitud, longitud, celda));
+        if (anterior != null && anterior.celda() != celda) {
+            quitarDeCelda(anterior.celda(), id);
+        }
+        if (anterior == null || anterior.celda() != celda) {
+            // compute (y no computeIfAbsent + add) para no agregar a un conjunto que otro hilo acaba de vaciar
+            celdas.compute(celda, (k, ids) -> {
+                Set<Long> conjunto = ids != null ? ids : ConcurrentHashMap.newKeySet();
+                conjunto.add(id);
+                return conjunto;
+            });
+        }
+    }
+
+    /**
+     * Elimina un punto del índice
+     */
+    public void eliminar(long id) {
+        Punto anterior = puntos.remove(id);
+        if (anterior != null) {
+            quitarDeCelda(anterior.celda(), id);
+        }
+    }
+
+    public int tamano() {
+        return puntos.size();
+    }
+
+    /**
+     * Devuelve hasta {@code limite} puntos a no más de {@code radioKm}, ordenados por distancia
+     */
+    public List<Vecino> cercanos(double latitud, double longitud, double radioKm, int limite) {
+        return cercanos(latitud, longitud, radioKm, limite, id -> true);
+    }
+
+    /**
+     * Como {@link #cercanos(double, double, double, int)}, pero solo cuenta los puntos que cumplen
+     * {@code vigente} (p. ej. no expirados); el filtro se aplica antes de ocupar un lugar del top-k
+     */
+    public List<Vecino> cercanos(double latitud, double longitud, double radioKm, int limite, LongPredicate vigente) {
+        if (limite <= 0 || puntos.isEmpty()) {
+            return List.of();
+        }
+
+        // Max-heap con los mejores candidatos encontrados hasta ahora
+        PriorityQueue<Vecino> mejores = new PriorityQueue<>(
+                Comparator.comparingDouble(Vecino::distanciaKm).reversed());
+
+        int filaCentro = fila(latitud);
+        int columnaCentro = columna(longitud);
+        double kmPorCelda = kmMinimosPorCelda(latitud, radioKm);
+        int maxAnillo = (int) Math.ceil(radioKm / kmPorCelda) + 1;
+
+        for (int anillo = 0; anillo <= maxAnillo; anillo++) {
+            // Todo punto del anillo está al menos a (anillo - 1) celdas completas de distancia
+            double distanciaMinimaAnillo = Math.max(0, anillo - 1) * kmPorCelda;
+            if (distanciaMinimaAnillo > radioKm) {
+                break;
+            }
+            if (mejores.size() == limite && distanciaMinimaAnillo > mejores.peek().distanciaKm()) {
+                break;
+            }
+            // Cuando el área recorrida supera a la cantidad de puntos, es más barato revisarlos todos
+            long celdasRecorridas = (2L * anillo + 1) * (2L * anillo + 1);
+            if (anillo > 0 && celdasRecorridas > puntos.size()) {
+                return recorridoCompleto(latitud, longitud, radioKm, limite, vigente);
+            }
+            recorrerAnillo(filaCentro, columnaCentro, anillo, latitud, longitud, radioKm, limite, vigente, mejores);
+        }
+
+        List<Vecino> resultado = new ArrayList<>(mejores);
+        resultado.sort(Comparator.comparingDouble(Vecino::distanciaKm));
+        return resultado;
+    }
+
+    private void recorrerAnillo(int filaCentro, int columnaCentro, int anillo,
+                                double latitud, double longitud, double radioKm, int limite,
+                                LongPredicate vigente, PriorityQueue<Vecino> mejores) {
+        for (int df = -anillo; df <= anillo; df++) {
+            boolean bordeVertical = Math.abs(df) == anillo;
+            // En las filas intermedias solo interesan las dos columnas del borde del anillo
+            int paso = bordeVertical || anillo == 0 ? 1 : 2 * anillo;
+            for (int dc = -anillo; dc <= anillo; dc += paso) {
+                Set<Long> ids = celdas.get(clave(filaCentro + df, columnaCentro + dc));
+                if (ids == null) {
+                    continue;
+                }
+                for (Long id : ids) {
+                    Punto punto = puntos.get(id);
+                    if (punto != null && vigente.test(id)) {
+                        considerar(punto, latitud, longitud, radioKm, limite, mejores);
+                    }
+                }
+            }
+        }
+    }
+
+    private List<Vecino> recorridoCompleto(double latitud, double longitud, double radioKm, int limite,
+                                           LongPredicate vigente) {
+        PriorityQueue<Vecino> mejores = new PriorityQueue<>(
+                Comparator.comparingDouble(Vecino::distanciaKm).reversed());
+        for (Punto punto : puntos.values()) {
+            if (vigente.test(punto.id())) {
+                considerar(punto, latitud, longitud, radioKm, limite, mejores);
+            }
+        }
+        List<Vecino> resultado = new ArrayList<>(mejores);
+        resultado.sort(Comparator.comparingDouble(Vecino::distanciaKm));
+        return resultado;
+    }
+
+    private static void considerar(Punto punto, double latitud, double longitud, double radioKm, int limite,
+                                   PriorityQueue<Vecino> mejores) {
+        double distancia = GeoUtils.distanciaKm(latitud, longitud, punto.latitud(), punto.longitud());
+        if (distancia > radioKm) {
+            return;
+        }
+        if (mejores.size() < limite) {
+            mejores.add(new Vecino(punto.id(), punto.latitud(), punto.longitud(), distancia));
+        } else if (distancia < mejores.peek().distanciaKm()) {
+            mejores.poll();
+            mejores.add(new Vecino(punto.id(), punto.latitud(), punto.longitud(), distancia));
+        }
+    }
+
+    /**
+     * Menor lado (en km) de una celda dentro de la zona de búsqueda; la longitud
+     * se encoge con el coseno de la latitud, así que se toma la latitud más alejada del ecuador.
+     */
+    private double kmMinimosPorCelda(double latitud, double radioKm) {
+        double latitudExtrema = Math.min(89.0, Math.abs(latitud) + radioKm / GeoUtils.KM_POR_GRADO_LATITUD + tamanoCeldaGrados);
+        double kmLatitud = tamanoCeldaGrados * GeoUtils.KM_POR_GRADO_LATITUD;
+        double kmLongitud = tamanoCeldaGrados * GeoUtils.KM_POR_GRADO_LONGITUD * Math.cos(Math.toRadians(latitudExtrema));
+        return Math.min(kmLatitud, kmLongitud);
+    }
+
+    private void quitarDeCelda(long celda, long id) {
+        celdas.computeIfPresent(celda, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private int fila(double latitud) {
+        return (int) Math.floor((latitud + 90.0) / tamanoCeldaGrados);
+    }
+
+    private int columna(double longitud) {
+        return (int) Math.floor((longitud + 180.0) / tamanoCeldaGrados);
+    }
+
+    private static long clave(int fila, int columna) {
+        return ((long) fila << 32) | (columna & 0xFFFFFFFFL);
+    }
+
+    private record Punto(long id, double latitud, double longitud, long celda) {
+    }
+
+    /**
+     * Resultado de una búsqueda de vecinos
+     */
+    public record Vecino(long id, double latitud, double longitud, double distanciaKm) {
+    }
+}
@@ -0,0 +1,37 @@
+package ec.edu.espe.tracking_service.geo;
+
+/**
+ * Codificación de polilíneas en el formato de Google (Encoded Polyline Algorithm, precisión 1e-5).
+ * Es el formato que aceptan directamente Leaflet (plugin polyline), Google Maps y Mapbox.
+ */
+public final class PolylineEncoder {
+
+    private static final double FACTOR = 1e5;
+
+    private PolylineEncoder() {
+    }
+
+    public static String codificar(double[] latitudes, double[] longitudes, Iterable<Integer> indices) {
+        StringBuilder sb = new StringBuilder();
+        long latAnterior = 0;
+        long lngAnterior = 0;
+        for (int i : indices) {
+            long lat = Math.round(latitudes[i] * FACTOR);
+            long lng = Math.round(longitudes[i] * FACTOR);
+            codificarValor(lat - latAnterior, sb);
+            codificarValor(lng - lngAnterior, sb);
+            latAnterior = lat;
+            lngAnterior = lng;
+        }
+        return sb.toString();
+    }
+
+    private static void codificarValor(long valor, StringBuilder sb) {
+        long v = valor < 0 ? ~(valor << 1) : (valor << 1);
+        while (v >= 0x20) {
+            sb.append((char) ((0x20 | (v & 0x1f)) + 63));
+            v >>= 5;
+        }
+        sb.append((char) (v + 63));
+    }
+}
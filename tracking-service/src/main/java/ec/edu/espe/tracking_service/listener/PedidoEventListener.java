@@ -0,0 +1,40 @@
+package ec.edu.espe.tracking_service.listener;
+
+import ec.edu.espe.tracking_service.event.PedidoEvent;
+import ec.edu.espe.tracking_service.service.EtaService;
+import ec.edu.espe.tracking_service.service.GeocercaService;
+import ec.edu.espe.tracking_service.service.TrayectoriaService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PedidoEventListener {
+    
+    private final TrayectoriaService trayectoriaService;
+    private final GeocercaService geocercaService;
+    private final EtaService etaService;
+    
+    /**
+     * Escucha los pedidos cerrados (la cola solo está enlazada a pedido.estado.entregado y
+     * pedido.estado.cancelado): elimina su geocerca y precalcula la trayectoria
+     */
+    @RabbitListener(queues = "${rabbitmq.queues.pedido-actualizado}")
+    public void handlePedidoActualizado(PedidoEvent event) {
+        log.info("📨 Pedido cerrado - Pedido ID: {}, Estado: {}", event.getPedidoId(), event.getEstado());
+        etaService.olvidarPedido(event.getPedidoId());
+        try {
+            geocercaService.eliminar(event.getPedidoId());
+        } catch (Exception e) {
+            log.error("Error eliminando geocerca del pedido {}", event.getPedidoId(), e);
+        }
+        try {
+            trayectoriaService.precalcularTrayectoriaPedido(event.getPedidoId());
+        } catch (Exception e) {
+            log.error("Error precalculando trayectoria del pedido {}", event.getPedidoId(), e);
+        }
+    }
+}
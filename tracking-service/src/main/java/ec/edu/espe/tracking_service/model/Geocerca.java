@@ -0,0 +1,39 @@
+package ec.edu.espe.tracking_service.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Geocerca del punto de entrega de un pedido activo: un círculo (centro y radio)
+ * o un polígono. Se elimina al cerrarse el pedido.
+ */
+@Entity
+@Table(name = "geocercas")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Geocerca {
+    
+    @Id
+    private Long pedidoId;
+    
+    private Long repartidorId; // Si se indica, solo se evalúa contra este repartidor
+    
+    @Column(nullable = false)
+    private String tipo; // RADIO, POLIGONO
+    
+    private Double latitud;
+    
+    private Double longitud;
+    
+    private Double radioMetros;
+    
+    @Column(columnDefinition = "TEXT")
+    private String vertices; // "lat,lng;lat,lng;..." para POLIGONO
+    
+    @Column(nullable = false)
+    private LocalDateTime fechaCreacion;
+}
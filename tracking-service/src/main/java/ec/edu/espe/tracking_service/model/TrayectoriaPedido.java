@@ -0,0 +1,40 @@
+package ec.edu.espe.tracking_service.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Trayectoria simplificada precalculada de un pedido cerrado (ENTREGADO o CANCELADO)
+ */
+@Entity
+@Table(name = "trayectorias_pedido")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrayectoriaPedido {
+    
+    @Id
+    private Long pedidoId;
+    
+    @Column(nullable = false)
+    private Double toleranciaMetros;
+    
+    @Column(nullable = false)
+    private Integer puntosOriginales;
+    
+    @Column(nullable = false)
+    private Integer puntosSimplificados;
+    
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String polyline;
+    
+    private LocalDateTime inicio;
+    
+    private LocalDateTime fin;
+    
+    @Column(nullable = false)
+    private LocalDateTime generadaEn;
+}
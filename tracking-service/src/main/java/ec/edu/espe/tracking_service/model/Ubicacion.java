@@ -5,17 +5,28 @@ import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+/**
+ * Ubicación GPS cruda. La columna {@code dia} actúa como clave de partición lógica:
+ * la retención y el resumen por minuto (ver {@link UbicacionMinuto}) operan por días completos.
+ */
 @Entity
-@Table(name = "ubicaciones")
+@Table(name = "ubicaciones", indexes = {
+    @Index(name = "idx_ubicaciones_repartidor_ts", columnList = "repartidorId, timestamp"),
+    @Index(name = "idx_ubicaciones_pedido_ts", columnList = "pedidoId, timestamp"),
+    @Index(name = "idx_ubicaciones_dia", columnList = "dia")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Ubicacion {
     
+    // SEQUENCE (en lugar de IDENTITY) para que Hibernate pueda agrupar los INSERT en lotes JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ubicaciones_seq")
+    @SequenceGenerator(name = "ubicaciones_seq", sequenceName = "ubicaciones_seq", allocationSize = 50)
     private Long id;
     
     @NotNull(message = "El ID del repartidor es obligatorio")
@@ -37,6 +48,8 @@ public class Ubicacion {
     @Column(nullable = false)
     private LocalDateTime timestamp = LocalDateTime.now();
     
+    private LocalDate dia; // Partición lógica (fecha de timestamp)
+    
     @Column(length = 50)
     private String estado; // EN_RUTA, DETENIDO, ENTREGANDO
     
@@ -53,5 +66,6 @@ public class Ubicacion {
         if (timestamp == null) {
             timestamp = LocalDateTime.now();
         }
+        dia = timestamp.toLocalDate();
     }
 }
@@ -0,0 +1,55 @@
+package ec.edu.espe.tracking_service.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Resumen por minuto de las ubicaciones de un repartidor.
+ * Reemplaza a los puntos crudos una vez superado el período de retención.
+ */
+@Entity
+@Table(name = "ubicaciones_minuto", indexes = {
+    @Index(name = "idx_ubicaciones_minuto_dia", columnList = "dia")
+})
+@IdClass(UbicacionMinuto.Clave.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UbicacionMinuto {
+    
+    @Id
+    private Long repartidorId;
+    
+    @Id
+    private LocalDateTime minuto;
+    
+    @Column(nullable = false)
+    private LocalDate dia;
+    
+    @Column(nullable = false)
+    private Integer puntos;
+    
+    @Column(nullable = false)
+    private Double latitudPromedio;
+    
+    @Column(nullable = false)
+    private Double longitudPromedio;
+    
+    private Double velocidadPromedio; // km/h
+    
+    private Double velocidadMaxima; // km/h
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Clave implements Serializable {
+        private Long repartidorId;
+        private LocalDateTime minuto;
+    }
+}
@@ -0,0 +1,9 @@
+package ec.edu.espe.tracking_service.repository;
+
+import ec.edu.espe.tracking_service.model.Geocerca;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface GeocercaRepository extends JpaRepository<Geocerca, Long> {
+}
@@ -0,0 +1,37 @@
+package ec.edu.espe.tracking_service.repository;
+
+import ec.edu.espe.tracking_service.model.UbicacionMinuto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UbicacionMinutoRepository extends JpaRepository<UbicacionMinuto, UbicacionMinuto.Clave> {
+    
+    // Resúmenes por minuto de un repartidor en un rango de tiempo (usa la clave primaria)
+    List<UbicacionMinuto> findByRepartidorIdAndMinutoBetweenOrderByMinutoAsc(
+        Long repartidorId, LocalDateTime inicio, LocalDateTime fin);
+    
+    // Resume las ubicaciones crudas de un día completo (idempotente gracias a MERGE ... KEY)
+    @Modifying
+    @Query(value = "MERGE INTO ubicaciones_minuto " +
+                   "(repartidor_id, minuto, dia, puntos, latitud_promedio, longitud_promedio, velocidad_promedio, velocidad_maxima) " +
+                   "KEY (repartidor_id, minuto) " +
+                   "SELECT u.repartidor_id, DATE_TRUNC('MINUTE', u.timestamp), u.dia, COUNT(*), " +
+                   "AVG(u.latitud), AVG(u.longitud), AVG(u.velocidad), MAX(u.velocidad) " +
+                   "FROM ubicaciones u WHERE u.dia = :dia " +
+                   "GROUP BY u.repartidor_id, DATE_TRUNC('MINUTE', u.timestamp), u.dia",
+           nativeQuery = true)
+    int resumirDia(@Param("dia") LocalDate dia);
+    
+    // Elimina resúmenes fuera de la retención
+    @Modifying
+    @Query("DELETE FROM UbicacionMinuto m WHERE m.dia < :limite")
+    int deleteByDiaBefore(@Param("limite") LocalDate limite);
+}
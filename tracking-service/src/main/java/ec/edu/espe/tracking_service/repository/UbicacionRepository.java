@@ -1,14 +1,21 @@
 package ec.edu.espe.tracking_service.repository;
 
+import ec.edu.espe.tracking_service.dto.PuntoRuta;
 import ec.edu.espe.tracking_service.model.Ubicacion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UbicacionRepository extends JpaRepository<Ubicacion, Long> {
@@ -22,6 +29,20 @@ public interface UbicacionRepository extends JpaRepository<Ubicacion, Long> {
     // Obtener ubicaciones de un pedido específico
     List<Ubicacion> findByPedidoIdOrderByTimestampDesc(Long pedidoId);
     
+    // Histórico de un repartidor como cursor de solo avance (exportación); requiere transacción abierta
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Ubicacion> streamByRepartidorIdOrderByTimestampDesc(Long repartidorId);
+    
+    // Ubicaciones de un pedido como cursor de solo avance (exportación); requiere transacción abierta
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Ubicacion> streamByPedidoIdOrderByTimestampDesc(Long pedidoId);
+    
     // Obtener ubicaciones en un rango de tiempo
     @Query("SELECT u FROM Ubicacion u WHERE u.repartidorId = :repartidorId " +
            "AND u.timestamp BETWEEN :inicio AND :fin ORDER BY u.timestamp DESC")
@@ -31,9 +52,41 @@ public interface UbicacionRepository extends JpaRepository<Ubicacion, Long> {
         @Param("fin") LocalDateTime fin
     );
     
-    // Obtener últimas ubicaciones de todos los repartidores activos
-    @Query("SELECT u FROM Ubicacion u WHERE u.id IN " +
-           "(SELECT MAX(u2.id) FROM Ubicacion u2 GROUP BY u2.repartidorId) " +
-           "AND u.timestamp > :desde")
+    // Puntos de la trayectoria de un repartidor (solo coordenadas, en orden cronológico)
+    @Query("SELECT new ec.edu.espe.tracking_service.dto.PuntoRuta(u.latitud, u.longitud, u.timestamp) " +
+           "FROM Ubicacion u WHERE u.repartidorId = :repartidorId " +
+           "AND u.timestamp BETWEEN :inicio AND :fin ORDER BY u.timestamp ASC, u.id ASC")
+    List<PuntoRuta> findPuntosByRepartidorAndTimeRange(
+        @Param("repartidorId") Long repartidorId,
+        @Param("inicio") LocalDateTime inicio,
+        @Param("fin") LocalDateTime fin
+    );
+    
+    // Puntos de la trayectoria de un pedido (solo coordenadas, en orden cronológico)
+    @Query("SELECT new ec.edu.espe.tracking_service.dto.PuntoRuta(u.latitud, u.longitud, u.timestamp) " +
+           "FROM Ubicacion u WHERE u.pedidoId = :pedidoId ORDER BY u.timestamp ASC, u.id ASC")
+    List<PuntoRuta> findPuntosByPedido(@Param("pedidoId") Long pedidoId);
+    
+    // Obtener últimas ubicaciones de todos los repartidores activos: la de mayor (timestamp, id)
+    // de cada uno, ya que los lotes sin cobertura llegan con ids nuevos y horas de captura antiguas
+    // (la búsqueda se acota a los días recientes para no recorrer todo el histórico)
+    @Query("SELECT u FROM Ubicacion u WHERE u.dia >= CAST(:desde AS LocalDate) AND u.timestamp > :desde " +
+           "AND NOT EXISTS (SELECT 1 FROM Ubicacion u2 WHERE u2.repartidorId = u.repartidorId " +
+           "AND u2.dia >= CAST(:desde AS LocalDate) " +
+           "AND (u2.timestamp > u.timestamp OR (u2.timestamp = u.timestamp AND u2.id > u.id)))")
     List<Ubicacion> findLatestUbicacionesActivas(@Param("desde") LocalDateTime desde);
+    
+    // Días (particiones) con datos crudos anteriores al límite de retención
+    @Query("SELECT DISTINCT u.dia FROM Ubicacion u WHERE u.dia < :limite ORDER BY u.dia")
+    List<LocalDate> findDiasAnterioresA(@Param("limite") LocalDate limite);
+    
+    // Elimina una partición diaria completa
+    @Modifying
+    @Query("DELETE FROM Ubicacion u WHERE u.dia = :dia")
+    int deleteByDia(@Param("dia") LocalDate dia);
+    
+    // Completa la partición de filas anteriores a la columna dia
+    @Modifying
+    @Query("UPDATE Ubicacion u SET u.dia = CAST(u.timestamp AS LocalDate) WHERE u.dia IS NULL")
+    int completarDiaFaltante();
 }
@@ -0,0 +1,226 @@
+package ec.edu.espe.tracking_service.service;
+
+import ec.edu.espe.tracking_service.dto.Coordenada;
+import ec.edu.espe.tracking_service.dto.EtaResponse;
+import ec.edu.espe.tracking_service.event.EtaEvent;
+import ec.edu.espe.tracking_service.geo.GeoUtils;
+import ec.edu.espe.tracking_service.model.Ubicacion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tiempo estimado de llegada (ETA) de cada pedido hacia su punto de entrega (el de su geocerca).
+ * Mantiene en memoria una velocidad promedio móvil exponencial (EWMA) por repartidor,
+ * actualizada con cada ubicación, y publica el ETA solo cuando cambia más que el umbral.
+ */
+@Service
+@Slf4j
+public class EtaService {
+
+    /** Velocidades derivadas por encima de este valor se consideran saltos del GPS */
+    private static final double VELOCIDAD_MAXIMA_KMH = 150.0;
+
+    private final GeocercaService geocercaService;
+    private final UltimaUbicacionCache ultimaUbicacionCache;
+    private final RabbitTemplate rabbitTemplate;
+    private final String trackingExchange;
+    private final String etaRoutingKey;
+    private final double alfa;
+    private final double velocidadPorDefectoKmh;
+    private final double velocidadMinimaKmh;
+    private final double factorRuta;
+    private final long umbralSegundos;
+    private final Duration ventanaInactividad;
+
+    private final Map<Long, Velocidad> velocidades = new ConcurrentHashMap<>();
+    private final Map<Long, Long> repartidorPorPedido = new ConcurrentHashMap<>();
+    private final Map<Long, Long> ultimoEtaPublicado = new ConcurrentHashMap<>();
+
+    public EtaService(GeocercaService geocercaService,
+                      UltimaUbicacionCache ultimaUbicacionCache,
+                      RabbitTemplate rabbitTemplate,
+                      @Value("${rabbitmq.exchanges.tracking}") String trackingExchange,
+                      @Value("${rabbitmq.routing-keys.eta}") String etaRoutingKey,
+                      @Value("${tracking.eta.alfa:0.3}") double alfa,
+                      @Value("${tracking.eta.velocidad-defecto-kmh:25}") double velocidadPorDefectoKmh,
+                      @Value("${tracking.eta.velocidad-minima-kmh:5}") double velocidadMinimaKmh,
+                      @Value("${tracking.eta.factor-ruta:1.3}") double factorRuta,
+                      @Value("${tracking.eta.umbral-segundos:60}") long umbralSegundos,
+                      @Value("${tracking.activos.ventana-minutos:30}") long ventanaMinutos) {
+        this.geocercaService = geocercaService;
+        this.ultimaUbicacionCache = ultimaUbicacionCache;
+        this.rabbitTemplate = rabbitTemplate;
+        this.trackingExchange = trackingExchange;
+        this.etaRoutingKey = etaRoutingKey;
+        this.alfa = alfa;
+        this.velocidadPorDefectoKmh = velocidadPorDefectoKmh;
+        this.velocidadMinimaKmh = velocidadMinimaKmh;
+        this.factorRuta = factorRuta;
+        this.umbralSegundos = umbralSegundos;
+        this.ventanaInactividad = Duration.ofMinutes(ventanaMinutos);
+    }
+
+    /**
+     * Actualiza la velocidad de cada repartidor y publica los ETA que cambiaron significativamente
+     */
+    public void registrar(List<Ubicacion> ubicaciones) {
+        List<EtaEvent> eventos = new ArrayList<>();
+        for (Ubicacion ubicacion : ubicaciones) {
+            actualizarVelocidad(ubicacion);
+            Long pedidoId = ubicacion.getPedidoId();
+            if (pedidoId == null) {
+                continue;
+            }
+            repartidorPorPedido.put(pedidoId, ubicacion.getRepartidorId());
+            calcular(pedidoId, ubicacion).ifPresent(eta -> {
+                if (cambioSignificativo(eta)) {
+                    eventos.add(crearEvento(eta));
+                }
+            });
+        }
+        publicar(eventos);
+    }
+
+    /**
+     * ETA actual de un pedido a partir de la última ubicación de su repartidor
+     */
+    public EtaResponse obtenerEta(Long pedidoId) {
+        Long repartidorId = Optional.ofNullable(repartidorPorPedido.get(pedidoId))
+                .or(() -> geocercaService.repartidorAsignado(pedidoId))
+                .orElseThrow(() -> new RuntimeException("No hay repartidor reportando ubicación para el pedido " + pedidoId));
+        Ubicacion ubicacion = ultimaUbicacionCache.obtener(repartidorId)
+                .orElseThrow(() -> new RuntimeException("El repartidor " + repartidorId + " no tiene ubicación reciente"));
+        EtaResponse eta = calcular(pedidoId, ubicacion)
+                .orElseThrow(() -> new RuntimeException("El pedido " + pedidoId + " no tiene punto de entrega registrado"));
+
+        // Descuenta lo transcurrido desde la última ubicación
+        LocalDateTime ahora = LocalDateTime.now();
+        eta.setEtaSegundos(Math.max(0, Duration.between(ahora, eta.getLlegadaEstimada()).toSeconds()));
+        eta.setCalculadaEn(ahora);
+        return eta;
+    }
+
+    /**
+     * Olvida el estado de un pedido cerrado
+     */
+    public void olvidarPedido(Long pedidoId) {
+        repartidorPorPedido.remove(pedidoId);
+        ultimoEtaPublicado.remove(pedidoId);
+    }
+
+    /**
+     * Libera la velocidad de los repartidores sin reportes dentro de la ventana de actividad
+     */
+    @Scheduled(fixedDelayString = "${tracking.activos.purga-ms:60000}")
+    public void purgarInactivos() {
+        LocalDateTime limite = LocalDateTime.now().minus(ventanaInactividad);
+        velocidades.values().removeIf(velocidad -> velocidad.timestamp.isBefore(limite));
+    }
+
+    private void actualizarVelocidad(Ubicacion ubicacion) {
+        velocidades.compute(ubicacion.getRepartidorId(), (repartidorId, actual) -> {
+            Double observada = ubicacion.getVelocidad();
+            if (observada == null && actual != null) {
+                // Sin velocidad reportada: se deriva del desplazamiento desde la ubicación anterior
+                long segundos = Duration.between(actual.timestamp, ubicacion.getTimestamp()).toSeconds();
+                if (segundos > 0) {
+                    double km = GeoUtils.distanciaKm(actual.latitud, actual.longitud,
+                                                     ubicacion.getLatitud(), ubicacion.getLongitud());
+                    observada = km / segundos * 3600;
+                }
+            }
+            if (observada != null && observada > VELOCIDAD_MAXIMA_KMH) {
+                observada = null;
+            }
+
+            Velocidad nueva = new Velocidad();
+            nueva.latitud = ubicacion.getLatitud();
+            nueva.longitud = ubicacion.getLongitud();
+            nueva.timestamp = ubicacion.getTimestamp();
+            if (actual == null || Double.isNaN(actual.kmh)) {
+                nueva.kmh = observada != null ? observada : Double.NaN;
+            } else {
+                nueva.kmh = observada != null ? alfa * observada + (1 - alfa) * actual.kmh : actual.kmh;
+            }
+            return nueva;
+        });
+    }
+
+    private Optional<EtaResponse> calcular(Long pedidoId, Ubicacion ubicacion) {
+        Optional<Coordenada> destino = geocercaService.destino(pedidoId);
+        if (destino.isEmpty()) {
+            return Optional.empty();
+        }
+        double distanciaKm = factorRuta * GeoUtils.distanciaKm(ubicacion.getLatitud(), ubicacion.getLongitud(),
+                                                               destino.get().getLatitud(), destino.get().getLongitud());
+        Velocidad velocidad = velocidades.get(ubicacion.getRepartidorId());
+        double kmh = velocidad != null && !Double.isNaN(velocidad.kmh) ? velocidad.kmh : velocidadPorDefectoKmh;
+        kmh = Math.max(kmh, velocidadMinimaKmh);
+        long segundos = Math.round(distanciaKm / kmh * 3600);
+
+        return Optional.of(new EtaResponse(
+            pedidoId,
+            ubicacion.getRepartidorId(),
+            distanciaKm,
+            kmh,
+            segundos,
+            ubicacion.getTimestamp().plusSeconds(segundos),
+            ubicacion.getTimestamp()
+        ));
+    }
+
+    private boolean cambioSignificativo(EtaResponse eta) {
+        boolean[] publicar = {false};
+        ultimoEtaPublicado.compute(eta.getPedidoId(), (pedidoId, anterior) -> {
+            if (anterior == null || Math.abs(anterior - eta.getEtaSegundos()) >= umbralSegundos) {
+                publicar[0] = true;
+                return eta.getEtaSegundos();
+            }
+            return anterior;
+        });
+        return publicar[0];
+    }
+
+    private EtaEvent crearEvento(EtaResponse eta) {
+        return new EtaEvent(
+            UUID.randomUUID().toString(),
+            eta.getPedidoId(),
+            eta.getRepartidorId(),
+            eta.getDistanciaKm(),
+            eta.getEtaSegundos(),
+            eta.getLlegadaEstimada(),
+            eta.getCalculadaEn()
+        );
+    }
+
+    private void publicar(List<EtaEvent> eventos) {
+        for (EtaEvent event : eventos) {
+            try {
+                rabbitTemplate.convertAndSend(trackingExchange, etaRoutingKey, event);
+                log.info("ETA publicado: pedido={} eta={}s", event.getPedidoId(), event.getEtaSegundos());
+            } catch (Exception e) {
+                log.error("Error al publicar evento de ETA en RabbitMQ", e);
+                // No lanzamos excepción para no afectar el registro de la ubicación
+            }
+        }
+    }
+
+    private static class Velocidad {
+        private double kmh; // NaN mientras no haya ninguna observación
+        private double latitud;
+        private double longitud;
+        private LocalDateTime timestamp;
+    }
+}
@@ -0,0 +1,150 @@
+package ec.edu.espe.tracking_service.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import ec.edu.espe.tracking_service.model.Ubicacion;
+import ec.edu.espe.tracking_service.repository.UbicacionRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Exportación del histórico de ubicaciones en NDJSON o CSV con memoria constante:
+ * las filas se leen con un cursor de solo avance y se escriben (y se desprenden del
+ * contexto de persistencia) una a una, sin materializar la lista completa.
+ */
+@Service
+@Slf4j
+public class ExportacionUbicacionesService {
+
+    public static final String FORMATO_NDJSON = "ndjson";
+    public static final String FORMATO_CSV = "csv";
+
+    private static final String CABECERA_CSV = "id,repartidorId,pedidoId,latitud,longitud,timestamp,estado,velocidad,direccion";
+
+    private final UbicacionRepository ubicacionRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public ExportacionUbicacionesService(UbicacionRepository ubicacionRepository,
+                                         EntityManager entityManager,
+                                         ObjectMapper objectMapper,
+                                         PlatformTransactionManager transactionManager) {
+        this.ubicacionRepository = ubicacionRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Exporta el histórico de un repartidor (más reciente primero)
+     */
+    public StreamingResponseBody exportarHistorico(Long repartidorId, String formato) {
+        return exportar(() -> ubicacionRepository.streamByRepartidorIdOrderByTimestampDesc(repartidorId), formato);
+    }
+
+    /**
+     * Exporta las ubicaciones de un pedido (más reciente primero)
+     */
+    public StreamingResponseBody exportarPorPedido(Long pedidoId, String formato) {
+        return exportar(() -> ubicacionRepository.streamByPedidoIdOrderByTimestampDesc(pedidoId), formato);
+    }
+
+    private StreamingResponseBody exportar(Supplier<Stream<Ubicacion>> consulta, String formato) {
+        // Se ejecuta después de que el controlador retorna, en su propia transacción de solo lectura
+        return salida -> transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Ubicacion> ubicaciones = consulta.get()) {
+                long filas = FORMATO_CSV.equals(formato)
+                        ? escribirCsv(ubicaciones, salida)
+                        : escribirNdjson(ubicaciones, salida);
+                log.info("Exportación {} completada: {} ubicaciones", formato, filas);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error escribiendo la exportación de ubicaciones", e);
+            }
+        });
+    }
+
+    private long escribirNdjson(Stream<Ubicacion> ubicaciones, OutputStream salida) throws IOException {
+        long filas = 0;
+        // Sin flush por fila (writeValue y writeObject lo hacen con FLUSH_AFTER_WRITE_VALUE):
+        // el generador vacía su búfer al llenarse y una sola vez al final
+        ObjectWriter escritor = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generador = objectMapper.getFactory().createGenerator(salida)) {
+            generador.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            generador.setRootValueSeparator(null); // cada línea lleva su propio salto
+            for (Ubicacion ubicacion : (Iterable<Ubicacion>) ubicaciones::iterator) {
+                escritor.writeValue(generador, ubicacion);
+                generador.writeRaw('\n');
+                entityManager.detach(ubicacion);
+                filas++;
+            }
+            generador.flush();
+        }
+        return filas;
+    }
+
+    private long escribirCsv(Stream<Ubicacion> ubicaciones, OutputStream salida) throws IOException {
+        long filas = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        writer.write(CABECERA_CSV);
+        writer.write('\n');
+        for (Ubicacion ubicacion : (Iterable<Ubicacion>) ubicaciones::iterator) {
+            writer.write(String.valueOf(ubicacion.getId()));
+            writer.write(',');
+            writer.write(String.valueOf(ubicacion.getRepartidorId()));
+            writer.write(',');
+            writer.write(valor(ubicacion.getPedidoId()));
+            writer.write(',');
+            writer.write(String.valueOf(ubicacion.getLatitud()));
+            writer.write(',');
+            writer.write(String.valueOf(ubicacion.getLongitud()));
+            writer.write(',');
+            writer.write(valor(ubicacion.getTimestamp()));
+            writer.write(',');
+            writer.write(texto(ubicacion.getEstado()));
+            writer.write(',');
+            writer.write(valor(ubicacion.getVelocidad()));
+            writer.write(',');
+            writer.write(texto(ubicacion.getDireccion()));
+            writer.write('\n');
+            entityManager.detach(ubicacion);
+            filas++;
+        }
+        writer.flush();
+        return filas;
+    }
+
+    private static String valor(Object valor) {
+        return valor != null ? valor.toString() : "";
+    }
+
+    /**
+     * Escapa un texto según RFC 4180 (comillas si contiene separadores o comillas)
+     */
+    private static String texto(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,258 @@
+package ec.edu.espe.tracking_service.service;
+
+import ec.edu.espe.tracking_service.dto.Coordenada;
+import ec.edu.espe.tracking_service.dto.GeocercaRequest;
+import ec.edu.espe.tracking_service.event.GeocercaEvent;
+import ec.edu.espe.tracking_service.geo.IndiceGeocercas;
+import ec.edu.espe.tracking_service.model.Geocerca;
+import ec.edu.espe.tracking_service.model.Ubicacion;
+import ec.edu.espe.tracking_service.repository.GeocercaRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Geocercas de entrega por pedido. Cada ubicación recibida se evalúa solo contra las
+ * geocercas candidatas de su celda y se publican eventos de entrada/salida en RabbitMQ.
+ */
+@Service
+@Slf4j
+public class GeocercaService {
+
+    private final GeocercaRepository geocercaRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final String trackingExchange;
+    private final String entradaRoutingKey;
+    private final String salidaRoutingKey;
+    private final IndiceGeocercas indice;
+
+    private final Map<Long, Geocerca> geocercas = new ConcurrentHashMap<>();
+    /** Pedidos cuyas geocercas contienen actualmente a cada repartidor */
+    private final Map<Long, Set<Long>> dentro = new ConcurrentHashMap<>();
+
+    public GeocercaService(GeocercaRepository geocercaRepository,
+                           RabbitTemplate rabbitTemplate,
+                           @Value("${rabbitmq.exchanges.tracking}") String trackingExchange,
+                           @Value("${rabbitmq.routing-keys.geocerca-entrada}") String entradaRoutingKey,
+                           @Value("${rabbitmq.routing-keys.geocerca-salida}") String salidaRoutingKey,
+                           @Value("${tracking.geocercas.celda-grados:0.005}") double celdaGrados) {
+        this.geocercaRepository = geocercaRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.trackingExchange = trackingExchange;
+        this.entradaRoutingKey = entradaRoutingKey;
+        this.salidaRoutingKey = salidaRoutingKey;
+        this.indice = new IndiceGeocercas(celdaGrados);
+    }
+
+    /**
+     * Carga en el índice las geocercas de los pedidos abiertos
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void precargar() {
+        geocercaRepository.findAll().forEach(this::indexar);
+        log.info("Geocercas precargadas: {}", indice.tamano());
+    }
+
+    /**
+     * Registra (o reemplaza) la geocerca de un pedido. Sin transacción propia: el save confirma
+     * antes de indexar, así el índice nunca tiene una geocerca que la base no guardó
+     */
+    public Geocerca registrar(GeocercaRequest request) {
+        Geocerca geocerca = new Geocerca();
+        geocerca.setPedidoId(request.getPedidoId());
+        geocerca.setRepartidorId(request.getRepartidorId());
+        if (request.getVertices() != null) {
+            geocerca.setTipo("POLIGONO");
+            StringBuilder vertices = new StringBuilder();
+            for (Coordenada vertice : request.getVertices()) {
+                if (!vertices.isEmpty()) {
+                    vertices.append(';');
+                }
+                vertices.append(vertice.getLatitud()).append(',').append(vertice.getLongitud());
+            }
+            geocerca.setVertices(vertices.toString());
+        } else {
+            geocerca.setTipo("RADIO");
+            geocerca.setLatitud(request.getLatitud());
+            geocerca.setLongitud(request.getLongitud());
+            geocerca.setRadioMetros(request.getRadioMetros());
+        }
+        geocerca.setFechaCreacion(LocalDateTime.now());
+
+        // La forma se valida antes: una inválida o demasiado grande no llega a guardarse
+        IndiceGeocercas.Cerca cerca = forma(geocerca);
+        indice.validar(cerca);
+        Geocerca saved = geocercaRepository.save(geocerca);
+        indexar(saved, cerca);
+        log.info("Geocerca {} registrada para pedido {}", saved.getTipo(), saved.getPedidoId());
+        return saved;
+    }
+
+    /**
+     * Obtiene la geocerca de un pedido
+     */
+    public Geocerca obtener(Long pedidoId) {
+        return geocercaRepository.findById(pedidoId)
+                .orElseThrow(() -> new RuntimeException("No existe geocerca para el pedido " + pedidoId));
+    }
+
+    /**
+     * Punto de entrega del pedido según su geocerca vigente: el centro del círculo
+     * o el promedio de los vértices del polígono
+     */
+    public Optional<Coordenada> destino(Long pedidoId) {
+        Geocerca geocerca = geocercas.get(pedidoId);
+        if (geocerca == null) {
+            return Optional.empty();
+        }
+        if (!"POLIGONO".equals(geocerca.getTipo())) {
+            return Optional.of(new Coordenada(geocerca.getLatitud(), geocerca.getLongitud()));
+        }
+        String[] vertices = geocerca.getVertices().split(";");
+        double latitud = 0;
+        double longitud = 0;
+        for (String vertice : vertices) {
+            String[] partes = vertice.split(",");
+            latitud += Double.parseDouble(partes[0]);
+            longitud += Double.parseDouble(partes[1]);
+        }
+        return Optional.of(new Coordenada(latitud / vertices.length, longitud / vertices.length));
+    }
+
+    /**
+     * Repartidor asignado en la geocerca vigente del pedido, si se indicó
+     */
+    public Optional<Long> repartidorAsignado(Long pedidoId) {
+        return Optional.ofNullable(geocercas.get(pedidoId)).map(Geocerca::getRepartidorId);
+    }
+
+    /**
+     * Elimina la geocerca de un pedido (p. ej. al cerrarse)
+     */
+    @Transactional
+    public void eliminar(Long pedidoId) {
+        indice.eliminar(pedidoId);
+        if (geocercas.remove(pedidoId) != null) {
+            geocercaRepository.deleteById(pedidoId);
+            log.info("Geocerca del pedido {} eliminada", pedidoId);
+        }
+    }
+
+    /**
+     * Evalúa ubicaciones contra las geocercas y publica las entradas y salidas detectadas
+     */
+    public void evaluar(List<Ubicacion> ubicaciones) {
+        if (geocercas.isEmpty() && dentro.isEmpty()) {
+            return;
+        }
+        List<GeocercaEvent> eventos = new ArrayList<>();
+        for (Ubicacion ubicacion : ubicaciones) {
+            evaluar(ubicacion, eventos);
+        }
+        publicar(eventos);
+    }
+
+    private void evaluar(Ubicacion ubicacion, List<GeocercaEvent> eventos) {
+        Set<Long> actuales = new HashSet<>();
+        for (Long pedidoId : indice.contenedoras(ubicacion.getLatitud(), ubicacion.getLongitud())) {
+            Geocerca geocerca = geocercas.get(pedidoId);
+            if (geocerca != null && aplica(geocerca, ubicacion)) {
+                actuales.add(pedidoId);
+            }
+        }
+
+        // compute serializa las transiciones de un mismo repartidor
+        dentro.compute(ubicacion.getRepartidorId(), (repartidorId, anteriores) -> {
+            for (Long pedidoId : actuales) {
+                if (anteriores == null || !anteriores.contains(pedidoId)) {
+                    eventos.add(crearEvento("ENTRADA", pedidoId, ubicacion));
+                }
+            }
+            if (anteriores != null) {
+                for (Long pedidoId : anteriores) {
+                    // Las geocercas ya eliminadas se olvidan sin emitir salida
+                    if (!actuales.contains(pedidoId) && geocercas.containsKey(pedidoId)) {
+                        eventos.add(crearEvento("SALIDA", pedidoId, ubicacion));
+                    }
+                }
+            }
+            return actuales.isEmpty() ? null : actuales;
+        });
+    }
+
+    /**
+     * Una geocerca con repartidor asignado solo aplica a ese repartidor;
+     * si no, a quien reporte ubicaciones para su pedido
+     */
+    private static boolean aplica(Geocerca geocerca, Ubicacion ubicacion) {
+        if (geocerca.getRepartidorId() != null) {
+            return geocerca.getRepartidorId().equals(ubicacion.getRepartidorId());
+        }
+        return Objects.equals(geocerca.getPedidoId(), ubicacion.getPedidoId());
+    }
+
+    private void indexar(Geocerca geocerca) {
+        indexar(geocerca, forma(geocerca));
+    }
+
+    private void indexar(Geocerca geocerca, IndiceGeocercas.Cerca cerca) {
+        indice.registrar(geocerca.getPedidoId(), cerca);
+        geocercas.put(geocerca.getPedidoId(), geocerca);
+    }
+
+    private static IndiceGeocercas.Cerca forma(Geocerca geocerca) {
+        if ("POLIGONO".equals(geocerca.getTipo())) {
+            String[] vertices = geocerca.getVertices().split(";");
+            double[] latitudes = new double[vertices.length];
+            double[] longitudes = new double[vertices.length];
+            for (int i = 0; i < vertices.length; i++) {
+                String[] partes = vertices[i].split(",");
+                latitudes[i] = Double.parseDouble(partes[0]);
+                longitudes[i] = Double.parseDouble(partes[1]);
+            }
+            return new IndiceGeocercas.Poligono(latitudes, longitudes);
+        }
+        return new IndiceGeocercas.Circulo(geocerca.getLatitud(), geocerca.getLongitud(), geocerca.getRadioMetros());
+    }
+
+    private GeocercaEvent crearEvento(String tipo, Long pedidoId, Ubicacion ubicacion) {
+        return new GeocercaEvent(
+            UUID.randomUUID().toString(),
+            tipo,
+            pedidoId,
+            ubicacion.getRepartidorId(),
+            ubicacion.getLatitud(),
+            ubicacion.getLongitud(),
+            ubicacion.getTimestamp()
+        );
+    }
+
+    private void publicar(List<GeocercaEvent> eventos) {
+        for (GeocercaEvent event : eventos) {
+            try {
+                String routingKey = "ENTRADA".equals(event.getTipo()) ? entradaRoutingKey : salidaRoutingKey;
+                rabbitTemplate.convertAndSend(trackingExchange, routingKey, event);
+                log.info("Evento de geocerca publicado: {} pedido={} repartidor={}",
+                         event.getTipo(), event.getPedidoId(), event.getRepartidorId());
+            } catch (Exception e) {
+                log.error("Error al publicar evento de geocerca en RabbitMQ", e);
+                // No lanzamos excepción para no afectar el registro de la ubicación
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ec.edu.espe.tracking_service.service;
+
+import ec.edu.espe.tracking_service.repository.UbicacionMinutoRepository;
+import ec.edu.espe.tracking_service.repository.UbicacionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Política de retención de ubicaciones por particiones diarias:
+ * los días con datos crudos más antiguos que la retención se resumen por minuto
+ * y luego se eliminan completos; los resúmenes tienen su propia retención.
+ */
+@Service
+@Slf4j
+public class RetencionUbicacionesService {
+
+    private final UbicacionRepository ubicacionRepository;
+    private final UbicacionMinutoRepository ubicacionMinutoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int diasCrudos;
+    private final int diasResumen;
+
+    public RetencionUbicacionesService(UbicacionRepository ubicacionRepository,
+                                       UbicacionMinutoRepository ubicacionMinutoRepository,
+                                       TransactionTemplate transactionTemplate,
+                                       @Value("${tracking.retencion.dias-crudos:7}") int diasCrudos,
+                                       @Value("${tracking.retencion.dias-resumen:180}") int diasResumen) {
+        this.ubicacionRepository = ubicacionRepository;
+        this.ubicacionMinutoRepository = ubicacionMinutoRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.diasCrudos = diasCrudos;
+        this.diasResumen = diasResumen;
+    }
+
+    /**
+     * Asigna la partición a las filas creadas antes de existir la columna dia
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE) // antes de precargar UltimaUbicacionCache
+    public void completarParticiones() {
+        Integer actualizadas = transactionTemplate.execute(status -> ubicacionRepository.completarDiaFaltante());
+        if (actualizadas != null && actualizadas > 0) {
+            log.info("Partición diaria asignada a {} ubicaciones existentes", actualizadas);
+        }
+    }
+
+    /**
+     * Resume y elimina las particiones vencidas. Cada día se procesa en su propia
+     * transacción para no mantener abierta una transacción sobre todo el histórico.
+     */
+    @Scheduled(cron = "${tracking.retencion.cron:0 15 3 * * *}")
+    public void aplicarRetencion() {
+        LocalDate hoy = LocalDate.now();
+        List<LocalDate> vencidos = ubicacionRepository.findDiasAnterioresA(hoy.minusDays(diasCrudos));
+
+        for (LocalDate dia : vencidos) {
+            transactionTemplate.executeWithoutResult(status -> {
+                int resumenes = ubicacionMinutoRepository.resumirDia(dia);
+                int eliminadas = ubicacionRepository.deleteByDia(dia);
+                log.info("Partición {} resumida: {} ubicaciones -> {} minutos", dia, eliminadas, resumenes);
+            });
+        }
+
+        Integer resumenesEliminados = transactionTemplate.execute(
+                status -> ubicacionMinutoRepository.deleteByDiaBefore(hoy.minusDays(diasResumen)));
+        if (resumenesEliminados != null && resumenesEliminados > 0) {
+            log.info("Retención de resúmenes: {} minutos eliminados", resumenesEliminados);
+        }
+    }
+}
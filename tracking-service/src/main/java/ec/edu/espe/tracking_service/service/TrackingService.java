@@ -1,18 +1,25 @@
 package ec.edu.espe.tracking_service.service;
 
+import ec.edu.espe.tracking_service.dto.EtaResponse;
+import ec.edu.espe.tracking_service.dto.RepartidorCercano;
 import ec.edu.espe.tracking_service.dto.UbicacionRequest;
 import ec.edu.espe.tracking_service.event.UbicacionEvent;
 import ec.edu.espe.tracking_service.model.Ubicacion;
+import ec.edu.espe.tracking_service.model.UbicacionMinuto;
+import ec.edu.espe.tracking_service.repository.UbicacionMinutoRepository;
 import ec.edu.espe.tracking_service.repository.UbicacionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -21,20 +28,82 @@ import java.util.UUID;
 public class TrackingService {
     
     private final UbicacionRepository ubicacionRepository;
-    private final RabbitTemplate rabbitTemplate;
-    
-    @Value("${rabbitmq.exchanges.tracking}")
-    private String trackingExchange;
-    
-    @Value("${rabbitmq.routing-keys.ubicacion}")
-    private String ubicacionRoutingKey;
+    private final UbicacionEventPublisher ubicacionEventPublisher;
+    private final UltimaUbicacionCache ultimaUbicacionCache;
+    private final UbicacionMinutoRepository ubicacionMinutoRepository;
+    private final GeocercaService geocercaService;
+    private final EtaService etaService;
     
     /**
      * Registra una nueva ubicación y publica evento en RabbitMQ
+     * (la caché, las geocercas, la ETA y el evento se actualizan recién tras el commit)
      */
     @Transactional
     public Ubicacion registrarUbicacion(UbicacionRequest request) {
         // Guardar en base de datos
+        Ubicacion saved = ubicacionRepository.save(construirUbicacion(request, LocalDateTime.now()));
+        log.info("Ubicación registrada: Repartidor={}, Lat={}, Lng={}", 
+                 saved.getRepartidorId(), saved.getLatitud(), saved.getLongitud());
+        despuesDelCommit(() -> {
+            ultimaUbicacionCache.actualizar(saved);
+            geocercaService.evaluar(List.of(saved));
+            etaService.registrar(List.of(saved));
+            
+            // Publicar evento en RabbitMQ
+            publicarEvento(saved);
+        });
+        
+        return saved;
+    }
+    
+    /**
+     * Registra un lote de ubicaciones (p. ej. las que el dispositivo acumuló sin cobertura).
+     * Cada una conserva su hora de captura y se procesan en orden cronológico.
+     * Los INSERT se agrupan en lotes JDBC y los eventos se publican sobre un único canal.
+     */
+    @Transactional
+    public List<Ubicacion> registrarUbicaciones(List<UbicacionRequest> requests) {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<Ubicacion> ubicaciones = new ArrayList<>(requests.size());
+        for (UbicacionRequest request : requests) {
+            ubicaciones.add(construirUbicacion(request, ahora));
+        }
+        ubicaciones.sort(Comparator.comparing(Ubicacion::getTimestamp));
+        
+        List<Ubicacion> saved = ubicacionRepository.saveAll(ubicaciones);
+        log.info("Lote de ubicaciones registrado: {} registros", saved.size());
+        despuesDelCommit(() -> {
+            saved.forEach(ultimaUbicacionCache::actualizar);
+            geocercaService.evaluar(saved);
+            etaService.registrar(saved);
+            
+            publicarEventos(saved);
+        });
+        
+        return saved;
+    }
+    
+    /**
+     * Ejecuta la acción cuando la transacción confirma; si hace rollback las ubicaciones
+     * nunca llegan a la caché ni a los eventos. Sin transacción activa se ejecuta de inmediato.
+     */
+    private void despuesDelCommit(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+    
+    /**
+     * La hora del servidor solo se usa si el dispositivo no envió la de captura
+     */
+    private Ubicacion construirUbicacion(UbicacionRequest request, LocalDateTime horaServidor) {
         Ubicacion ubicacion = new Ubicacion();
         ubicacion.setRepartidorId(request.getRepartidorId());
         ubicacion.setLatitud(request.getLatitud());
@@ -43,53 +112,59 @@ public class TrackingService {
         ubicacion.setPedidoId(request.getPedidoId());
         ubicacion.setDireccion(request.getDireccion());
         ubicacion.setVelocidad(request.getVelocidad());
-        ubicacion.setTimestamp(LocalDateTime.now());
-        
-        Ubicacion saved = ubicacionRepository.save(ubicacion);
-        log.info("Ubicación registrada: Repartidor={}, Lat={}, Lng={}", 
-                 saved.getRepartidorId(), saved.getLatitud(), saved.getLongitud());
-        
-        // Publicar evento en RabbitMQ
-        publicarEvento(saved);
-        
-        return saved;
+        ubicacion.setTimestamp(request.getTimestamp() != null ? request.getTimestamp() : horaServidor);
+        return ubicacion;
     }
     
     /**
      * Publica evento de ubicación actualizada en RabbitMQ
      */
     private void publicarEvento(Ubicacion ubicacion) {
-        try {
-            UbicacionEvent event = new UbicacionEvent(
-                UUID.randomUUID().toString(), // eventId para idempotencia
-                ubicacion.getRepartidorId(),
-                ubicacion.getLatitud(),
-                ubicacion.getLongitud(),
-                ubicacion.getTimestamp(),
-                ubicacion.getEstado(),
-                ubicacion.getPedidoId(),
-                ubicacion.getVelocidad(),
-                ubicacion.getDireccion()
-            );
-            
-            rabbitTemplate.convertAndSend(trackingExchange, ubicacionRoutingKey, event);
-            log.info("Evento publicado en RabbitMQ: {}", event.getEventId());
-            
-        } catch (Exception e) {
-            log.error("Error al publicar evento en RabbitMQ", e);
-            // No lanzamos excepción para no afectar la transacción principal
+        ubicacionEventPublisher.publicar(crearEvento(ubicacion));
+    }
+    
+    /**
+     * Publica los eventos de un lote reutilizando un mismo canal de RabbitMQ
+     */
+    private void publicarEventos(List<Ubicacion> ubicaciones) {
+        List<UbicacionEvent> eventos = new ArrayList<>(ubicaciones.size());
+        for (Ubicacion ubicacion : ubicaciones) {
+            eventos.add(crearEvento(ubicacion));
         }
+        ubicacionEventPublisher.publicarLote(eventos);
+    }
+    
+    private UbicacionEvent crearEvento(Ubicacion ubicacion) {
+        return new UbicacionEvent(
+            UUID.randomUUID().toString(), // eventId para idempotencia
+            ubicacion.getRepartidorId(),
+            ubicacion.getLatitud(),
+            ubicacion.getLongitud(),
+            ubicacion.getTimestamp(),
+            ubicacion.getEstado(),
+            ubicacion.getPedidoId(),
+            ubicacion.getVelocidad(),
+            ubicacion.getDireccion()
+        );
     }
     
     /**
      * Obtiene la última ubicación de un repartidor
+     * (desde memoria; solo consulta la BD si el repartidor no está activo)
      */
     public Ubicacion obtenerUltimaUbicacion(Long repartidorId) {
-        return ubicacionRepository
-                .findFirstByRepartidorIdOrderByTimestampDesc(repartidorId)
+        return ultimaUbicacionCache.obtener(repartidorId)
+                .or(() -> ubicacionRepository.findFirstByRepartidorIdOrderByTimestampDesc(repartidorId))
                 .orElseThrow(() -> new RuntimeException("No se encontró ubicación para el repartidor " + repartidorId));
     }
     
+    /**
+     * Obtiene el tiempo estimado de llegada de un pedido
+     */
+    public EtaResponse obtenerEta(Long pedidoId) {
+        return etaService.obtenerEta(pedidoId);
+    }
+    
     /**
      * Obtiene el histórico de ubicaciones de un repartidor
      */
@@ -106,11 +181,17 @@ public class TrackingService {
     
     /**
      * Obtiene últimas ubicaciones de todos los repartidores activos
-     * (últimos 30 minutos)
+     * (dentro de la ventana de actividad, 30 minutos por defecto)
      */
     public List<Ubicacion> obtenerRepartidoresActivos() {
-        LocalDateTime hace30Min = LocalDateTime.now().minusMinutes(30);
-        return ubicacionRepository.findLatestUbicacionesActivas(hace30Min);
+        return ultimaUbicacionCache.activas();
+    }
+    
+    /**
+     * Obtiene los repartidores activos más cercanos a un punto
+     */
+    public List<RepartidorCercano> obtenerRepartidoresCercanos(double latitud, double longitud, double radioKm, int limite) {
+        return ultimaUbicacionCache.cercanos(latitud, longitud, radioKm, limite);
     }
     
     /**
@@ -119,4 +200,18 @@ public class TrackingService {
     public List<Ubicacion> obtenerPorRangoTiempo(Long repartidorId, LocalDateTime inicio, LocalDateTime fin) {
         return ubicacionRepository.findByRepartidorAndTimeRange(repartidorId, inicio, fin);
     }
+    
+    /**
+     * Obtiene el resumen por minuto (datos ya fuera de la retención de ubicaciones crudas)
+     */
+    public List<UbicacionMinuto> obtenerResumenPorMinuto(Long repartidorId, LocalDateTime inicio, LocalDateTime fin) {
+        return ubicacionMinutoRepository.findByRepartidorIdAndMinutoBetweenOrderByMinutoAsc(repartidorId, inicio, fin);
+    }
+    
+    /**
+     * Métricas de la coalescencia de eventos de ubicación
+     */
+    public Map<String, Object> obtenerMetricasCoalescencia() {
+        return ubicacionEventPublisher.metricas();
+    }
 }
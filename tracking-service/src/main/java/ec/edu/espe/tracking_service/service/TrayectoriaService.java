@@ -0,0 +1,130 @@
+package ec.edu.espe.tracking_service.service;
+
+import ec.edu.espe.tracking_service.dto.PuntoRuta;
+import ec.edu.espe.tracking_service.dto.TrayectoriaResponse;
+import ec.edu.espe.tracking_service.geo.DouglasPeucker;
+import ec.edu.espe.tracking_service.geo.PolylineEncoder;
+import ec.edu.espe.tracking_service.model.TrayectoriaPedido;
+import ec.edu.espe.tracking_service.repository.TrayectoriaPedidoRepository;
+import ec.edu.espe.tracking_service.repository.UbicacionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Trayectorias simplificadas (Douglas-Peucker) y codificadas como polilínea
+ */
+@Service
+@Slf4j
+public class TrayectoriaService {
+
+    private final UbicacionRepository ubicacionRepository;
+    private final TrayectoriaPedidoRepository trayectoriaPedidoRepository;
+    private final double toleranciaPorDefecto;
+
+    public TrayectoriaService(UbicacionRepository ubicacionRepository,
+                              TrayectoriaPedidoRepository trayectoriaPedidoRepository,
+                              @Value("${tracking.trayectorias.tolerancia-metros:10}") double toleranciaPorDefecto) {
+        this.ubicacionRepository = ubicacionRepository;
+        this.trayectoriaPedidoRepository = trayectoriaPedidoRepository;
+        this.toleranciaPorDefecto = toleranciaPorDefecto;
+    }
+
+    /**
+     * Trayectoria simplificada de un repartidor en un rango de tiempo
+     */
+    @Transactional(readOnly = true)
+    public TrayectoriaResponse trayectoriaRepartidor(Long repartidorId, LocalDateTime inicio,
+                                                     LocalDateTime fin, Double toleranciaMetros) {
+        List<PuntoRuta> puntos = ubicacionRepository.findPuntosByRepartidorAndTimeRange(repartidorId, inicio, fin);
+        TrayectoriaResponse trayectoria = simplificar(puntos, tolerancia(toleranciaMetros));
+        trayectoria.setRepartidorId(repartidorId);
+        return trayectoria;
+    }
+
+    /**
+     * Trayectoria simplificada de un pedido; usa la precalculada si la tolerancia coincide
+     */
+    @Transactional(readOnly = true)
+    public TrayectoriaResponse trayectoriaPedido(Long pedidoId, Double toleranciaMetros) {
+        double tolerancia = tolerancia(toleranciaMetros);
+        return trayectoriaPedidoRepository.findById(pedidoId)
+                .filter(guardada -> guardada.getToleranciaMetros() == tolerancia)
+                .map(this::toResponse)
+                .orElseGet(() -> {
+                    TrayectoriaResponse trayectoria = simplificar(ubicacionRepository.findPuntosByPedido(pedidoId), tolerancia);
+                    trayectoria.setPedidoId(pedidoId);
+                    return trayectoria;
+                });
+    }
+
+    /**
+     * Precalcula y guarda la trayectoria de un pedido cerrado con la tolerancia por defecto
+     */
+    @Transactional
+    public void precalcularTrayectoriaPedido(Long pedidoId) {
+        List<PuntoRuta> puntos = ubicacionRepository.findPuntosByPedido(pedidoId);
+        if (puntos.isEmpty()) {
+            log.info("Pedido {} cerrado sin ubicaciones registradas, no se precalcula trayectoria", pedidoId);
+            return;
+        }
+
+        TrayectoriaResponse trayectoria = simplificar(puntos, toleranciaPorDefecto);
+        trayectoriaPedidoRepository.save(new TrayectoriaPedido(
+                pedidoId,
+                trayectoria.getToleranciaMetros(),
+                trayectoria.getPuntosOriginales(),
+                trayectoria.getPuntosSimplificados(),
+                trayectoria.getPolyline(),
+                trayectoria.getInicio(),
+                trayectoria.getFin(),
+                LocalDateTime.now()
+        ));
+        log.info("Trayectoria precalculada para pedido {}: {} -> {} puntos",
+                 pedidoId, trayectoria.getPuntosOriginales(), trayectoria.getPuntosSimplificados());
+    }
+
+    private TrayectoriaResponse simplificar(List<PuntoRuta> puntos, double toleranciaMetros) {
+        int n = puntos.size();
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        for (int i = 0; i < n; i++) {
+            latitudes[i] = puntos.get(i).getLatitud();
+            longitudes[i] = puntos.get(i).getLongitud();
+        }
+
+        List<Integer> indices = DouglasPeucker.simplificar(latitudes, longitudes, toleranciaMetros);
+
+        TrayectoriaResponse trayectoria = new TrayectoriaResponse();
+        trayectoria.setToleranciaMetros(toleranciaMetros);
+        trayectoria.setPuntosOriginales(n);
+        trayectoria.setPuntosSimplificados(indices.size());
+        trayectoria.setPolyline(PolylineEncoder.codificar(latitudes, longitudes, indices));
+        if (n > 0) {
+            trayectoria.setInicio(puntos.get(0).getTimestamp());
+            trayectoria.setFin(puntos.get(n - 1).getTimestamp());
+        }
+        return trayectoria;
+    }
+
+    private TrayectoriaResponse toResponse(TrayectoriaPedido guardada) {
+        return new TrayectoriaResponse(
+                null,
+                guardada.getPedidoId(),
+                guardada.getToleranciaMetros(),
+                guardada.getPuntosOriginales(),
+                guardada.getPuntosSimplificados(),
+                guardada.getPolyline(),
+                guardada.getInicio(),
+                guardada.getFin()
+        );
+    }
+
+    private double tolerancia(Double toleranciaMetros) {
+        return toleranciaMetros != null ? toleranciaMetros : toleranciaPorDefecto;
+    }
+}
@@ -0,0 +1,170 @@
+package ec.edu.espe.tracking_service.service;
+
+import ec.edu.espe.tracking_service.event.UbicacionEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publica eventos de ubicación en RabbitMQ.
+ * Con la coalescencia habilitada publica como máximo un evento por repartidor por intervalo
+ * (gana el más reciente); los cambios de estado o de pedido se publican siempre de inmediato.
+ */
+@Component
+@Slf4j
+public class UbicacionEventPublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final String trackingExchange;
+    private final String ubicacionRoutingKey;
+    private final boolean coalescenciaHabilitada;
+    private final long intervaloMs;
+
+    private final Map<Long, EstadoRepartidor> estados = new ConcurrentHashMap<>();
+    private final AtomicLong recibidos = new AtomicLong();
+    private final AtomicLong publicados = new AtomicLong();
+    private final AtomicLong descartados = new AtomicLong();
+    private final AtomicLong fallidos = new AtomicLong();
+
+    public UbicacionEventPublisher(RabbitTemplate rabbitTemplate,
+                                   @Value("${rabbitmq.exchanges.tracking}") String trackingExchange,
+                                   @Value("${rabbitmq.routing-keys.ubicacion}") String ubicacionRoutingKey,
+                                   @Value("${tracking.coalescencia.habilitada:false}") boolean coalescenciaHabilitada,
+                                   @Value("${tracking.coalescencia.intervalo-ms:1000}") long intervaloMs) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.trackingExchange = trackingExchange;
+        this.ubicacionRoutingKey = ubicacionRoutingKey;
+        this.coalescenciaHabilitada = coalescenciaHabilitada;
+        this.intervaloMs = intervaloMs;
+    }
+
+    /**
+     * Publica (o retiene, si corresponde coalescer) un evento
+     */
+    public void publicar(UbicacionEvent event) {
+        publicarLote(List.of(event));
+    }
+
+    /**
+     * Publica un lote de eventos reutilizando un mismo canal de RabbitMQ
+     */
+    public void publicarLote(List<UbicacionEvent> eventos) {
+        recibidos.addAndGet(eventos.size());
+        enviar(coalescenciaHabilitada ? filtrar(eventos) : eventos);
+    }
+
+    /**
+     * Métricas de la etapa de coalescencia
+     */
+    public Map<String, Object> metricas() {
+        Map<String, Object> metricas = new LinkedHashMap<>();
+        metricas.put("habilitada", coalescenciaHabilitada);
+        metricas.put("intervaloMs", intervaloMs);
+        metricas.put("recibidos", recibidos.get());
+        metricas.put("publicados", publicados.get());
+        metricas.put("descartados", descartados.get());
+        metricas.put("fallidos", fallidos.get());
+        metricas.put("pendientes", estados.values().stream().filter(e -> e.pendiente != null).count());
+        return metricas;
+    }
+
+    /**
+     * Publica los eventos retenidos cuyo intervalo ya venció y olvida a los repartidores inactivos
+     */
+    @Scheduled(fixedDelayString = "${tracking.coalescencia.intervalo-ms:1000}")
+    public void vaciarPendientes() {
+        if (!coalescenciaHabilitada) {
+            return;
+        }
+        long ahora = System.currentTimeMillis();
+        List<UbicacionEvent> vencidos = new ArrayList<>();
+        for (Long repartidorId : estados.keySet()) {
+            estados.computeIfPresent(repartidorId, (id, estado) -> {
+                if (estado.pendiente != null && ahora - estado.ultimoEnvioMs >= intervaloMs) {
+                    vencidos.add(estado.pendiente);
+                    estado.registrarEnvio(estado.pendiente, ahora);
+                    return estado;
+                }
+                // Sin pendientes y sin actividad reciente: se libera la entrada
+                return estado.pendiente == null && ahora - estado.ultimoEnvioMs > 60 * intervaloMs ? null : estado;
+            });
+        }
+        enviar(vencidos);
+    }
+
+    private List<UbicacionEvent> filtrar(List<UbicacionEvent> eventos) {
+        long ahora = System.currentTimeMillis();
+        List<UbicacionEvent> inmediatos = new ArrayList<>(eventos.size());
+        for (UbicacionEvent event : eventos) {
+            estados.compute(event.getRepartidorId(), (id, estado) -> {
+                if (estado == null) {
+                    estado = new EstadoRepartidor();
+                } else if (estado.pendiente != null) {
+                    // El evento retenido queda reemplazado por uno más reciente
+                    descartados.incrementAndGet();
+                    estado.pendiente = null;
+                }
+
+                boolean cambioRelevante = !Objects.equals(estado.ultimoEstado, event.getEstado())
+                        || !Objects.equals(estado.ultimoPedidoId, event.getPedidoId());
+                if (estado.ultimoEnvioMs == 0 || cambioRelevante || ahora - estado.ultimoEnvioMs >= intervaloMs) {
+                    inmediatos.add(event);
+                    estado.registrarEnvio(event, ahora);
+                } else {
+                    estado.pendiente = event;
+                }
+                return estado;
+            });
+        }
+        return inmediatos;
+    }
+
+    private void enviar(List<UbicacionEvent> eventos) {
+        if (eventos.isEmpty()) {
+            return;
+        }
+        try {
+            if (eventos.size() == 1) {
+                rabbitTemplate.convertAndSend(trackingExchange, ubicacionRoutingKey, eventos.get(0));
+            } else {
+                rabbitTemplate.invoke(operations -> {
+                    for (UbicacionEvent event : eventos) {
+                        operations.convertAndSend(trackingExchange, ubicacionRoutingKey, event);
+                    }
+                    return null;
+                });
+            }
+            publicados.addAndGet(eventos.size());
+            log.info("{} evento(s) de ubicación publicados en RabbitMQ", eventos.size());
+
+        } catch (Exception e) {
+            fallidos.addAndGet(eventos.size());
+            log.error("Error al publicar eventos de ubicación en RabbitMQ", e);
+            // No lanzamos excepción para no afectar la transacción principal
+        }
+    }
+
+    private static class EstadoRepartidor {
+        private long ultimoEnvioMs;
+        private String ultimoEstado;
+        private Long ultimoPedidoId;
+        private UbicacionEvent pendiente;
+
+        private void registrarEnvio(UbicacionEvent event, long ahora) {
+            ultimoEnvioMs = ahora;
+            ultimoEstado = event.getEstado();
+            ultimoPedidoId = event.getPedidoId();
+            pendiente = null;
+        }
+    }
+}
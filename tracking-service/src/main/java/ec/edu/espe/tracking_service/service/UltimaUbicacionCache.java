@@ -0,0 +1,146 @@
+package ec.edu.espe.tracking_service.service;
+
+import ec.edu.espe.tracking_service.dto.RepartidorCercano;
+import ec.edu.espe.tracking_service.geo.IndiceGrilla;
+import ec.edu.espe.tracking_service.model.Ubicacion;
+import ec.edu.espe.tracking_service.repository.UbicacionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro en memoria de la última ubicación conocida de cada repartidor.
+ * Atiende las consultas de "última ubicación" y "repartidores activos" sin ir a H2.
+ * Las entradas expiran tras la ventana de inactividad configurada.
+ * Mantiene además un índice espacial de grilla para búsquedas de repartidores cercanos.
+ */
+@Component
+@Slf4j
+public class UltimaUbicacionCache {
+
+    private final UbicacionRepository ubicacionRepository;
+    private final Duration ventanaInactividad;
+    private final IndiceGrilla indice;
+    private final Map<Long, Ubicacion> ultimas = new ConcurrentHashMap<>();
+
+    public UltimaUbicacionCache(UbicacionRepository ubicacionRepository,
+                                @Value("${tracking.activos.ventana-minutos:30}") long ventanaMinutos,
+                                @Value("${tracking.cercanos.celda-grados:0.01}") double celdaGrados) {
+        this.ubicacionRepository = ubicacionRepository;
+        this.ventanaInactividad = Duration.ofMinutes(ventanaMinutos);
+        this.indice = new IndiceGrilla(celdaGrados);
+    }
+
+    /**
+     * Precarga el registro con las últimas ubicaciones de la ventana activa
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void precargar() {
+        List<Ubicacion> activas = ubicacionRepository.findLatestUbicacionesActivas(limiteActividad());
+        activas.forEach(this::actualizar);
+        log.info("Registro de últimas ubicaciones precargado: {} repartidores", ultimas.size());
+    }
+
+    /**
+     * Registra una ubicación si es más reciente que la conocida para su repartidor
+     */
+    public void actualizar(Ubicacion ubicacion) {
+        // compute serializa las actualizaciones de un mismo repartidor, también sobre el índice espacial
+        ultimas.compute(ubicacion.getRepartidorId(), (repartidorId, actual) -> {
+            if (actual != null && actual.getTimestamp().isAfter(ubicacion.getTimestamp())) {
+                return actual;
+            }
+            indice.actualizar(repartidorId, ubicacion.getLatitud(), ubicacion.getLongitud());
+            return ubicacion;
+        });
+    }
+
+    /**
+     * Repartidores activos más cercanos a un punto, ordenados por distancia
+     */
+    public List<RepartidorCercano> cercanos(double latitud, double longitud, double radioKm, int limite) {
+        // Los expirados (aún no purgados) se descartan antes del top-k para no ocupar lugares
+        LocalDateTime limiteActividad = limiteActividad();
+        List<IndiceGrilla.Vecino> vecinos = indice.cercanos(latitud, longitud, radioKm, limite, id -> {
+            Ubicacion ubicacion = ultimas.get(id);
+            return ubicacion != null && !ubicacion.getTimestamp().isBefore(limiteActividad);
+        });
+        List<RepartidorCercano> resultado = new ArrayList<>(vecinos.size());
+        for (IndiceGrilla.Vecino vecino : vecinos) {
+            obtener(vecino.id()).ifPresent(ubicacion -> resultado.add(new RepartidorCercano(
+                    ubicacion.getRepartidorId(),
+                    ubicacion.getLatitud(),
+                    ubicacion.getLongitud(),
+                    vecino.distanciaKm(),
+                    ubicacion.getEstado(),
+                    ubicacion.getPedidoId(),
+                    ubicacion.getTimestamp()
+            )));
+        }
+        return resultado;
+    }
+
+    /**
+     * Última ubicación del repartidor, si sigue dentro de la ventana de actividad
+     */
+    public Optional<Ubicacion> obtener(Long repartidorId) {
+        Ubicacion ubicacion = ultimas.get(repartidorId);
+        if (ubicacion == null || ubicacion.getTimestamp().isBefore(limiteActividad())) {
+            return Optional.empty();
+        }
+        return Optional.of(ubicacion);
+    }
+
+    /**
+     * Últimas ubicaciones de todos los repartidores activos
+     */
+    public List<Ubicacion> activas() {
+        LocalDateTime limite = limiteActividad();
+        List<Ubicacion> resultado = new ArrayList<>(ultimas.size());
+        for (Ubicacion ubicacion : ultimas.values()) {
+            if (!ubicacion.getTimestamp().isBefore(limite)) {
+                resultado.add(ubicacion);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Elimina periódicamente los repartidores sin reportes dentro de la ventana
+     */
+    @Scheduled(fixedDelayString = "${tracking.activos.purga-ms:60000}")
+    public void purgarInactivos() {
+        LocalDateTime limite = limiteActividad();
+        int eliminados = 0;
+        for (Long repartidorId : ultimas.keySet()) {
+            Ubicacion vigente = ultimas.computeIfPresent(repartidorId, (id, ubicacion) -> {
+                if (!ubicacion.getTimestamp().isBefore(limite)) {
+                    return ubicacion;
+                }
+                indice.eliminar(id);
+                return null;
+            });
+            if (vigente == null) {
+                eliminados++;
+            }
+        }
+        if (eliminados > 0) {
+            log.info("Registro de últimas ubicaciones: {} repartidores inactivos eliminados", eliminados);
+        }
+    }
+
+    private LocalDateTime limiteActividad() {
+        return LocalDateTime.now().minus(ventanaInactividad);
+    }
+}
@@ -0,0 +1,126 @@
+package ec.edu.espe.tracking_service.config;
+
+import ec.edu.espe.tracking_service.event.UbicacionEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.SimpleMessageConverter;
+
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Formato binario de ubicaciones. Los bytes fijos de {@code FIXTURE_*} son el contrato con los
+ * decodificadores de notification-service y websocket-service, que prueban los mismos bytes:
+ * si el formato cambia, las tres pruebas deben actualizarse juntas.
+ */
+class UbicacionBinaryMessageConverterTest {
+
+    // eventId UUID, todos los campos opcionales, estado conocido
+    static final String FIXTURE_COMPLETO =
+            "01073f2504e04f8941d39a0c0305e82c33012affe46f3cd13ac21283d1d489bc3301d209f71b0c41762e20416d617a6f6e6173";
+    // eventId de texto, sin opcionales, estado nulo
+    static final String FIXTURE_MINIMO =
+            "01080c6576742d6c65676163792d37070000000000000000c0f0d189bc3300";
+    // UUID no canónico (mayúsculas) como texto, estado de texto, varints de 3 bytes (repartidorId)
+    // y de 2 bytes (dirección de 179 bytes con caracteres multibyte)
+    static final String FIXTURE_VARINTS = "010c2433463235303445302d344638392d343144332d394130432d303330354538324333333031"
+            + "e0a712feb1ec10d061e55ac5f0d189bc33ff08454e5f5041555341b301"
+            + "43616c6c6520c3912043616c6c6520c3912043616c6c6520c3912043616c6c6520c3912043616c6c6520c39120"
+            + "43616c6c6520c3912043616c6c6520c3912043616c6c6520c3912043616c6c6520c3912043616c6c6520c39120"
+            + "43616c6c6520c3912043616c6c6520c3912043616c6c6520c3912043616c6c6520c3912043616c6c6520c39120"
+            + "43616c6c6520c3912043616c6c6520c3912043616c6c6520c3912043616c6c6520c3912043616c6c6520c391";
+
+    private final UbicacionBinaryMessageConverter converter = new UbicacionBinaryMessageConverter(new SimpleMessageConverter());
+
+    @Test
+    void codificaLosFixturesByteABByte() {
+        assertArrayEquals(hex(FIXTURE_COMPLETO), codificar(completo()));
+        assertArrayEquals(hex(FIXTURE_MINIMO), codificar(minimo()));
+        assertArrayEquals(hex(FIXTURE_VARINTS), codificar(varints()));
+    }
+
+    @Test
+    void decodificaLosFixtures() {
+        assertEquals(completo(), decodificar(hex(FIXTURE_COMPLETO)));
+        assertEquals(minimo(), decodificar(hex(FIXTURE_MINIMO)));
+        assertEquals(varints(), decodificar(hex(FIXTURE_VARINTS)));
+    }
+
+    @Test
+    void idaYVueltaConValoresAleatorios() {
+        Random random = new Random(11);
+        for (int i = 0; i < 5000; i++) {
+            UbicacionEvent event = new UbicacionEvent(
+                    random.nextBoolean() ? UUID.randomUUID().toString() : "evt-" + random.nextInt(),
+                    (long) random.nextInt(Integer.MAX_VALUE) * (random.nextBoolean() ? 1 : 1_000),
+                    Math.round((random.nextDouble() * 180 - 90) * 1e7) / 1e7,
+                    Math.round((random.nextDouble() * 360 - 180) * 1e7) / 1e7,
+                    LocalDateTime.of(2026, 1, 1, 0, 0).plusNanos(random.nextInt(1_000_000_000) * 1_000_000L),
+                    new String[] {null, "EN_RUTA", "DETENIDO", "ENTREGANDO", "OTRO"}[random.nextInt(5)],
+                    random.nextBoolean() ? (long) random.nextInt(1 << 30) : null,
+                    random.nextBoolean() ? random.nextInt(20_000) / 100.0 : null,
+                    random.nextBoolean() ? "Dirección " + "x".repeat(random.nextInt(300)) : null);
+
+            assertEquals(event, decodificar(codificar(event)));
+        }
+    }
+
+    @Test
+    void otrosObjetosYContentTypesSeDelegan() {
+        Message message = converter.toMessage("texto", new MessageProperties());
+
+        assertEquals("text/plain", message.getMessageProperties().getContentType());
+        assertEquals("texto", converter.fromMessage(message));
+    }
+
+    @Test
+    void versionDesconocidaOTruncadoEsError() {
+        byte[] otraVersion = hex(FIXTURE_MINIMO);
+        otraVersion[0] = 2;
+        byte[] completo = hex(FIXTURE_COMPLETO);
+        byte[] truncado = java.util.Arrays.copyOf(completo, completo.length - 3);
+
+        assertThrows(MessageConversionException.class, () -> decodificar(otraVersion));
+        assertThrows(MessageConversionException.class, () -> decodificar(truncado));
+    }
+
+    static UbicacionEvent completo() {
+        return new UbicacionEvent("3f2504e0-4f89-41d3-9a0c-0305e82c3301", 42L, -0.1806532, -78.4678382,
+                LocalDateTime.of(2026, 1, 15, 10, 30, 45, 123_000_000), "EN_RUTA", 1234L, 35.75, "Av. Amazonas");
+    }
+
+    static UbicacionEvent minimo() {
+        return new UbicacionEvent("evt-legacy-7", 7L, 0.0, 0.0, LocalDateTime.of(2026, 1, 15, 10, 30),
+                null, null, null, null);
+    }
+
+    static UbicacionEvent varints() {
+        return new UbicacionEvent("3F2504E0-4F89-41D3-9A0C-0305E82C3301", 300_000L, -2.1894128, -79.8890662,
+                LocalDateTime.of(2026, 1, 15, 10, 30, 0, 5_000_000), "EN_PAUSA", null, null,
+                "Calle Ñ ".repeat(20).trim());
+    }
+
+    private byte[] codificar(UbicacionEvent event) {
+        Message message = converter.toMessage(event, new MessageProperties());
+        assertEquals(UbicacionBinaryMessageConverter.CONTENT_TYPE, message.getMessageProperties().getContentType());
+        return message.getBody();
+    }
+
+    private UbicacionEvent decodificar(byte[] body) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(UbicacionBinaryMessageConverter.CONTENT_TYPE);
+        return (UbicacionEvent) converter.fromMessage(new Message(body, properties));
+    }
+
+    private static byte[] hex(String hex) {
+        return HexFormat.of().parseHex(hex);
+    }
+}
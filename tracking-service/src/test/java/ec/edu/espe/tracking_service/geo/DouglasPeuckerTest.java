@@ -0,0 +1,58 @@
+package ec.edu.espe.tracking_service.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Simplificación de trayectorias: tolerancia, extremos y entradas mínimas
+ */
+class DouglasPeuckerTest {
+
+    // Grados de latitud equivalentes a un metro
+    private static final double METRO_EN_GRADOS = 1.0 / (GeoUtils.KM_POR_GRADO_LATITUD * 1000);
+
+    @Test
+    void entradasDeCeroUnoYDosPuntosSeConservanCompletas() {
+        assertEquals(List.of(), DouglasPeucker.simplificar(new double[0], new double[0], 10));
+        assertEquals(List.of(0), DouglasPeucker.simplificar(new double[] {-0.18}, new double[] {-78.48}, 10));
+        assertEquals(List.of(0, 1), DouglasPeucker.simplificar(new double[] {-0.18, -0.19}, new double[] {-78.48, -78.49}, 10));
+    }
+
+    @Test
+    void descartaPuntosColinealesYConservaLosExtremos() {
+        double[] latitudes = {0.0, 0.0, 0.0, 0.0, 0.0};
+        double[] longitudes = {0.0, 0.001, 0.002, 0.003, 0.004};
+
+        assertEquals(List.of(0, 4), DouglasPeucker.simplificar(latitudes, longitudes, 1));
+    }
+
+    @Test
+    void conservaSoloLasDesviacionesMayoresALaTolerancia() {
+        // Recta sobre el ecuador con un desvío de 10 m en el punto 2
+        double[] latitudes = {0.0, 0.0, 10 * METRO_EN_GRADOS, 0.0, 0.0};
+        double[] longitudes = {0.0, 0.001, 0.002, 0.003, 0.004};
+
+        assertEquals(List.of(0, 2, 4), DouglasPeucker.simplificar(latitudes, longitudes, 9));
+        assertEquals(List.of(0, 4), DouglasPeucker.simplificar(latitudes, longitudes, 11));
+    }
+
+    @Test
+    void conservaLosExtremosAunqueLaTrayectoriaVuelvaAlInicio() {
+        // Ida y vuelta: el último punto coincide con el primero y el más lejano debe mantenerse
+        double[] latitudes = {0.0, 0.001, 0.002, 0.001, 0.0};
+        double[] longitudes = {0.0, 0.0, 0.0, 0.0, 0.0};
+
+        assertEquals(List.of(0, 2, 4), DouglasPeucker.simplificar(latitudes, longitudes, 5));
+    }
+
+    @Test
+    void toleranciaNoPositivaNoSimplifica() {
+        double[] latitudes = {0.0, 0.0, 0.0};
+        double[] longitudes = {0.0, 0.001, 0.002};
+
+        assertEquals(List.of(0, 1, 2), DouglasPeucker.simplificar(latitudes, longitudes, 0));
+    }
+}
@@ -0,0 +1,102 @@
+package ec.edu.espe.tracking_service.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Búsquedas de vecinos del índice de grilla: bordes de celda, radio, filtro de vigencia
+ * y equivalencia con un recorrido por fuerza bruta
+ */
+class IndiceGrillaTest {
+
+    private static final double CELDA = 0.01;
+
+    @Test
+    void encuentraPuntosEnCeldasVecinasJustoSobreElBorde() {
+        IndiceGrilla indice = new IndiceGrilla(CELDA);
+        // Consulta en el extremo superior de una celda y puntos en el borde exacto de las celdas vecinas
+        indice.actualizar(1, -0.18, -78.48);
+        indice.actualizar(2, -0.19, -78.49);
+        indice.actualizar(3, -0.18, -78.47);
+
+        List<IndiceGrilla.Vecino> vecinos = indice.cercanos(-0.1801, -78.4801, 5, 10);
+
+        assertEquals(List.of(1L, 3L, 2L), ids(vecinos));
+    }
+
+    @Test
+    void moverUnPuntoDeCeldaLoQuitaDeLaAnterior() {
+        IndiceGrilla indice = new IndiceGrilla(CELDA);
+        indice.actualizar(1, 0.005, 0.005);
+        indice.actualizar(1, 0.5, 0.5);
+
+        assertTrue(indice.cercanos(0.005, 0.005, 1, 10).isEmpty());
+        assertEquals(List.of(1L), ids(indice.cercanos(0.5, 0.5, 1, 10)));
+        assertEquals(1, indice.tamano());
+    }
+
+    @Test
+    void respetaElRadio() {
+        IndiceGrilla indice = new IndiceGrilla(CELDA);
+        // Sobre el ecuador un grado de latitud son ~111.2 km de círculo máximo
+        indice.actualizar(1, 0.0, 0.0);
+        indice.actualizar(2, 0.0089, 0.0); // ~0.99 km
+        indice.actualizar(3, 0.0091, 0.0); // ~1.01 km
+
+        assertEquals(List.of(1L, 2L), ids(indice.cercanos(0.0, 0.0, 1.0, 10)));
+        assertEquals(List.of(1L, 2L, 3L), ids(indice.cercanos(0.0, 0.0, 1.02, 10)));
+    }
+
+    @Test
+    void losNoVigentesNoOcupanLugaresDelTopK() {
+        IndiceGrilla indice = new IndiceGrilla(CELDA);
+        // Los tres más cercanos están expirados; aún así se devuelven tres vigentes
+        for (long id = 1; id <= 6; id++) {
+            indice.actualizar(id, 0.001 * id, 0.0);
+        }
+
+        List<IndiceGrilla.Vecino> vecinos = indice.cercanos(0.0, 0.0, 10, 3, id -> id > 3);
+
+        assertEquals(List.of(4L, 5L, 6L), ids(vecinos));
+    }
+
+    @Test
+    void equivaleAFuerzaBruta() {
+        Random random = new Random(7);
+        IndiceGrilla indice = new IndiceGrilla(CELDA);
+        List<double[]> puntos = new ArrayList<>();
+        for (int id = 0; id < 2000; id++) {
+            double latitud = -0.3 + random.nextDouble() * 0.3;
+            double longitud = -78.6 + random.nextDouble() * 0.3;
+            indice.actualizar(id, latitud, longitud);
+            puntos.add(new double[] {id, latitud, longitud});
+        }
+        for (int consulta = 0; consulta < 200; consulta++) {
+            double latitud = -0.3 + random.nextDouble() * 0.3;
+            double longitud = -78.6 + random.nextDouble() * 0.3;
+            double radioKm = 0.5 + random.nextDouble() * 5;
+            int limite = 1 + random.nextInt(20);
+
+            List<Long> esperados = puntos.stream()
+                    .filter(p -> ((long) p[0]) % 3 != 0)
+                    .filter(p -> GeoUtils.distanciaKm(latitud, longitud, p[1], p[2]) <= radioKm)
+                    .sorted(Comparator.comparingDouble(p -> GeoUtils.distanciaKm(latitud, longitud, p[1], p[2])))
+                    .limit(limite)
+                    .map(p -> (long) p[0])
+                    .toList();
+
+            assertEquals(esperados, ids(indice.cercanos(latitud, longitud, radioKm, limite, id -> id % 3 != 0)));
+        }
+    }
+
+    private static List<Long> ids(List<IndiceGrilla.Vecino> vecinos) {
+        return vecinos.stream().map(IndiceGrilla.Vecino::id).toList();
+    }
+}
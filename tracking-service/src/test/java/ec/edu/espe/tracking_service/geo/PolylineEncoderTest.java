@@ -0,0 +1,40 @@
+package ec.edu.espe.tracking_service.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Codificación contra los ejemplos de la documentación del Encoded Polyline Algorithm de Google
+ */
+class PolylineEncoderTest {
+
+    @Test
+    void ejemploDeLaDocumentacion() {
+        double[] latitudes = {38.5, 40.7, 43.252};
+        double[] longitudes = {-120.2, -120.95, -126.453};
+
+        assertEquals("_p~iF~ps|U_ulLnnqC_mqNvxq`@", PolylineEncoder.codificar(latitudes, longitudes, List.of(0, 1, 2)));
+    }
+
+    @Test
+    void valorNegativoDeLaDocumentacion() {
+        // -179.9832104 se documenta como "`~oia@"; la longitud 0 se codifica como "?"
+        assertEquals("`~oia@?", PolylineEncoder.codificar(new double[] {-179.9832104}, new double[] {0.0}, List.of(0)));
+    }
+
+    @Test
+    void soloCodificaLosIndicesIndicados() {
+        double[] latitudes = {38.5, 0.0, 40.7, 0.0, 43.252};
+        double[] longitudes = {-120.2, 0.0, -120.95, 0.0, -126.453};
+
+        assertEquals("_p~iF~ps|U_ulLnnqC_mqNvxq`@", PolylineEncoder.codificar(latitudes, longitudes, List.of(0, 2, 4)));
+    }
+
+    @Test
+    void sinPuntosDevuelveCadenaVacia() {
+        assertEquals("", PolylineEncoder.codificar(new double[0], new double[0], List.of()));
+    }
+}
@@ -0,0 +1,76 @@
+package ec.edu.espe.tracking_service.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import ec.edu.espe.tracking_service.model.Ubicacion;
+import ec.edu.espe.tracking_service.repository.UbicacionRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Exportación NDJSON: una línea JSON por ubicación y sin flush por fila
+ */
+class ExportacionUbicacionesServiceTest {
+
+    private static final int FILAS = 2_000;
+
+    private final UbicacionRepository repository = mock(UbicacionRepository.class);
+    // FLUSH_AFTER_WRITE_VALUE viene activo por defecto, como en el ObjectMapper de Spring Boot
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final ExportacionUbicacionesService service = new ExportacionUbicacionesService(
+            repository, mock(EntityManager.class), objectMapper, mock(PlatformTransactionManager.class));
+
+    @Test
+    void ndjsonSinFlushPorFila() throws Exception {
+        when(repository.streamByRepartidorIdOrderByTimestampDesc(7L)).thenReturn(
+                LongStream.rangeClosed(1, FILAS).mapToObj(ExportacionUbicacionesServiceTest::ubicacion));
+        SalidaContada salida = new SalidaContada();
+
+        service.exportarHistorico(7L, ExportacionUbicacionesService.FORMATO_NDJSON).writeTo(salida);
+
+        String[] lineas = salida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(FILAS, lineas.length);
+        JsonNode primera = objectMapper.readTree(lineas[0]);
+        assertEquals(1, primera.get("id").asLong());
+        assertEquals("2026-01-15T10:00:01", primera.get("timestamp").asText());
+        assertEquals(FILAS, objectMapper.readTree(lineas[FILAS - 1]).get("id").asLong());
+        // Un flush al terminar (y a lo sumo otro al cerrar el generador), no uno por fila
+        assertTrue(salida.flushes <= 2, "flushes: " + salida.flushes);
+    }
+
+    private static Ubicacion ubicacion(long id) {
+        Ubicacion ubicacion = new Ubicacion();
+        ubicacion.setId(id);
+        ubicacion.setRepartidorId(7L);
+        ubicacion.setLatitud(-0.18);
+        ubicacion.setLongitud(-78.46);
+        ubicacion.setTimestamp(LocalDateTime.of(2026, 1, 15, 10, 0).plusSeconds(id));
+        ubicacion.setEstado("EN_RUTA");
+        return ubicacion;
+    }
+
+    private static final class SalidaContada extends ByteArrayOutputStream {
+        private int flushes;
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package ec.edu.espe.tracking_service.service;
+
+import ec.edu.espe.tracking_service.dto.UbicacionRequest;
+import ec.edu.espe.tracking_service.model.Ubicacion;
+import ec.edu.espe.tracking_service.repository.UbicacionMinutoRepository;
+import ec.edu.espe.tracking_service.repository.UbicacionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * La caché, las geocercas, la ETA y los eventos solo ven ubicaciones ya confirmadas
+ */
+class TrackingServiceTest {
+
+    private final UbicacionRepository ubicacionRepository = mock(UbicacionRepository.class);
+    private final UbicacionEventPublisher publisher = mock(UbicacionEventPublisher.class);
+    private final UltimaUbicacionCache cache = mock(UltimaUbicacionCache.class);
+    private final GeocercaService geocercaService = mock(GeocercaService.class);
+    private final EtaService etaService = mock(EtaService.class);
+    private final TrackingService service = new TrackingService(
+            ubicacionRepository, publisher, cache, mock(UbicacionMinutoRepository.class), geocercaService, etaService);
+
+    @BeforeEach
+    void iniciarTransaccion() {
+        when(ubicacionRepository.save(any(Ubicacion.class))).thenAnswer(i -> i.getArgument(0));
+        when(ubicacionRepository.saveAll(anyList())).thenAnswer(i -> i.getArgument(0));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void cerrarTransaccion() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void nadaSeActualizaAntesDelCommit() {
+        Ubicacion saved = service.registrarUbicacion(request(1L));
+
+        verifyNoInteractions(cache, geocercaService, etaService, publisher);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        verify(cache).actualizar(saved);
+        verify(geocercaService).evaluar(List.of(saved));
+        verify(etaService).registrar(List.of(saved));
+        verify(publisher).publicar(any());
+    }
+
+    @Test
+    void unRollbackNoLlegaALaCacheNiALosEventos() {
+        service.registrarUbicaciones(List.of(request(1L), request(2L)));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verifyNoInteractions(cache, geocercaService, etaService, publisher);
+    }
+
+    private static UbicacionRequest request(Long repartidorId) {
+        UbicacionRequest request = new UbicacionRequest();
+        request.setRepartidorId(repartidorId);
+        request.setLatitud(-0.2);
+        request.setLongitud(-78.5);
+        return request;
+    }
+}
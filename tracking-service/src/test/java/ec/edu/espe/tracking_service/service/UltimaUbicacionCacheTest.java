@@ -0,0 +1,55 @@
+package ec.edu.espe.tracking_service.service;
+
+import ec.edu.espe.tracking_service.dto.RepartidorCercano;
+import ec.edu.espe.tracking_service.model.Ubicacion;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Expiración de las últimas ubicaciones en las consultas de repartidores cercanos
+ */
+class UltimaUbicacionCacheTest {
+
+    // El repositorio solo se usa en la precarga
+    private final UltimaUbicacionCache cache = new UltimaUbicacionCache(null, 30, 0.01);
+
+    @Test
+    void losExpiradosNoReducenElResultado() {
+        LocalDateTime ahora = LocalDateTime.now();
+        // Los más cercanos reportaron hace una hora: quedan fuera de la ventana de 30 minutos
+        cache.actualizar(ubicacion(1L, 0.001, ahora.minusHours(1)));
+        cache.actualizar(ubicacion(2L, 0.002, ahora.minusHours(1)));
+        cache.actualizar(ubicacion(3L, 0.003, ahora));
+        cache.actualizar(ubicacion(4L, 0.004, ahora));
+        cache.actualizar(ubicacion(5L, 0.005, ahora.minusMinutes(5)));
+
+        List<RepartidorCercano> cercanos = cache.cercanos(0.0, 0.0, 10, 3);
+
+        assertEquals(List.of(3L, 4L, 5L), cercanos.stream().map(RepartidorCercano::getRepartidorId).toList());
+    }
+
+    @Test
+    void unaUbicacionMasViejaNoReemplazaALaVigente() {
+        LocalDateTime ahora = LocalDateTime.now();
+        cache.actualizar(ubicacion(1L, 0.001, ahora));
+        cache.actualizar(ubicacion(1L, 0.5, ahora.minusMinutes(1)));
+
+        assertEquals(0.001, cache.obtener(1L).orElseThrow().getLatitud());
+        assertTrue(cache.cercanos(0.5, 0.0, 1, 10).isEmpty());
+    }
+
+    private static Ubicacion ubicacion(Long repartidorId, double latitud, LocalDateTime timestamp) {
+        Ubicacion ubicacion = new Ubicacion();
+        ubicacion.setRepartidorId(repartidorId);
+        ubicacion.setLatitud(latitud);
+        ubicacion.setLongitud(0.0);
+        ubicacion.setEstado("EN_RUTA");
+        ubicacion.setTimestamp(timestamp);
+        return ubicacion;
+    }
+}
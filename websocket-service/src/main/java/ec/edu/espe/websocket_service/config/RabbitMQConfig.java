@@ -21,6 +21,9 @@ public class RabbitMQConfig {
     @Value("${rabbitmq.queues.ubicacion}")
     private String ubicacionQueue;
     
+    @Value("${rabbitmq.queues.eta}")
+    private String etaQueue;
+    
     @Value("${rabbitmq.exchanges.pedidos}")
     private String pedidosExchange;
     
@@ -36,6 +39,9 @@ public class RabbitMQConfig {
     @Value("${rabbitmq.routing-keys.ubicacion}")
     private String ubicacionKey;
     
+    @Value("${rabbitmq.routing-keys.eta}")
+    private String etaKey;
+    
     // Exchanges
     @Bean
     public TopicExchange pedidosExchange() {
@@ -63,6 +69,11 @@ public class RabbitMQConfig {
         return new Queue(ubicacionQueue, true);
     }
     
+    @Bean
+    public Queue etaQueue() {
+        return new Queue(etaQueue, true);
+    }
+    
     // Bindings
     @Bean
     public Binding pedidoCreadoBinding(Queue pedidoCreadoQueue, TopicExchange pedidosExchange) {
@@ -79,9 +90,15 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(ubicacionQueue).to(trackingExchange).with(ubicacionKey);
     }
     
+    @Bean
+    public Binding etaBinding(Queue etaQueue, TopicExchange trackingExchange) {
+        return BindingBuilder.bind(etaQueue).to(trackingExchange).with(etaKey);
+    }
+    
     @Bean
     public MessageConverter jsonMessageConverter() {
-        return new Jackson2JsonMessageConverter();
+        // Acepta eventos de ubicación en JSON o en el formato binario de tracking-service
+        return new UbicacionBinaryMessageConverter(new Jackson2JsonMessageConverter());
     }
     
     @Bean
@@ -0,0 +1,18 @@
+package ec.edu.espe.websocket_service.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EtaEvent {
+    private String eventId;
+    private Long pedidoId;
+    private Long repartidorId;
+    private Double distanciaKm;
+    private Long etaSegundos;
+    private String llegadaEstimada;
+    private String timestamp;
+}
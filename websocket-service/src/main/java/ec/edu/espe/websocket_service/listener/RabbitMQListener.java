@@ -1,5 +1,6 @@
 package ec.edu.espe.websocket_service.listener;
 
+import ec.edu.espe.websocket_service.event.EtaEvent;
 import ec.edu.espe.websocket_service.event.PedidoEvent;
 import ec.edu.espe.websocket_service.event.UbicacionEvent;
 import lombok.RequiredArgsConstructor;
@@ -74,4 +75,14 @@ public class RabbitMQListener {
         
         log.info("✅ Ubicación transmitida vía WebSocket");
     }
+    
+    /**
+     * Escucha cambios significativos del tiempo estimado de llegada de un pedido
+     */
+    @RabbitListener(queues = "${rabbitmq.queues.eta}")
+    public void handleEtaActualizada(EtaEvent event) {
+        log.info("📨 WebSocket: ETA actualizado - Pedido ID: {}, ETA: {}s", event.getPedidoId(), event.getEtaSegundos());
+        
+        messagingTemplate.convertAndSend("/topic/pedido/" + event.getPedidoId() + "/eta", event);
+    }
 }